@@ -1,6 +1,6 @@
 import { useState, useEffect, useCallback } from "react";
 import { fetchDueCards } from "@/lib/api";
-import type { Card as FlashCard } from "@/lib/api";
+import type { DueCard } from "@/lib/api";
 import { ReviewCard } from "@/components/review-card";
 import { CreateCardForm } from "@/components/create-card-form";
 import { CardTable } from "@/components/card-table";
@@ -11,7 +11,7 @@ import { Tabs, TabsList, TabsTrigger, TabsContent } from "@/components/ui/tabs";
 import { BookOpen, Clock, Layers, Inbox, TableProperties } from "lucide-react";
 
 export function App() {
-    const [dueCards, setDueCards] = useState<FlashCard[]>([]);
+    const [dueCards, setDueCards] = useState<DueCard[]>([]);
     const [isLoading, setIsLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
     const [tableRefreshKey, setTableRefreshKey] = useState(0);
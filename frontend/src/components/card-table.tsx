@@ -1,6 +1,6 @@
 import {useState, useEffect, useCallback} from "react";
-import {fetchCards, updateCard, deleteCard} from "@/lib/api";
-import type {Card as FlashCard} from "@/lib/api";
+import {fetchCardSlice, updateCard, deleteCard} from "@/lib/api";
+import type {Card as FlashCard, TotalMode} from "@/lib/api";
 import {
     Table,
     TableHeader,
@@ -22,6 +22,14 @@ interface CardTableProps {
 
 type SortDirection = "asc" | "desc";
 
+const compactNumber = new Intl.NumberFormat(undefined, {notation: "compact", maximumFractionDigits: 1});
+
+function formatTotal(total: number | null, mode: TotalMode | null): string | null {
+    if (total === null || mode === null || mode === "NONE") return null;
+    const cards = total === 1 ? "card" : "cards";
+    return mode === "APPROXIMATE" ? `~${compactNumber.format(total)} ${cards}` : `${total} ${cards}`;
+}
+
 interface SortConfig {
     key: string;
     direction: SortDirection;
@@ -29,6 +37,8 @@ interface SortConfig {
 
 export function CardTable({refreshKey}: CardTableProps) {
     const [cards, setCards] = useState<FlashCard[]>([]);
+    const [total, setTotal] = useState<number | null>(null);
+    const [totalMode, setTotalMode] = useState<TotalMode | null>(null);
     const [isLoading, setIsLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
     const [sortConfig, setSortConfig] = useState<SortConfig>({
@@ -44,11 +54,13 @@ export function CardTable({refreshKey}: CardTableProps) {
     const loadCards = useCallback(async () => {
         setIsLoading(true);
         try {
-            const data = await fetchCards({
+            const data = await fetchCardSlice({
                 sortBy: sortConfig.key,
                 sortDir: sortConfig.direction,
             });
             setCards(data.content);
+            setTotal(data.total);
+            setTotalMode(data.totalMode);
             setError(null);
         } catch {
             setError("Could not load cards.");
@@ -295,6 +307,11 @@ export function CardTable({refreshKey}: CardTableProps) {
                         ))}
                     </TableBody>
                 </Table>
+                {formatTotal(total, totalMode) && (
+                    <p className="border-t border-border px-4 py-2 text-right text-xs text-muted-foreground font-mono">
+                        {formatTotal(total, totalMode)}
+                    </p>
+                )}
             </CardContent>
         </Card>
     );
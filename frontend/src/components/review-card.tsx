@@ -4,19 +4,27 @@ import { useState } from "react"
 import { motion } from "framer-motion"
 import { Button } from "@/components/ui/button"
 import { Card, CardContent } from "@/components/ui/card"
-import type { Card as FlashCard } from "@/lib/api"
+import type { DueCard } from "@/lib/api"
 import { reviewCard } from "@/lib/api"
 import { RotateCcw } from "lucide-react"
 
 const RATINGS = [
-    { quality: 0, label: "Again", className: "bg-destructive text-destructive-foreground hover:bg-destructive/90" },
-    { quality: 2, label: "Hard", className: "bg-secondary text-secondary-foreground hover:bg-secondary/80" },
-    { quality: 3, label: "Good", className: "bg-primary text-primary-foreground hover:bg-primary/90" },
-    { quality: 5, label: "Easy", className: "bg-primary/70 text-primary-foreground hover:bg-primary/60" },
+    { rating: "AGAIN", quality: 0, label: "Again", className: "bg-destructive text-destructive-foreground hover:bg-destructive/90" },
+    { rating: "HARD", quality: 2, label: "Hard", className: "bg-secondary text-secondary-foreground hover:bg-secondary/80" },
+    { rating: "GOOD", quality: 3, label: "Good", className: "bg-primary text-primary-foreground hover:bg-primary/90" },
+    { rating: "EASY", quality: 5, label: "Easy", className: "bg-primary/70 text-primary-foreground hover:bg-primary/60" },
 ]
 
+function formatInterval(nextReview: string): string {
+    const minutes = Math.max(1, Math.round((new Date(nextReview).getTime() - Date.now()) / 60_000))
+    if (minutes < 60) return `${minutes}m`
+    const hours = Math.round(minutes / 60)
+    if (hours < 24) return `${hours}h`
+    return `${Math.round(hours / 24)}d`
+}
+
 interface ReviewCardProps {
-    card: FlashCard
+    card: DueCard
     onReviewed: () => void
 }
 
@@ -83,16 +91,24 @@ export function ReviewCard({ card, onReviewed }: ReviewCardProps) {
             {/* Rating buttons (only when flipped) */}
             {flipped && (
                 <div className="flex flex-wrap items-center justify-center gap-3">
-                    {RATINGS.map((r) => (
-                        <Button
-                            key={r.quality}
-                            disabled={isSubmitting}
-                            className={r.className}
-                            onClick={() => handleRate(r.quality)}
-                        >
-                            {r.label}
-                        </Button>
-                    ))}
+                    {RATINGS.map((r) => {
+                        const preview = card.previews?.find((p) => p.rating === r.rating)
+                        return (
+                            <Button
+                                key={r.quality}
+                                disabled={isSubmitting}
+                                className={r.className}
+                                onClick={() => handleRate(r.quality)}
+                            >
+                                {r.label}
+                                {preview && (
+                                    <span className="ml-1 text-xs opacity-80">
+                                        {formatInterval(preview.nextReview)}
+                                    </span>
+                                )}
+                            </Button>
+                        )
+                    })}
                 </div>
             )}
 
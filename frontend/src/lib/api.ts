@@ -9,6 +9,17 @@ export interface PageResponse<T> {
     last: boolean;
 }
 
+export type TotalMode = "EXACT" | "APPROXIMATE" | "NONE";
+
+export interface SliceResponse<T> {
+    content: T[];
+    page: number;
+    size: number;
+    last: boolean;
+    total: number | null;
+    totalMode: TotalMode;
+}
+
 export interface CardListParams {
     page?: number;
     size?: number;
@@ -25,14 +36,41 @@ export interface Card {
     createdAt: string;
 }
 
-export async function fetchCards(params: CardListParams = {}): Promise<PageResponse<Card>> {
+export type Rating = "AGAIN" | "HARD" | "GOOD" | "EASY";
+
+export interface ReviewPreview {
+    rating: Rating;
+    quality: number;
+    nextReview: string;
+}
+
+export interface DueCard extends Card {
+    previews: ReviewPreview[];
+}
+
+function cardListQuery(params: CardListParams): URLSearchParams {
     const query = new URLSearchParams();
     if (params.page !== undefined) query.set("page", String(params.page));
     if (params.size !== undefined) query.set("size", String(params.size));
     if (params.sortBy) query.set("sortBy", params.sortBy);
     if (params.sortDir) query.set("sortDir", params.sortDir);
     if (params.search) query.set("search", params.search);
+    return query;
+}
+
+export async function fetchCards(params: CardListParams = {}): Promise<PageResponse<Card>> {
+    const res = await fetch(`${API_BASE}/cards?${cardListQuery(params)}`);
+    if (!res.ok) throw new Error("Failed to fetch cards");
+    return res.json();
+}
 
+/** Like {@link fetchCards}, but without the exact count query on every page. */
+export async function fetchCardSlice(
+    params: CardListParams = {},
+    total: TotalMode = "APPROXIMATE",
+): Promise<SliceResponse<Card>> {
+    const query = cardListQuery(params);
+    query.set("total", total);
     const res = await fetch(`${API_BASE}/cards?${query}`);
     if (!res.ok) throw new Error("Failed to fetch cards");
     return res.json();
@@ -53,7 +91,7 @@ export async function deleteCard(id: string): Promise<void> {
     if (!res.ok) throw new Error("Failed to delete card");
 }
 
-export async function fetchDueCards(): Promise<Card[]> {
+export async function fetchDueCards(): Promise<DueCard[]> {
     const res = await fetch(`${API_BASE}/cards/due`);
     if (!res.ok) throw new Error("Failed to fetch due cards");
     return res.json();
@@ -1,10 +1,13 @@
 package com.mrtob.srs.algorithm;
 
+import com.mrtob.srs.config.FsrsProperties;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties(FsrsProperties.class)
 public class AlgorithmConfig {
 
     @Bean
@@ -15,7 +18,7 @@ public class AlgorithmConfig {
 
     @Bean
     @ConditionalOnProperty(name = "srs.algorithm", havingValue = "fsrs", matchIfMissing = true)
-    public SpacedRepetitionAlgorithm fsrsAlgorithm() {
-        return new FSRSAlgorithm();
+    public SpacedRepetitionAlgorithm fsrsAlgorithm(FsrsProperties properties) {
+        return new FSRSAlgorithm(properties.precision());
     }
 }
@@ -1,10 +1,10 @@
 package com.mrtob.srs.algorithm;
 
-import com.mrtob.srs.entity.Card;
-
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Free Spaced Repetition Scheduler (FSRS) v4.
@@ -16,11 +16,24 @@ import java.time.temporal.ChronoUnit;
  * </ul>
  * <p>
  * Uses the power-law forgetting curve: R(t) = (1 + FACTOR * t/S)^DECAY
+ * <p>
+ * With {@link Precision#TABLES}, stability updates come from precomputed tables
+ * ({@link FSRSLookupTables}) and the forgetting curve from a square root, trading a relative error
+ * of at most {@value FSRSLookupTables#MAX_RELATIVE_ERROR} in the new stability for speed.
  */
 public class FSRSAlgorithm implements SpacedRepetitionAlgorithm {
 
-    private static final double DECAY = -0.5;
-    private static final double FACTOR = 19.0 / 81.0;
+    public enum Precision {
+        /** Evaluates every power and exponential. */
+        EXACT,
+        /** Interpolates precomputed tables, see {@link FSRSLookupTables}. */
+        TABLES
+    }
+
+    /** Exponent of the forgetting curve; also used by the database ranking in {@code DueOrder}. */
+    public static final double DECAY = -0.5;
+    /** Scale of the forgetting curve, chosen so that R(S) = 90%. */
+    public static final double FACTOR = 19.0 / 81.0;
     private static final double DESIRED_RETENTION = 0.9;
 
     // Learning phase intervals in minutes for "Again" rating
@@ -42,23 +55,53 @@ public class FSRSAlgorithm implements SpacedRepetitionAlgorithm {
             1.26,                  // w14: fail retrievability factor
     };
 
+    private static final double EXP_W8 = Math.exp(W[8]);
+    private static final double RETENTION_TERM = Math.pow(DESIRED_RETENTION, 1.0 / DECAY) - 1;
+    private static final double[] INITIAL_DIFFICULTY = {
+            initialDifficulty(1), initialDifficulty(2), initialDifficulty(3), initialDifficulty(4)
+    };
+
+    private final FSRSLookupTables tables;
+
+    public FSRSAlgorithm() {
+        this(Precision.EXACT);
+    }
+
+    public FSRSAlgorithm(Precision precision) {
+        this.tables = precision == Precision.TABLES ? new FSRSLookupTables(W) : null;
+    }
+
     @Override
-    public Card review(Card card, int quality) {
-        int rating = mapQualityToRating(quality);
+    public MemoryState schedule(MemoryState state, int quality, Instant now) {
+        return next(state, mapQualityToRating(quality), now, schedulingRetrievability(state, now));
+    }
 
-        double stability = card.getStability();
-        double difficulty = card.getDifficulty();
-        int learningStep = card.getLearningStep();
+    /**
+     * Previews all four ratings. Retrievability only depends on the state and the time,
+     * so it is computed once and shared by the four outcomes.
+     */
+    @Override
+    public Map<Rating, MemoryState> previewAll(MemoryState state, Instant now) {
+        double retrievability = schedulingRetrievability(state, now);
+        Map<Rating, MemoryState> previews = new EnumMap<>(Rating.class);
+        for (Rating rating : Rating.values()) {
+            previews.put(rating, next(state, mapQualityToRating(rating.quality()), now, retrievability));
+        }
+        return previews;
+    }
+
+    private MemoryState next(MemoryState state, int rating, Instant now, double retrievability) {
+        double stability = state.stability();
+        double difficulty = state.difficulty();
+        int learningStep = state.learningStep();
+        Instant nextReview;
 
         if (stability == 0) {
             // First review — initialize parameters
             stability = initialStability(rating);
-            difficulty = initialDifficulty(rating);
+            difficulty = INITIAL_DIFFICULTY[rating - 1];
         } else {
             // Subsequent review — update parameters
-            double elapsedDays = elapsedDaysSinceLastReview(card);
-            double retrievability = retrievability(elapsedDays, stability);
-
             difficulty = nextDifficulty(difficulty, rating);
             stability = (rating == 1)
                     ? failStability(stability, difficulty, retrievability)
@@ -74,37 +117,62 @@ public class FSRSAlgorithm implements SpacedRepetitionAlgorithm {
             }
             // Use short learning interval (minutes)
             int minutes = LEARNING_STEPS_MINUTES[Math.min(learningStep, LEARNING_STEPS_MINUTES.length - 1)];
-            card.setNextReview(Instant.now().plus(minutes, ChronoUnit.MINUTES));
-            card.setLearningStep(learningStep);
+            nextReview = now.plus(minutes, ChronoUnit.MINUTES);
         } else if (rating == 2 && learningStep >= 0) {
             // Hard during learning: repeat current step
             int minutes = LEARNING_STEPS_MINUTES[Math.min(learningStep, LEARNING_STEPS_MINUTES.length - 1)];
-            card.setNextReview(Instant.now().plus(minutes, ChronoUnit.MINUTES));
-            card.setLearningStep(learningStep);
+            nextReview = now.plus(minutes, ChronoUnit.MINUTES);
         } else if (rating == 4) {
             // Easy: always graduate immediately to review phase
             learningStep = -1;
             long intervalDays = Math.max(1, Math.round(nextInterval(stability)));
-            card.setNextReview(Instant.now().plus(intervalDays, ChronoUnit.DAYS));
-            card.setLearningStep(learningStep);
+            nextReview = now.plus(intervalDays, ChronoUnit.DAYS);
         } else if (learningStep >= 0 && learningStep < LEARNING_STEPS_MINUTES.length - 1) {
             // Good during learning: advance to next step
             learningStep++;
             int minutes = LEARNING_STEPS_MINUTES[learningStep];
-            card.setNextReview(Instant.now().plus(minutes, ChronoUnit.MINUTES));
-            card.setLearningStep(learningStep);
+            nextReview = now.plus(minutes, ChronoUnit.MINUTES);
         } else {
             // Graduate to review phase (Good at last step, or already in review phase)
             learningStep = -1;
             long intervalDays = Math.max(1, Math.round(nextInterval(stability)));
-            card.setNextReview(Instant.now().plus(intervalDays, ChronoUnit.DAYS));
-            card.setLearningStep(learningStep);
+            nextReview = now.plus(intervalDays, ChronoUnit.DAYS);
         }
 
-        card.setStability(stability);
-        card.setDifficulty(difficulty);
+        return new MemoryState(state.easinessFactor(), state.intervalDays(), state.repetitions(),
+                stability, difficulty, learningStep, nextReview, now);
+    }
+
+    /**
+     * Predicted recall probability, with the time elapsed since the last review. Used to rank and
+     * report cards; scheduling keeps measuring from the due date, see {@link #schedulingRetrievability}.
+     */
+    @Override
+    public double retrievability(MemoryState state, Instant now) {
+        if (state.stability() == 0) {
+            return 1; // not used for the first review
+        }
+        Instant since = state.lastReview() != null ? state.lastReview() : state.nextReview();
+        return retrievability(elapsedDays(since, now), state.stability());
+    }
+
+    /**
+     * Retrievability fed into the stability update. Elapsed time is measured from the due date, not
+     * from {@code lastReview}, so knowing the last review does not change any interval.
+     */
+    private double schedulingRetrievability(MemoryState state, Instant now) {
+        if (state.stability() == 0) {
+            return 1; // not used for the first review
+        }
+        return retrievability(elapsedDays(state.nextReview(), now), state.stability());
+    }
 
-        return card;
+    /**
+     * Anything but "Again" counts as recalled.
+     */
+    @Override
+    public boolean passed(int quality) {
+        return mapQualityToRating(quality) > 1;
     }
 
     /**
@@ -122,26 +190,36 @@ public class FSRSAlgorithm implements SpacedRepetitionAlgorithm {
         return W[rating - 1];
     }
 
-    private double initialDifficulty(int rating) {
+    private static double initialDifficulty(int rating) {
         return clampDifficulty(W[4] - Math.exp(W[5] * (rating - 1)) + 1);
     }
 
     private double nextDifficulty(double d, int rating) {
-        double meanReversionTarget = initialDifficulty(4);
+        double meanReversionTarget = INITIAL_DIFFICULTY[3];
         double newD = W[7] * meanReversionTarget + (1 - W[7]) * (d - W[6] * (rating - 3));
         return clampDifficulty(newD);
     }
 
     private double retrievability(double elapsedDays, double stability) {
+        if (tables != null) {
+            // DECAY is -0.5: one square root instead of a power
+            return 1 / Math.sqrt(1 + FACTOR * elapsedDays / stability);
+        }
         return Math.pow(1 + FACTOR * elapsedDays / stability, DECAY);
     }
 
     private double successStability(double s, double d, double r) {
-        return s * (Math.exp(W[8]) * (11 - d) * Math.pow(s, -W[9])
+        if (tables != null) {
+            return tables.successStability(s, d, r);
+        }
+        return s * (EXP_W8 * (11 - d) * Math.pow(s, -W[9])
                 * (Math.exp(W[10] * (1 - r)) - 1) + 1);
     }
 
     private double failStability(double s, double d, double r) {
+        if (tables != null) {
+            return tables.failStability(s, d, r);
+        }
         return W[11] * Math.pow(d, -W[12]) * (Math.pow(s + 1, W[13]) - 1)
                 * Math.exp(W[14] * (1 - r));
     }
@@ -151,15 +229,15 @@ public class FSRSAlgorithm implements SpacedRepetitionAlgorithm {
      * For 90% retention, this simplifies to approximately S (stability) days.
      */
     private double nextInterval(double stability) {
-        return (stability / FACTOR) * (Math.pow(DESIRED_RETENTION, 1.0 / DECAY) - 1);
+        return (stability / FACTOR) * RETENTION_TERM;
     }
 
-    private double elapsedDaysSinceLastReview(Card card) {
-        Duration elapsed = Duration.between(card.getNextReview(), Instant.now());
+    private static double elapsedDays(Instant since, Instant now) {
+        Duration elapsed = Duration.between(since, now);
         return Math.max(0, elapsed.toHours() / 24.0);
     }
 
-    private double clampDifficulty(double d) {
+    private static double clampDifficulty(double d) {
         return Math.clamp(d, 1.0, 10.0);
     }
 }
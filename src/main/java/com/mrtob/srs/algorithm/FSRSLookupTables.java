@@ -0,0 +1,126 @@
+package com.mrtob.srs.algorithm;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Stability updates of {@link FSRSAlgorithm} from precomputed tables instead of {@code Math.pow} and
+ * {@code Math.exp} ({@link FSRSAlgorithm.Precision#TABLES}).
+ * <p>
+ * Both updates are products of one-dimensional factors, so each factor gets its own small table rather
+ * than one table over a discretized (S, D, R) grid:
+ * <ul>
+ *   <li>powers of S and D ({@code S^-w9}, {@code D^-w12}, {@code (S+1)^w13}) split the argument into its
+ *       binary exponent, looked up exactly, and its mantissa in [1, 2), interpolated linearly between
+ *       1025 points — no logarithm needed to find the cell;</li>
+ *   <li>exponentials of R ({@code e^(w10(1-R)) - 1}, {@code e^(w14(1-R))}) are interpolated linearly
+ *       between 2049 points over [0, 1].</li>
+ * </ul>
+ * All tables together take about 100 KB. Linear interpolation of a function f over cells of width h
+ * is off by at most {@code h^2 / 8 * max|f''|}, which bounds the new stability to a relative error of
+ * {@value #MAX_RELATIVE_ERROR} for S of at least 0.001 days, D in [1, 10] and R in [0, 1] (measured:
+ * 3e-6). For {@code S < 1/8}, where {@code (S+1)^w13 - 1} would lose that precision, the lapse update
+ * falls back to {@code Math.pow}.
+ */
+final class FSRSLookupTables {
+
+    /** Upper bound of the relative error of a stability computed from the tables. */
+    static final double MAX_RELATIVE_ERROR = 1e-5;
+
+    private static final int R_CELLS = 2048;
+    private static final double EXACT_LAPSE_BELOW = 0.125;
+
+    private final double successScale;
+    private final double lapseScale;
+    private final double lapseExponent;
+    private final PowerTable stabilityDecay;
+    private final PowerTable difficultyDecay;
+    private final PowerTable lapseGrowth;
+    private final UnitTable recallGrowth;
+    private final UnitTable lapseRecall;
+
+    FSRSLookupTables(double[] w) {
+        successScale = Math.exp(w[8]);
+        lapseScale = w[11];
+        lapseExponent = w[13];
+        stabilityDecay = new PowerTable(-w[9]);
+        difficultyDecay = new PowerTable(-w[12]);
+        lapseGrowth = new PowerTable(w[13]);
+        recallGrowth = new UnitTable(r -> Math.expm1(w[10] * (1 - r)));
+        lapseRecall = new UnitTable(r -> Math.exp(w[14] * (1 - r)));
+    }
+
+    /**
+     * {@code S * (e^w8 * (11 - D) * S^-w9 * (e^(w10(1-R)) - 1) + 1)}
+     */
+    double successStability(double s, double d, double r) {
+        return s * (successScale * (11 - d) * stabilityDecay.pow(s) * recallGrowth.at(r) + 1);
+    }
+
+    /**
+     * {@code w11 * D^-w12 * ((S+1)^w13 - 1) * e^(w14(1-R))}
+     */
+    double failStability(double s, double d, double r) {
+        double growth = s < EXACT_LAPSE_BELOW ? Math.pow(s + 1, lapseExponent) - 1 : lapseGrowth.pow(s + 1) - 1;
+        return lapseScale * difficultyDecay.pow(d) * growth * lapseRecall.at(r);
+    }
+
+    /**
+     * {@code x^p} for positive normal {@code x}: the exponent's part {@code 2^(p*e)} is looked up, the
+     * mantissa's part {@code m^p} interpolated. Other arguments fall back to {@code Math.pow}.
+     */
+    static final class PowerTable {
+
+        private static final int MANTISSA_BITS = 10;
+        private static final int SHIFT = 52 - MANTISSA_BITS;
+        private static final long FRACTION_MASK = (1L << SHIFT) - 1;
+        private static final double FRACTION_SCALE = 1.0 / (1L << SHIFT);
+
+        private final double exponent;
+        private final double[] mantissa = new double[(1 << MANTISSA_BITS) + 1];
+        // 2^(p*e) for the biased exponents 1..2046 of normal doubles
+        private final double[] scale = new double[2046];
+
+        PowerTable(double exponent) {
+            this.exponent = exponent;
+            for (int i = 0; i < mantissa.length; i++) {
+                mantissa[i] = Math.pow(1 + (double) i / (1 << MANTISSA_BITS), exponent);
+            }
+            for (int biased = 1; biased <= scale.length; biased++) {
+                scale[biased - 1] = Math.pow(2, exponent * (biased - 1023));
+            }
+        }
+
+        double pow(double x) {
+            long bits = Double.doubleToRawLongBits(x);
+            int biased = (int) (bits >>> 52);
+            if (biased == 0 || biased >= 0x7FF) {
+                // zero, subnormal, negative, infinite or NaN
+                return Math.pow(x, exponent);
+            }
+            int cell = (int) (bits >>> SHIFT) & ((1 << MANTISSA_BITS) - 1);
+            double t = (bits & FRACTION_MASK) * FRACTION_SCALE;
+            double m = mantissa[cell] + (mantissa[cell + 1] - mantissa[cell]) * t;
+            return m * scale[biased - 1];
+        }
+    }
+
+    /**
+     * A function of R in [0, 1], interpolated; arguments outside are clamped.
+     */
+    static final class UnitTable {
+
+        private final double[] values = new double[R_CELLS + 1];
+
+        UnitTable(DoubleUnaryOperator function) {
+            for (int i = 0; i <= R_CELLS; i++) {
+                values[i] = function.applyAsDouble((double) i / R_CELLS);
+            }
+        }
+
+        double at(double r) {
+            double x = Math.clamp(r, 0.0, 1.0) * R_CELLS;
+            int cell = Math.min((int) x, R_CELLS - 1);
+            return values[cell] + (values[cell + 1] - values[cell]) * (x - cell);
+        }
+    }
+}
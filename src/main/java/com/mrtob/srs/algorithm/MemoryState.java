@@ -0,0 +1,54 @@
+package com.mrtob.srs.algorithm;
+
+import com.mrtob.srs.entity.Card;
+
+import java.time.Instant;
+
+/**
+ * Immutable scheduling state of a single card.
+ * <p>
+ * Carries the fields of both algorithms so a card can switch between SM-2 and FSRS
+ * without losing state. Algorithms derive a new state instead of mutating the entity.
+ * <p>
+ * {@code lastReview} is {@code null} when the time of the previous review is unknown.
+ */
+public record MemoryState(
+        double easinessFactor,
+        int intervalDays,
+        int repetitions,
+        double stability,
+        double difficulty,
+        int learningStep,
+        Instant nextReview,
+        Instant lastReview
+) {
+
+    /** State of a card that has never been reviewed. */
+    public static MemoryState initial(Instant now) {
+        return new MemoryState(2.5, 0, 0, 0, 0, 0, now, null);
+    }
+
+    public static MemoryState of(Card card) {
+        return new MemoryState(
+                card.getEasinessFactor(),
+                card.getIntervalDays(),
+                card.getRepetitions(),
+                card.getStability(),
+                card.getDifficulty(),
+                card.getLearningStep(),
+                card.getNextReview(),
+                card.getLastReview()
+        );
+    }
+
+    public void applyTo(Card card) {
+        card.setEasinessFactor(easinessFactor);
+        card.setIntervalDays(intervalDays);
+        card.setRepetitions(repetitions);
+        card.setStability(stability);
+        card.setDifficulty(difficulty);
+        card.setLearningStep(learningStep);
+        card.setNextReview(nextReview);
+        card.setLastReview(lastReview);
+    }
+}
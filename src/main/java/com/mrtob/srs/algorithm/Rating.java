@@ -0,0 +1,21 @@
+package com.mrtob.srs.algorithm;
+
+/**
+ * The four answer buttons offered by the review UI, with the 0-5 quality score each one submits.
+ */
+public enum Rating {
+    AGAIN(0),
+    HARD(2),
+    GOOD(3),
+    EASY(5);
+
+    private final int quality;
+
+    Rating(int quality) {
+        this.quality = quality;
+    }
+
+    public int quality() {
+        return quality;
+    }
+}
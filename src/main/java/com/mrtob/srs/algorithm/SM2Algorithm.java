@@ -1,7 +1,6 @@
 package com.mrtob.srs.algorithm;
 
-import com.mrtob.srs.entity.Card;
-
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
@@ -14,13 +13,16 @@ import java.time.temporal.ChronoUnit;
  */
 public class SM2Algorithm implements SpacedRepetitionAlgorithm {
 
+    /** Recall probability assumed after one full interval: {@code R = RETENTION_PER_INTERVAL^(t/I)}. */
+    public static final double RETENTION_PER_INTERVAL = 0.9;
+
     @Override
-    public Card review(Card card, int quality) {
+    public MemoryState schedule(MemoryState state, int quality, Instant now) {
         quality = Math.clamp(quality, 0, 5);
 
-        double ef = card.getEasinessFactor();
-        int repetitions = card.getRepetitions();
-        int interval = card.getIntervalDays();
+        double ef = state.easinessFactor();
+        int repetitions = state.repetitions();
+        int interval = state.intervalDays();
 
         // Update easiness factor (always, regardless of pass/fail)
         ef = ef + (0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02));
@@ -40,11 +42,29 @@ public class SM2Algorithm implements SpacedRepetitionAlgorithm {
             interval = 1;
         }
 
-        card.setEasinessFactor(ef);
-        card.setRepetitions(repetitions);
-        card.setIntervalDays(interval);
-        card.setNextReview(Instant.now().plus(interval, ChronoUnit.DAYS));
+        return new MemoryState(ef, interval, repetitions,
+                state.stability(), state.difficulty(), state.learningStep(),
+                now.plus(interval, ChronoUnit.DAYS), now);
+    }
+
+    @Override
+    public boolean passed(int quality) {
+        return quality >= 3;
+    }
 
-        return card;
+    /**
+     * SM-2 has no forgetting model. Assumes exponential forgetting that reaches 90% recall
+     * at the end of the scheduled interval.
+     */
+    @Override
+    public double retrievability(MemoryState state, Instant now) {
+        if (state.intervalDays() == 0) {
+            return 1;
+        }
+        Instant lastReview = state.lastReview() != null
+                ? state.lastReview()
+                : state.nextReview().minus(state.intervalDays(), ChronoUnit.DAYS);
+        double elapsedDays = Math.max(0, Duration.between(lastReview, now).toMinutes() / 1440.0);
+        return Math.pow(RETENTION_PER_INTERVAL, elapsedDays / state.intervalDays());
     }
 }
@@ -2,7 +2,44 @@ package com.mrtob.srs.algorithm;
 
 import com.mrtob.srs.entity.Card;
 
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
 public interface SpacedRepetitionAlgorithm {
 
-    Card review(Card card, int quality);
+    /**
+     * Computes the state after answering with the given 0-5 quality score at {@code now}.
+     * Pure function: neither the input state nor any clock is touched.
+     */
+    MemoryState schedule(MemoryState state, int quality, Instant now);
+
+    /**
+     * Predicted probability of recall at {@code now}, according to the algorithm's memory model.
+     */
+    double retrievability(MemoryState state, Instant now);
+
+    /**
+     * Whether the algorithm treats an answer with the given 0-5 quality score as recalled, not as a lapse.
+     */
+    boolean passed(int quality);
+
+    /**
+     * Computes the outcome of every {@link Rating} for the same state and time.
+     */
+    default Map<Rating, MemoryState> previewAll(MemoryState state, Instant now) {
+        Map<Rating, MemoryState> previews = new EnumMap<>(Rating.class);
+        for (Rating rating : Rating.values()) {
+            previews.put(rating, schedule(state, rating.quality(), now));
+        }
+        return previews;
+    }
+
+    /**
+     * Applies a review to the card entity, using the current time.
+     */
+    default Card review(Card card, int quality) {
+        schedule(MemoryState.of(card), quality, Instant.now()).applyTo(card);
+        return card;
+    }
 }
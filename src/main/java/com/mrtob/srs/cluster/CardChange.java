@@ -0,0 +1,34 @@
+package com.mrtob.srs.cluster;
+
+import java.time.Instant;
+
+/**
+ * A change of a card's {@code nextReview}, as exchanged between replicas.
+ *
+ * @param from the previous {@code nextReview}, or {@code null} for a created card
+ * @param to   the new {@code nextReview}, or {@code null} for a deleted card
+ */
+public record CardChange(Instant from, Instant to) {
+
+    /** Whether the number of cards changed (created or deleted). */
+    public boolean changesCount() {
+        return from == null || to == null;
+    }
+
+    String encode() {
+        return toMillis(from) + "," + toMillis(to);
+    }
+
+    static CardChange decode(String line) {
+        int comma = line.indexOf(',');
+        return new CardChange(fromMillis(line.substring(0, comma)), fromMillis(line.substring(comma + 1)));
+    }
+
+    private static String toMillis(Instant instant) {
+        return instant == null ? "" : Long.toString(instant.toEpochMilli());
+    }
+
+    private static Instant fromMillis(String millis) {
+        return millis.isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(millis));
+    }
+}
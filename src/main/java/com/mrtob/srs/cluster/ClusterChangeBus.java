@@ -0,0 +1,252 @@
+package com.mrtob.srs.cluster;
+
+import com.mrtob.srs.config.ClusterProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Exchanges card changes between replicas over Postgres {@code LISTEN}/{@code NOTIFY}.
+ * <p>
+ * Local changes are queued and sent every {@code notify-interval} as compact text payloads
+ * (one {@code from,to} line per change), so writes do not pay an extra round trip. A listener
+ * thread holds one pooled connection with {@code LISTEN} and republishes changes from other
+ * replicas as {@link RemoteCardChanges} application events. Notifications missed before that
+ * connection listens, or while it was down, are covered by a {@link ClusterResync} event each time
+ * {@code LISTEN} succeeds, and again whenever applying received changes fails. Malformed payloads are
+ * skipped. Changes whose notification failed are queued again for the next send.
+ */
+@Component
+@Slf4j
+public class ClusterChangeBus {
+
+    /** {@code NOTIFY} payloads must be shorter than 8000 bytes. */
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final long POLL_MILLIS = 1000;
+    private static final long RECONNECT_MILLIS = 5000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher events;
+    private final ClusterProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Queue<CardChange> outbox = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+    private ScheduledExecutorService sender;
+    private Thread listener;
+
+    public ClusterChangeBus(DataSource dataSource, JdbcTemplate jdbcTemplate, ApplicationEventPublisher events,
+                            ClusterProperties properties) {
+        if (!CHANNEL_NAME.matcher(properties.channel()).matches()) {
+            throw new IllegalArgumentException("Invalid srs.cluster.channel: " + properties.channel());
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.events = events;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        sender = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cluster-notify").factory());
+        long intervalMillis = properties.notifyInterval().toMillis();
+        sender.scheduleWithFixedDelay(this::sendQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        listener = Thread.ofPlatform().name("cluster-listen").daemon().start(this::listen);
+        log.info("Cluster change bus started on channel '{}' as node {}", properties.channel(), nodeId);
+    }
+
+    /**
+     * Queues a change for the other replicas. A no-op when the bus is disabled.
+     */
+    public void publish(Instant from, Instant to) {
+        if (running) {
+            outbox.add(new CardChange(from, to));
+        }
+    }
+
+    void send() {
+        List<CardChange> batch = new ArrayList<>();
+        for (CardChange change; (change = outbox.poll()) != null; ) {
+            batch.add(change);
+        }
+        int sent = 0;
+        try {
+            for (String payload : encode(nodeId, batch)) {
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+                }, properties.channel(), payload);
+                sent += (int) payload.chars().filter(c -> c == '\n').count();
+            }
+        } catch (DataAccessException e) {
+            // Changes are counter moves, so sending them after newer ones is still correct
+            outbox.addAll(batch.subList(sent, batch.size()));
+            throw e;
+        }
+    }
+
+    private void sendQuietly() {
+        try {
+            send();
+        } catch (DataAccessException e) {
+            log.warn("Sending cluster notifications failed, {} changes queued again: {}", outbox.size(),
+                    e.getMessage());
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (!connection.isWrapperFor(PGConnection.class)) {
+                    log.warn("Cluster listener needs a Postgres connection, cross-replica changes are not received");
+                    return;
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.channel());
+                }
+                // Changes sent before LISTEN took effect were missed, on the first connection too
+                log.info("Cluster listener connected, resyncing local state");
+                boolean resync = true;
+
+                while (running) {
+                    if (resync) {
+                        resync = !resync();
+                    }
+                    PGNotification[] notifications = pg.getNotifications((int) POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            try {
+                                receive(notification.getParameter());
+                            } catch (RuntimeException e) {
+                                log.warn("Applying cluster changes failed, resyncing local state", e);
+                                resync = true;
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cluster listener lost its connection, retrying in {} ms: {}", RECONNECT_MILLIS, e.getMessage());
+                if (!pause()) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // The listener is the only way changes of other replicas arrive, so it must not die
+                log.error("Cluster listener failed, reconnecting in {} ms", RECONNECT_MILLIS, e);
+                if (!running || !pause()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the resync handlers succeeded; if not, the listener tries again after the next poll
+     */
+    private boolean resync() {
+        try {
+            events.publishEvent(new ClusterResync());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Resyncing local state failed, retrying: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean pause() {
+        try {
+            Thread.sleep(RECONNECT_MILLIS);
+            return true;
+        } catch (InterruptedException interrupted) {
+            return false;
+        }
+    }
+
+    void receive(String payload) {
+        int newline = payload.indexOf('\n');
+        if (newline < 0 || payload.substring(0, newline).equals(nodeId)) {
+            return;
+        }
+        List<CardChange> changes;
+        try {
+            changes = payload.substring(newline + 1).lines().map(CardChange::decode).toList();
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed cluster notification from {}: {}", payload.substring(0, newline),
+                    e.toString());
+            return;
+        }
+        events.publishEvent(new RemoteCardChanges(changes));
+    }
+
+    /**
+     * Splits changes into payloads of at most {@link #MAX_PAYLOAD_BYTES}, each starting with the sender's node id.
+     */
+    static List<String> encode(String nodeId, List<CardChange> changes) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        for (CardChange change : changes) {
+            String line = "\n" + change.encode();
+            if (payload.length() + line.length() > MAX_PAYLOAD_BYTES) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(nodeId);
+            }
+            payload.append(line);
+        }
+        if (payload.length() > nodeId.length()) {
+            payloads.add(payload.toString());
+        }
+        // Payloads are ASCII, so characters and bytes agree
+        assert payloads.stream().allMatch(p -> p.getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES);
+        return payloads;
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        sender.shutdown();
+        try {
+            sender.awaitTermination(properties.notifyInterval().toMillis() * 2 + 1000, TimeUnit.MILLISECONDS);
+            sendQuietly();
+            listener.join(POLL_MILLIS * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mrtob.srs.cluster;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Runs background jobs on at most one replica at a time, elected with Postgres advisory locks.
+ * <p>
+ * The lock is held on a dedicated pooled connection for the duration of the job and released
+ * afterwards; if the replica dies, Postgres releases it with the connection. Replicas that do not
+ * get the lock skip the run instead of waiting.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterJobs {
+
+    /** Namespace for this application's advisory locks (first key of the two-key form). */
+    private static final int LOCK_NAMESPACE = 0x535253;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return whether the job ran here; {@code false} if another replica is running it
+     */
+    public boolean runExclusive(String jobName, Runnable job) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!lock(connection, "SELECT pg_try_advisory_lock(?, hashtext(?))", jobName)) {
+                log.debug("Job '{}' is running on another replica, skipping", jobName);
+                return false;
+            }
+            try {
+                job.run();
+                return true;
+            } finally {
+                lock(connection, "SELECT pg_advisory_unlock(?, hashtext(?))", jobName);
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private static boolean lock(Connection connection, String sql, String jobName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setString(2, jobName);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.mrtob.srs.cluster;
+
+/**
+ * Application event published after the change listener reconnected; notifications sent while
+ * it was disconnected are lost, so local caches must be rebuilt from the database.
+ */
+public record ClusterResync() {
+}
@@ -0,0 +1,108 @@
+package com.mrtob.srs.cluster;
+
+import com.mrtob.srs.config.ClusterProperties;
+import com.mrtob.srs.config.SnapshotProperties;
+import com.mrtob.srs.config.StatsProperties;
+import com.mrtob.srs.repository.CardLeaseRepository;
+import com.mrtob.srs.repository.ReviewStatsRepository;
+import com.mrtob.srs.repository.SchedulingSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic database maintenance that must run once per cluster, not once per replica.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MaintenanceJobs {
+
+    private final ClusterJobs clusterJobs;
+    private final CardLeaseRepository leases;
+    private final ClusterProperties properties;
+    private final SchedulingSnapshotRepository snapshots;
+    private final SnapshotProperties snapshotProperties;
+    private final ReviewStatsRepository reviewStats;
+    private final StatsProperties statsProperties;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("maintenance").factory());
+        long intervalMillis = properties.maintenanceInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::runAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void runAll() {
+        run("release-expired-leases", this::releaseExpiredLeases);
+        run("prune-card-tombstones", this::pruneCardTombstones);
+        run("prune-review-log", this::pruneReviewLog);
+    }
+
+    /**
+     * Runs one job, so that its failure neither skips the others nor cancels the schedule.
+     */
+    private void run(String jobName, Runnable job) {
+        try {
+            clusterJobs.runExclusive(jobName, job);
+        } catch (DataAccessException e) {
+            log.warn("Maintenance job '{}' failed: {}", jobName, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Maintenance job '{}' failed", jobName, e);
+        }
+    }
+
+    /**
+     * Expired leases are taken over on demand anyway; clearing them keeps the lease index small.
+     */
+    private void releaseExpiredLeases() {
+        int released = leases.releaseExpired(Instant.now());
+        if (released > 0) {
+            log.info("Released {} expired card leases", released);
+        }
+    }
+
+    /**
+     * Deletions only matter for snapshots young enough to be loaded; older tombstones are dropped.
+     */
+    private void pruneCardTombstones() {
+        int pruned = snapshots.pruneTombstones(Instant.now().minus(snapshotProperties.maxAge()));
+        if (pruned > 0) {
+            log.info("Pruned {} card tombstones", pruned);
+        }
+    }
+
+    /**
+     * The review history only feeds rebuilds; reviews past the retention are dropped, their rollups stay.
+     */
+    private void pruneReviewLog() {
+        Instant cutoff = statsProperties.logCutoff(Instant.now());
+        if (cutoff == null) {
+            return;
+        }
+        long pruned = reviewStats.pruneLog(cutoff);
+        if (pruned > 0) {
+            log.info("Pruned {} review log entries before {}", pruned, cutoff);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.mrtob.srs.cluster;
+
+import java.util.List;
+
+/**
+ * Application event for card changes made by another replica.
+ */
+public record RemoteCardChanges(List<CardChange> changes) {
+}
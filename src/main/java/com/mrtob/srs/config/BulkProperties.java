@@ -0,0 +1,19 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param chunkSize  cards changed per statement; each chunk commits on its own and holds its row locks only
+ *                   that long
+ * @param maxRunning bulk operations running at once per replica; further operations wait in a queue
+ * @param retention  how long finished operations can still be queried
+ */
+@ConfigurationProperties(prefix = "srs.bulk")
+public record BulkProperties(
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("2") int maxRunning,
+        @DefaultValue("1h") Duration retention
+) {}
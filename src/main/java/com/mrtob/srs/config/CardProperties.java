@@ -0,0 +1,15 @@
+package com.mrtob.srs.config;
+
+import com.mrtob.srs.service.DuplicatePolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param duplicates    duplicate policy of create and import requests that don't pass {@code duplicates}
+ * @param maxImportSize most cards accepted by one import request
+ */
+@ConfigurationProperties(prefix = "srs.cards")
+public record CardProperties(
+        @DefaultValue("ALLOW") DuplicatePolicy duplicates,
+        @DefaultValue("10000") int maxImportSize
+) {}
@@ -0,0 +1,20 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled             exchange change notifications with other replicas and elect maintenance runners
+ * @param channel             {@code LISTEN}/{@code NOTIFY} channel shared by all replicas
+ * @param notifyInterval      how long local changes are batched before they are sent
+ * @param maintenanceInterval how often cluster-wide maintenance jobs run (on one replica)
+ */
+@ConfigurationProperties(prefix = "srs.cluster")
+public record ClusterProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("srs_card_changes") String channel,
+        @DefaultValue("20ms") Duration notifyInterval,
+        @DefaultValue("5m") Duration maintenanceInterval
+) {}
@@ -0,0 +1,24 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the synthetic dataset generator ({@code generate} profile).
+ *
+ * @param cards          number of cards to generate
+ * @param reviewsPerCard review history entries per reviewed card; {@code 0} generates no history
+ * @param historyDays    cards are created uniformly over this many days before now
+ * @param seed           same seed, same dataset (relative to the time of generation)
+ * @param threads        parallel {@code COPY} streams, each on its own pooled connection
+ * @param chunkSize      cards per {@code COPY} and transaction
+ */
+@ConfigurationProperties(prefix = "srs.dataset")
+public record DatasetProperties(
+        @DefaultValue("1000000") long cards,
+        @DefaultValue("0") int reviewsPerCard,
+        @DefaultValue("730") int historyDays,
+        @DefaultValue("42") long seed,
+        @DefaultValue("4") int threads,
+        @DefaultValue("50000") int chunkSize
+) {}
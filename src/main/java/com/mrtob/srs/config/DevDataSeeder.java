@@ -23,10 +23,15 @@ public class DevDataSeeder implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
-        if (Arrays.asList(env.getActiveProfiles()).contains("prod")) {
+        List<String> profiles = Arrays.asList(env.getActiveProfiles());
+        if (profiles.contains("prod")) {
             log.debug("Prod profile active — skipping dev seed");
             return;
         }
+        if (profiles.contains("generate")) {
+            log.debug("Dataset generator active — skipping dev seed");
+            return;
+        }
 
         if (repo.count() > 0) {
             log.info("Dev data already present — skipping seed");
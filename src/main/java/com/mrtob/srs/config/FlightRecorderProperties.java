@@ -0,0 +1,23 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * @param startOnBoot     start the continuous recording when the application starts
+ * @param endpointEnabled expose {@code /admin/jfr}; only enable where the port is not publicly reachable
+ * @param settings        JFR configuration to record with ({@code default} or {@code profile})
+ * @param maxAge          how far back the continuous recording reaches
+ * @param maxSize         upper bound for the data kept on disk by the recording
+ */
+@ConfigurationProperties(prefix = "srs.jfr")
+public record FlightRecorderProperties(
+        @DefaultValue("false") boolean startOnBoot,
+        @DefaultValue("false") boolean endpointEnabled,
+        @DefaultValue("default") String settings,
+        @DefaultValue("6h") Duration maxAge,
+        @DefaultValue("250MB") DataSize maxSize
+) {}
@@ -0,0 +1,14 @@
+package com.mrtob.srs.config;
+
+import com.mrtob.srs.algorithm.FSRSAlgorithm;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param precision {@code EXACT} evaluates every power and exponential; {@code TABLES} interpolates
+ *                  precomputed tables, with a bounded relative error in the new stability
+ */
+@ConfigurationProperties(prefix = "srs.fsrs")
+public record FsrsProperties(
+        @DefaultValue("EXACT") FSRSAlgorithm.Precision precision
+) {}
@@ -0,0 +1,14 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param countCacheTtl how long an exact card count is reused when planner statistics are unavailable
+ */
+@ConfigurationProperties(prefix = "srs.listing")
+public record ListingProperties(
+        @DefaultValue("1m") Duration countCacheTtl
+) {}
@@ -1,6 +1,7 @@
 package com.mrtob.srs.config;
 
 import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.entity.TimeOrderedUuid;
 import org.springframework.aot.hint.MemberCategory;
 import org.springframework.aot.hint.RuntimeHintsRegistrar;
 import org.springframework.aot.hint.RuntimeHints;
@@ -20,10 +21,17 @@ public class NativeHints {
             hints.reflection().registerType(Card[].class, MemberCategory.values());
             hints.reflection().registerType(Card.class, MemberCategory.values());
 
+            // Instantiated reflectively by @UuidGenerator(algorithm = ...)
+            hints.reflection().registerType(TimeOrderedUuid.class, MemberCategory.values());
+
             hints.reflection().registerType(UUID.class, MemberCategory.values());
             hints.reflection().registerType(UUID[].class, MemberCategory.values());
 
             hints.reflection().registerType(java.time.Instant.class, MemberCategory.values());
+
+            // JDK proxies created by StatementCountingDataSource
+            hints.proxies().registerJdkProxy(java.sql.Connection.class);
+            hints.proxies().registerJdkProxy(java.sql.Statement.class);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.mrtob.srs.config;
+
+import com.mrtob.srs.observability.StatementCountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties({WriteBehindProperties.class, ReviewSessionProperties.class, ListingProperties.class,
+        ClusterProperties.class, StatsProperties.class, SnapshotProperties.class, DatasetProperties.class,
+        CardProperties.class, BulkProperties.class})
+public class PersistenceConfig {
+
+    /**
+     * Routes all JDBC access through {@link StatementCountingDataSource} so statements can be
+     * counted per request (see {@code StatementBudgetFilter}) and in tests. Only registered while a
+     * statement budget is set: with {@code srs.statements.budget-per-request=0} the data source is
+     * used as is, without the proxy on every connection and statement.
+     */
+    @Bean
+    @ConditionalOnExpression("${srs.statements.budget-per-request:10} > 0")
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
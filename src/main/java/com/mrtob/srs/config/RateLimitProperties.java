@@ -0,0 +1,42 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * @param clientHeader      header identifying the client, set by a reverse proxy in front of the service
+ *                          (e.g. {@code X-Real-IP} from the bundled nginx); empty by default, which keys clients
+ *                          by their remote address
+ * @param trustedProxies    addresses or CIDR blocks of the proxies whose {@code clientHeader} is believed; the
+ *                          header of any other caller is ignored, since clients can set it to anything
+ * @param maxTrackedClients number of per-client buckets above which idle buckets are evicted
+ */
+@ConfigurationProperties(prefix = "srs.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("") String clientHeader,
+        @DefaultValue List<String> trustedProxies,
+        @DefaultValue("10000") int maxTrackedClients,
+        @DefaultValue Limit review,
+        @DefaultValue Limit search
+) {
+
+    /**
+     * @param permitsPerSecond   sustained requests per second and client
+     * @param burst              requests a client may issue at once after being idle
+     * @param initialConcurrency concurrent requests allowed before any latency has been measured
+     * @param minConcurrency     lower bound of the adaptive concurrency limit
+     * @param maxConcurrency     upper bound of the adaptive concurrency limit
+     * @param latencyTolerance   latency, as a multiple of the best recent latency, above which the limit shrinks
+     */
+    public record Limit(
+            @DefaultValue("10") double permitsPerSecond,
+            @DefaultValue("20") int burst,
+            @DefaultValue("10") int initialConcurrency,
+            @DefaultValue("2") int minConcurrency,
+            @DefaultValue("40") int maxConcurrency,
+            @DefaultValue("2.0") double latencyTolerance
+    ) {}
+}
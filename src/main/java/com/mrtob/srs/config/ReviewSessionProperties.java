@@ -0,0 +1,19 @@
+package com.mrtob.srs.config;
+
+import com.mrtob.srs.repository.DueOrder;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param leaseDuration how long leased cards stay reserved without activity in the session
+ * @param maxSize       upper bound for the number of cards leased when a session starts
+ * @param order         which due cards sessions lease first
+ */
+@ConfigurationProperties(prefix = "srs.review.session")
+public record ReviewSessionProperties(
+        @DefaultValue("15m") Duration leaseDuration,
+        @DefaultValue("100") int maxSize,
+        @DefaultValue("NEXT_REVIEW") DueOrder order
+) {}
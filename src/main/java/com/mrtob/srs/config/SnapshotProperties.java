@@ -0,0 +1,24 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param enabled         warm-start in-memory indexes from a local scheduling snapshot, and keep it current
+ * @param path            snapshot file; its directory should survive restarts
+ * @param interval        how often a new snapshot is written (it is also written on shutdown)
+ * @param maxAge          older snapshots are ignored; deletions are remembered for this long to reconcile them
+ * @param reconcileMargin changes this long before the snapshot are re-read, covering transactions that were
+ *                        still open when it was taken
+ */
+@ConfigurationProperties(prefix = "srs.snapshot")
+public record SnapshotProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/scheduling.snapshot") Path path,
+        @DefaultValue("15m") Duration interval,
+        @DefaultValue("7d") Duration maxAge,
+        @DefaultValue("1m") Duration reconcileMargin
+) {}
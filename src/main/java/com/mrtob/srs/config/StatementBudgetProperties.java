@@ -0,0 +1,13 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param budgetPerRequest SQL statements a request may issue before a warning is logged; 0 disables the check
+ *                         and statement counting altogether
+ */
+@ConfigurationProperties(prefix = "srs.statements")
+public record StatementBudgetProperties(
+        @DefaultValue("10") int budgetPerRequest
+) {}
@@ -0,0 +1,30 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * @param enabled       record reviews into the history and the daily rollups
+ * @param flushInterval how often recorded reviews are written, in one transaction
+ * @param maxPending    reviews kept in memory while the database is unreachable; further reviews are not recorded
+ * @param logRetention  {@code review_log} rows older than this are deleted (rollups are kept, but those days can
+ *                      no longer be rebuilt); zero keeps the history forever
+ */
+@ConfigurationProperties(prefix = "srs.stats")
+public record StatsProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1s") Duration flushInterval,
+        @DefaultValue("100000") int maxPending,
+        @DefaultValue("730d") Duration logRetention
+) {
+
+    /**
+     * @return the oldest review time still kept, or {@code null} if the history is kept forever
+     */
+    public Instant logCutoff(Instant now) {
+        return logRetention.isPositive() ? now.minus(logRetention) : null;
+    }
+}
@@ -7,7 +7,8 @@ import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
-@EnableConfigurationProperties(CorsProperties.class)
+@EnableConfigurationProperties({CorsProperties.class, StatementBudgetProperties.class, RateLimitProperties.class,
+        FlightRecorderProperties.class})
 @RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
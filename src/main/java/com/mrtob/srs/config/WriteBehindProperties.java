@@ -0,0 +1,18 @@
+package com.mrtob.srs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maxPending number of unflushed cards above which reviews of further cards are written synchronously,
+ *                   so a database outage cannot grow the buffer without bound
+ */
+@ConfigurationProperties(prefix = "srs.review.write-behind")
+public record WriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("50ms") Duration flushInterval,
+        @DefaultValue("500") int maxBatchSize,
+        @DefaultValue("10000") int maxPending
+) {}
@@ -0,0 +1,49 @@
+package com.mrtob.srs.controller;
+
+import com.mrtob.srs.dto.BulkJobResponse;
+import com.mrtob.srs.dto.BulkOperationRequest;
+import com.mrtob.srs.service.BulkJob;
+import com.mrtob.srs.service.BulkOperationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/cards/bulk")
+@RequiredArgsConstructor
+public class BulkOperationController {
+
+    private final BulkOperationService bulkService;
+
+    /**
+     * {@code 202} with the queued job; poll it with {@link #status}.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BulkJobResponse submit(@Valid @RequestBody BulkOperationRequest request) {
+        return BulkJobResponse.from(bulkService.submit(request.toOperation()));
+    }
+
+    @GetMapping("/{id}")
+    public BulkJobResponse status(@PathVariable UUID id) {
+        return BulkJobResponse.from(bulkService.find(id).orElseThrow(() -> notFound(id)));
+    }
+
+    /**
+     * {@code 202}: the job stops before its next chunk.
+     */
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BulkJobResponse cancel(@PathVariable UUID id) {
+        BulkJob job = bulkService.cancel(id).orElseThrow(() -> notFound(id));
+        return BulkJobResponse.from(job);
+    }
+
+    private static ResponseStatusException notFound(UUID id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "No bulk operation " + id + " on this replica");
+    }
+}
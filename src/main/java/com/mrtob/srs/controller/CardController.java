@@ -2,17 +2,25 @@ package com.mrtob.srs.controller;
 
 import com.mrtob.srs.dto.*;
 import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.observability.CardMappingEvent;
+import com.mrtob.srs.repository.DueOrder;
+import com.mrtob.srs.service.CardCountEstimator;
 import com.mrtob.srs.service.CardService;
+import com.mrtob.srs.service.DueCountIndex;
+import com.mrtob.srs.service.DuplicatePolicy;
 import com.mrtob.srs.service.ReviewService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,15 +29,31 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class CardController {
 
+    private static final int MAX_DUE_BUCKETS = 366;
+    private static final int MAX_DUE_LIMIT = 1000;
+
     private final CardService cardService;
     private final ReviewService reviewService;
+    private final DueCountIndex dueCountIndex;
+    private final CardCountEstimator cardCountEstimator;
     private final CardMapper cardMapper;
 
+    /**
+     * {@code 201} with the new card, or {@code 200} with the existing card if a duplicate was merged.
+     */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public CardResponse create(@Valid @RequestBody CardCreateRequest request) {
-        Card card = cardService.create(request);
-        return cardMapper.toResponse(card);
+    public ResponseEntity<CardResponse> create(@Valid @RequestBody CardCreateRequest request,
+                                               @RequestParam(required = false) DuplicatePolicy duplicates) {
+        CardService.Created created = cardService.create(request, duplicates);
+        return ResponseEntity.status(created.duplicate() ? HttpStatus.OK : HttpStatus.CREATED)
+                .body(cardMapper.toResponse(created.card()));
+    }
+
+    @PostMapping("/import")
+    public CardImportResponse importCards(@Valid @RequestBody CardImportRequest request,
+                                          @RequestParam(required = false) DuplicatePolicy duplicates) {
+        CardService.Imported imported = cardService.importAll(request.cards(), duplicates);
+        return new CardImportResponse(imported.created(), imported.duplicates(), imported.ids());
     }
 
     @GetMapping
@@ -40,10 +64,7 @@ public class CardController {
             @RequestParam(defaultValue = "desc") String sortDir,
             @RequestParam(required = false) String search) {
 
-        Sort sort = sortDir.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = pageable(page, size, sortBy, sortDir);
 
         Page<Card> cardPage = (search != null && !search.isBlank())
                 ? cardService.search(search.trim(), pageable)
@@ -52,9 +73,62 @@ public class CardController {
         return PageResponse.from(cardPage.map(cardMapper::toResponse));
     }
 
+    /**
+     * Listing without the mandatory {@code COUNT(*)} of {@link #list}: the total is exact,
+     * approximate or omitted as requested.
+     */
+    @GetMapping(params = "total")
+    public SliceResponse<CardResponse> listSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String search,
+            @RequestParam CardCountEstimator.Mode total) {
+
+        Pageable pageable = pageable(page, size, sortBy, sortDir);
+        String term = (search != null && !search.isBlank()) ? search.trim() : null;
+
+        Slice<Card> slice = term != null
+                ? cardService.searchSlice(term, pageable)
+                : cardService.findSlice(pageable);
+
+        Slice<CardResponse> responses = slice.map(cardMapper::toResponse);
+        if (slice.isLast() && (slice.hasContent() || page == 0) && total != CardCountEstimator.Mode.NONE) {
+            // The last page reveals the exact total for free
+            return SliceResponse.from(responses, pageable.getOffset() + slice.getNumberOfElements(),
+                    CardCountEstimator.Mode.EXACT);
+        }
+        return SliceResponse.from(responses, cardCountEstimator.total(total, term), total);
+    }
+
     @GetMapping("/due")
-    public List<CardResponse> due() {
-        return cardMapper.toResponseList(cardService.findDueCards());
+    public List<DueCardResponse> due() {
+        Instant now = Instant.now();
+        return cardService.findDueCards().stream()
+                .map(card -> cardMapper.toDueResponse(card, reviewService.preview(card, now)))
+                .toList();
+    }
+
+    /**
+     * The first {@code limit} due cards in the requested order, instead of the whole backlog.
+     */
+    @GetMapping(value = "/due", params = "order")
+    public List<DueCardResponse> dueOrdered(
+            @RequestParam DueOrder order,
+            @RequestParam(defaultValue = "100") int limit) {
+        Instant now = Instant.now();
+        return cardService.findFirstDue(order, Math.clamp(limit, 1, MAX_DUE_LIMIT)).stream()
+                .map(card -> cardMapper.toDueResponse(card, reviewService.preview(card, now)))
+                .toList();
+    }
+
+    @GetMapping("/due/counts")
+    public DueCountResponse dueCounts(
+            @RequestParam(defaultValue = "DAY") DueCountIndex.Granularity granularity,
+            @RequestParam(defaultValue = "7") int buckets) {
+        return DueCountResponse.from(
+                dueCountIndex.snapshot(Instant.now(), granularity, Math.clamp(buckets, 0, MAX_DUE_BUCKETS)));
     }
 
     @PutMapping("/{id}")
@@ -74,6 +148,17 @@ public class CardController {
     public CardResponse review(@PathVariable UUID id,
                                @RequestParam int quality) {
         Card card = reviewService.review(id, quality);
-        return cardMapper.toResponse(card);
+        CardMappingEvent event = new CardMappingEvent();
+        event.begin();
+        CardResponse response = cardMapper.toResponse(card);
+        event.commit(id, "CardResponse");
+        return response;
+    }
+
+    private static Pageable pageable(int page, int size, String sortBy, String sortDir) {
+        Sort sort = sortDir.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+        return PageRequest.of(page, size, sort);
     }
 }
@@ -0,0 +1,65 @@
+package com.mrtob.srs.controller;
+
+import com.mrtob.srs.observability.FlightRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Instant;
+
+/**
+ * Starts, dumps and stops the continuous JFR recording. Only registered with {@code srs.jfr.endpoint-enabled=true}.
+ */
+@RestController
+@RequestMapping("/admin/jfr")
+@ConditionalOnBooleanProperty("srs.jfr.endpoint-enabled")
+@RequiredArgsConstructor
+public class FlightRecorderController {
+
+    private final FlightRecorder flightRecorder;
+
+    @PostMapping
+    public ResponseEntity<Void> start() throws IOException, ParseException {
+        return ResponseEntity.status(flightRecorder.start() ? HttpStatus.CREATED : HttpStatus.OK).build();
+    }
+
+    /**
+     * Downloads everything recorded so far as a {@code .jfr} file, for JDK Mission Control or {@code jfr print}.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> dump() throws IOException {
+        Path file;
+        try {
+            file = flightRecorder.dump();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        String filename = "srs-" + Instant.now().toString().replace(':', '-') + ".jfr";
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentLength(Files.size(file))
+                .body(body);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> stop() {
+        return flightRecorder.stop() ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.mrtob.srs.controller;
+
+import com.mrtob.srs.dto.CardMapper;
+import com.mrtob.srs.dto.DueCardResponse;
+import com.mrtob.srs.dto.ReviewSessionResponse;
+import com.mrtob.srs.dto.SessionReviewResponse;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.observability.CardMappingEvent;
+import com.mrtob.srs.service.ReviewService;
+import com.mrtob.srs.service.ReviewSession;
+import com.mrtob.srs.service.ReviewSessionService;
+import com.mrtob.srs.service.SessionReview;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/sessions")
+@RequiredArgsConstructor
+public class ReviewSessionController {
+
+    private final ReviewSessionService sessionService;
+    private final ReviewService reviewService;
+    private final CardMapper cardMapper;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReviewSessionResponse start(@RequestParam(defaultValue = "20") int size) {
+        ReviewSession session = sessionService.start(size);
+        Instant now = Instant.now();
+        return new ReviewSessionResponse(session.id(), session.leasedUntil(),
+                session.cards().stream().map(card -> toDueResponse(card, now)).toList());
+    }
+
+    @PostMapping("/{sessionId}/cards/{cardId}/review")
+    public SessionReviewResponse review(@PathVariable UUID sessionId,
+                                        @PathVariable UUID cardId,
+                                        @RequestParam int quality) {
+        SessionReview review = sessionService.review(sessionId, cardId, quality);
+        CardMappingEvent event = new CardMappingEvent();
+        event.begin();
+        SessionReviewResponse response = new SessionReviewResponse(
+                cardMapper.toResponse(review.reviewed()),
+                review.next() != null ? toDueResponse(review.next(), Instant.now()) : null,
+                review.leasedUntil());
+        event.commit(cardId, "SessionReviewResponse");
+        return response;
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void end(@PathVariable UUID sessionId) {
+        sessionService.end(sessionId);
+    }
+
+    private DueCardResponse toDueResponse(Card card, Instant now) {
+        return cardMapper.toDueResponse(card, reviewService.preview(card, now));
+    }
+}
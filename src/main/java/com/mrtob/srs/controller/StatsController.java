@@ -0,0 +1,41 @@
+package com.mrtob.srs.controller;
+
+import com.mrtob.srs.dto.ReviewStatsResponse;
+import com.mrtob.srs.dto.StatsRebuildResponse;
+import com.mrtob.srs.service.ReviewStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+@RestController
+@RequestMapping("/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final ReviewStatsService statsService;
+
+    /**
+     * Daily review statistics for {@code [from, to]} (UTC days), by default the last 30 days.
+     */
+    @GetMapping("/reviews")
+    public ReviewStatsResponse reviews(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return ReviewStatsResponse.from(statsService.daily(start, end));
+    }
+
+    /**
+     * Recomputes the rollups of {@code [from, to]} from the review history, e.g. after a backfill.
+     */
+    @PostMapping("/reviews/rebuild")
+    public StatsRebuildResponse rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return new StatsRebuildResponse(from, to, statsService.rebuild(from, to));
+    }
+}
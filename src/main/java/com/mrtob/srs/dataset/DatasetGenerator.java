@@ -0,0 +1,188 @@
+package com.mrtob.srs.dataset;
+
+import com.mrtob.srs.cluster.ClusterResync;
+import com.mrtob.srs.config.DatasetProperties;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.entity.ContentHash;
+import com.mrtob.srs.repository.ReviewLogEntry;
+import com.mrtob.srs.repository.ReviewStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the database with a {@link SyntheticDataset} at startup ({@code generate} profile), for
+ * benchmarks and load tests against production-shaped data.
+ * <p>
+ * The cards are split into chunks of {@code chunk-size}, which {@code threads} workers stream with
+ * {@code COPY ... FROM STDIN}, each chunk (cards and history) in its own transaction. Afterwards the
+ * review rollups are rebuilt from the history and the in-memory indexes reloaded, so the application
+ * serves the new data right away.
+ */
+@Component
+@Profile("generate")
+@RequiredArgsConstructor
+@Slf4j
+public class DatasetGenerator implements CommandLineRunner {
+
+    private static final String COPY_CARDS = "COPY cards (id, front, back, easiness_factor, interval_days, "
+            + "repetitions, stability, difficulty, learning_step, next_review, last_review, created_at, content_hash) "
+            + "FROM STDIN";
+
+    private static final String COPY_REVIEWS = "COPY review_log (card_id, reviewed_at, quality, passed, mature, "
+            + "retrievability, stability, interval_days) FROM STDIN";
+
+    private final DataSource dataSource;
+    private final ReviewStatsRepository reviewStats;
+    private final ApplicationEventPublisher events;
+    private final DatasetProperties properties;
+
+    @Override
+    public void run(String... args) throws Exception {
+        Instant now = Instant.now();
+        SyntheticDataset dataset = new SyntheticDataset(properties.cards(), properties.reviewsPerCard(), now,
+                properties.historyDays(), properties.seed());
+        log.info("Generating {} cards ({} reviews each) with seed {} on {} threads", properties.cards(),
+                properties.reviewsPerCard(), properties.seed(), properties.threads());
+
+        long started = System.nanoTime();
+        long reviews = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(properties.threads(),
+                Thread.ofPlatform().name("dataset-", 0).factory());
+        try {
+            List<Future<Long>> chunks = new ArrayList<>();
+            for (long from = 0; from < dataset.size(); from += properties.chunkSize()) {
+                long first = from;
+                long last = Math.min(dataset.size(), from + properties.chunkSize());
+                chunks.add(workers.submit(() -> copy(dataset, first, last)));
+            }
+            for (Future<Long> chunk : chunks) {
+                reviews += chunk.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            workers.shutdownNow();
+        }
+        log.info("Generated {} cards and {} reviews in {} s", dataset.size(), reviews,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+
+        if (reviews > 0) {
+            LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+            int days = reviewStats.rebuild(today.minusDays(properties.historyDays()), today);
+            log.info("Rebuilt review statistics for {} days", days);
+        }
+        events.publishEvent(new ClusterResync());
+    }
+
+    /**
+     * Copies cards {@code [from, to)} and their history in one transaction.
+     *
+     * @return the number of reviews copied
+     */
+    private long copy(SyntheticDataset dataset, long from, long to) throws SQLException, IOException {
+        StringBuilder cards = new StringBuilder((int) (to - from) * 256);
+        StringBuilder reviews = new StringBuilder();
+        long reviewCount = 0;
+        for (long index = from; index < to; index++) {
+            SyntheticDataset.GeneratedCard generated = dataset.generate(index);
+            appendCard(cards, generated.card());
+            for (ReviewLogEntry entry : generated.history()) {
+                appendReview(reviews, entry);
+                reviewCount++;
+            }
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+                copy.copyIn(COPY_CARDS, new StringReader(cards.toString()));
+                if (reviewCount > 0) {
+                    copy.copyIn(COPY_REVIEWS, new StringReader(reviews.toString()));
+                }
+                connection.commit();
+            } catch (SQLException | IOException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        return reviewCount;
+    }
+
+    static void appendCard(StringBuilder out, Card card) {
+        row(out, card.getId(), text(card.getFront()), text(card.getBack()), card.getEasinessFactor(),
+                card.getIntervalDays(), card.getRepetitions(), card.getStability(), card.getDifficulty(),
+                card.getLearningStep(), timestamp(card.getNextReview()), timestamp(card.getLastReview()),
+                timestamp(card.getCreatedAt()), bytea(ContentHash.of(card.getFront(), card.getBack())));
+    }
+
+    static void appendReview(StringBuilder out, ReviewLogEntry entry) {
+        row(out, entry.cardId(), timestamp(entry.reviewedAt()), entry.quality(), entry.passed(), entry.mature(),
+                entry.retrievability(), entry.stability(), entry.intervalDays());
+    }
+
+    /**
+     * One line of {@code COPY} text format: tab-separated, {@code \N} for null.
+     */
+    private static void row(StringBuilder out, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append('\t');
+            }
+            out.append(values[i] == null ? "\\N" : values[i]);
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Escapes the characters {@code COPY} text format treats specially.
+     */
+    static String text(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /** Hex bytea input, with the backslash escaped for {@code COPY}. */
+    private static String bytea(byte[] bytes) {
+        return "\\\\x" + ContentHash.hex(bytes);
+    }
+
+    private static String timestamp(Instant instant) {
+        return instant != null ? instant.truncatedTo(ChronoUnit.MICROS).toString() : null;
+    }
+}
@@ -0,0 +1,178 @@
+package com.mrtob.srs.dataset;
+
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.entity.TimeOrderedUuid;
+import com.mrtob.srs.repository.ReviewLogEntry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Production-shaped cards and review histories from a seed.
+ * <p>
+ * Cards are created uniformly over {@code historyDays}, so ids (version 7, derived from the creation
+ * time) ascend with the card index. About one card in ten has never been reviewed (half of the
+ * last month's cards), a few are in their learning steps, and the rest are in review with log-normal
+ * stability (median 20 days), normally distributed difficulty and a next review spread over one
+ * interval, roughly one in eight of them overdue. Text lengths are log-normal as well.
+ * <p>
+ * Each card draws from its own seeded generator, so a card does not depend on which thread or
+ * chunk generates it.
+ */
+public class SyntheticDataset {
+
+    public record GeneratedCard(Card card, List<ReviewLogEntry> history) {}
+
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ne", "ru", "sa", "to", "vi", "ze", "an", "el", "or", "us", "ti", "per",
+            "con", "tra", "gen", "pho", "ter", "ma", "di", "ble", "sion", "ment", "ic", "al", "ous"
+    };
+
+    // FSRS forgetting curve R(t) = (1 + FACTOR * t / S)^DECAY, as in FSRSAlgorithm
+    private static final double DECAY = -0.5;
+    private static final double FACTOR = 19.0 / 81.0;
+
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+    private final long cards;
+    private final int reviewsPerCard;
+    private final Instant now;
+    private final long startMillis;
+    private final long spanMillis;
+    private final long seed;
+
+    public SyntheticDataset(long cards, int reviewsPerCard, Instant now, int historyDays, long seed) {
+        this.cards = cards;
+        this.reviewsPerCard = reviewsPerCard;
+        this.now = now;
+        this.spanMillis = Math.max(1, historyDays) * DAY_MILLIS;
+        this.startMillis = now.toEpochMilli() - spanMillis;
+        this.seed = seed;
+    }
+
+    public long size() {
+        return cards;
+    }
+
+    public GeneratedCard generate(long index) {
+        SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+        long createdMillis = startMillis + (long) ((index + random.nextDouble()) * spanMillis / cards);
+        Instant createdAt = Instant.ofEpochMilli(createdMillis);
+        double ageDays = (double) (now.toEpochMilli() - createdMillis) / DAY_MILLIS;
+
+        Card card = Card.builder()
+                .id(TimeOrderedUuid.of(createdMillis, (int) index, random.nextLong()))
+                .front(text(random, 35, 0.6, 300) + "?")
+                .back(text(random, 90, 0.8, 2000))
+                .createdAt(createdAt)
+                .nextReview(createdAt)
+                .build();
+
+        double phase = random.nextDouble();
+        if (phase < (ageDays < 30 ? 0.5 : 0.08)) {
+            return new GeneratedCard(card, List.of());
+        }
+        if (phase > 0.97) {
+            learning(card, random);
+        } else {
+            review(card, random, ageDays);
+        }
+        return new GeneratedCard(card, history(card, random));
+    }
+
+    /**
+     * Reviewed once or twice today, due again within minutes.
+     */
+    private void learning(Card card, SplittableRandom random) {
+        int step = random.nextInt(2);
+        Instant lastReview = later(card.getCreatedAt(), now.minusSeconds(random.nextLong(1, 3600)));
+        card.setLearningStep(step);
+        card.setStability(random.nextDouble(0.2, 3.0));
+        card.setDifficulty(difficulty(random));
+        card.setLastReview(lastReview);
+        card.setNextReview(lastReview.plusSeconds(step == 0 ? 60 : 600));
+    }
+
+    private void review(Card card, SplittableRandom random, double ageDays) {
+        double stability = Math.clamp(Math.exp(Math.log(20) + 1.2 * random.nextGaussian()), 0.5,
+                Math.max(1, ageDays));
+        int interval = (int) Math.max(1, Math.round(stability));
+        Instant nextReview = now.plusMillis((long) (interval * DAY_MILLIS * random.nextDouble(-0.15, 1.0)));
+
+        card.setLearningStep(-1);
+        card.setStability(stability);
+        card.setDifficulty(difficulty(random));
+        card.setIntervalDays(interval);
+        card.setRepetitions(1 + (int) Math.round(Math.log(stability) / Math.log(2.5) + random.nextDouble()));
+        card.setEasinessFactor(Math.max(1.3, 2.5 - 0.25 * Math.abs(random.nextGaussian())));
+        card.setLastReview(later(card.getCreatedAt(), nextReview.minus(interval, ChronoUnit.DAYS)));
+        card.setNextReview(nextReview);
+    }
+
+    /**
+     * {@code reviewsPerCard} reviews between creation and the last review, with growing gaps.
+     */
+    private List<ReviewLogEntry> history(Card card, SplittableRandom random) {
+        if (reviewsPerCard == 0) {
+            return List.of();
+        }
+        long first = card.getCreatedAt().toEpochMilli();
+        long span = card.getLastReview().toEpochMilli() - first;
+        List<ReviewLogEntry> history = new ArrayList<>(reviewsPerCard);
+        Instant previous = null;
+        double stability = 0;
+        for (int i = 1; i <= reviewsPerCard; i++) {
+            double progress = (double) i / reviewsPerCard;
+            Instant reviewedAt = Instant.ofEpochMilli(first + (long) (span * progress * progress));
+            double retrievability = previous == null ? 1
+                    : Math.pow(1 + FACTOR * Duration.between(previous, reviewedAt).toMillis() / DAY_MILLIS / stability,
+                    DECAY);
+            stability = i == reviewsPerCard ? Math.max(card.getStability(), 0.1)
+                    : Math.max(0.1, card.getStability() * Math.pow(progress, 2));
+            int quality = quality(random.nextInt(100));
+            // FSRS-shaped history: anything but Again is recalled
+            history.add(new ReviewLogEntry(card.getId(), reviewedAt, quality, quality > 1, previous != null,
+                    retrievability, stability, (int) Math.round(stability)));
+            previous = reviewedAt;
+        }
+        return history;
+    }
+
+    /**
+     * Words of random syllables with a log-normal total length around {@code medianLength}.
+     */
+    private static String text(SplittableRandom random, int medianLength, double sigma, int maxLength) {
+        int length = (int) Math.clamp(Math.exp(Math.log(medianLength) + sigma * random.nextGaussian()), 3, maxLength);
+        StringBuilder text = new StringBuilder(length + 8);
+        while (text.length() < length) {
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            for (int syllables = random.nextInt(1, 4); syllables > 0; syllables--) {
+                text.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+        }
+        text.setCharAt(0, Character.toUpperCase(text.charAt(0)));
+        return text.toString();
+    }
+
+    private static double difficulty(SplittableRandom random) {
+        return Math.clamp(5 + 1.5 * random.nextGaussian(), 1, 10);
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /** Same answer distribution as {@code SyntheticReviewEventSource}. */
+    private static int quality(int percentile) {
+        if (percentile < 10) return 0;  // Again
+        if (percentile < 25) return 2;  // Hard
+        if (percentile < 85) return 3;  // Good
+        return 5;                       // Easy
+    }
+}
@@ -0,0 +1,26 @@
+package com.mrtob.srs.dto;
+
+import com.mrtob.srs.service.BulkJob;
+import com.mrtob.srs.service.BulkOperation;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param affected cards changed or deleted so far
+ * @param error    why the job failed, if it did
+ */
+public record BulkJobResponse(
+        UUID id,
+        BulkOperation.Type operation,
+        BulkJob.Status status,
+        long affected,
+        Instant submittedAt,
+        Instant finishedAt,
+        String error
+) {
+    public static BulkJobResponse from(BulkJob job) {
+        return new BulkJobResponse(job.id(), job.operation().type(), job.status(), job.affected(),
+                job.submittedAt(), job.finishedAt(), job.error());
+    }
+}
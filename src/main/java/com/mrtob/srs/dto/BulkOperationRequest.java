@@ -0,0 +1,25 @@
+package com.mrtob.srs.dto;
+
+import com.mrtob.srs.repository.CardFilter;
+import com.mrtob.srs.service.BulkOperation;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * @param filter            cards to change; omitted or empty matches all cards (not allowed for {@code DELETE})
+ * @param days              {@code POSTPONE} only
+ * @param stabilityFraction {@code POSTPONE} only
+ */
+public record BulkOperationRequest(
+        @NotNull BulkOperation.Type operation,
+        CardFilter filter,
+        @PositiveOrZero Double days,
+        @PositiveOrZero Double stabilityFraction
+) {
+    public BulkOperation toOperation() {
+        return new BulkOperation(operation,
+                filter != null ? filter : new CardFilter(null, null, null, null),
+                days != null ? days : 0,
+                stabilityFraction != null ? stabilityFraction : 0);
+    }
+}
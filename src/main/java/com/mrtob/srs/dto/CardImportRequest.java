@@ -0,0 +1,11 @@
+package com.mrtob.srs.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record CardImportRequest(
+        @NotEmpty List<@Valid CardCreateRequest> cards
+) {
+}
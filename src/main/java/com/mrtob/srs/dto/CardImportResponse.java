@@ -0,0 +1,11 @@
+package com.mrtob.srs.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @param created    number of new cards
+ * @param duplicates number of requested cards merged into existing ones
+ * @param ids        card id of every requested card, in request order
+ */
+public record CardImportResponse(int created, int duplicates, List<UUID> ids) {}
@@ -1,9 +1,12 @@
 package com.mrtob.srs.dto;
 
+import com.mrtob.srs.algorithm.MemoryState;
+import com.mrtob.srs.algorithm.Rating;
 import com.mrtob.srs.entity.Card;
 import org.mapstruct.Mapper;
 
 import java.util.List;
+import java.util.Map;
 
 @Mapper(componentModel = "spring")
 public interface CardMapper {
@@ -11,4 +14,12 @@ public interface CardMapper {
     CardResponse toResponse(Card card);
 
     List<CardResponse> toResponseList(List<Card> cards);
+
+    DueCardResponse toDueResponse(Card card, Map<Rating, MemoryState> previews);
+
+    default List<ReviewPreview> toPreviews(Map<Rating, MemoryState> previews) {
+        return previews.entrySet().stream()
+                .map(e -> new ReviewPreview(e.getKey(), e.getKey().quality(), e.getValue().nextReview()))
+                .toList();
+    }
 }
@@ -0,0 +1,15 @@
+package com.mrtob.srs.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record DueCardResponse(
+        UUID id,
+        String front,
+        String back,
+        Instant nextReview,
+        Instant createdAt,
+        List<ReviewPreview> previews
+) {
+}
@@ -0,0 +1,24 @@
+package com.mrtob.srs.dto;
+
+import com.mrtob.srs.service.DueCountIndex;
+
+import java.time.Instant;
+import java.util.List;
+
+public record DueCountResponse(
+        Instant asOf,
+        long dueNow,
+        List<Bucket> buckets
+) {
+    public record Bucket(Instant from, Instant to, long count) {}
+
+    public static DueCountResponse from(DueCountIndex.Snapshot snapshot) {
+        return new DueCountResponse(
+                snapshot.asOf(),
+                snapshot.dueNow(),
+                snapshot.buckets().stream()
+                        .map(b -> new Bucket(b.from(), b.to(), b.count()))
+                        .toList()
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package com.mrtob.srs.dto;
+
+import com.mrtob.srs.algorithm.Rating;
+
+import java.time.Instant;
+
+public record ReviewPreview(
+        Rating rating,
+        int quality,
+        Instant nextReview
+) {
+}
@@ -0,0 +1,12 @@
+package com.mrtob.srs.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record ReviewSessionResponse(
+        UUID sessionId,
+        Instant leasedUntil,
+        List<DueCardResponse> cards
+) {
+}
@@ -0,0 +1,66 @@
+package com.mrtob.srs.dto;
+
+import com.mrtob.srs.repository.DailyRollup;
+import com.mrtob.srs.service.ReviewStatsService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Means and rates are {@code null} when there is nothing to average.
+ */
+public record ReviewStatsResponse(
+        LocalDate from,
+        LocalDate to,
+        Day total,
+        List<Day> days
+) {
+    /**
+     * @param day                {@code null} for the total of the range
+     * @param passRate           share of reviews not answered with "Again"
+     * @param trueRetention      pass rate of cards in the review phase
+     * @param meanRetrievability predicted recall probability at review time; compare with {@code passRate}
+     */
+    public record Day(
+            LocalDate day,
+            long reviews,
+            Double passRate,
+            Double trueRetention,
+            Double meanRetrievability,
+            Double meanStability,
+            Double meanIntervalDays,
+            List<IntervalBucket> intervals
+    ) {}
+
+    /**
+     * Reviews whose next interval is in {@code [minDays, maxDays)}; {@code maxDays} is {@code null} for the last bucket.
+     */
+    public record IntervalBucket(int minDays, Integer maxDays, long reviews) {}
+
+    public static ReviewStatsResponse from(ReviewStatsService.Stats stats) {
+        return new ReviewStatsResponse(stats.from(), stats.to(), day(null, stats.total()),
+                stats.days().stream().map(rollup -> day(rollup.day(), rollup)).toList());
+    }
+
+    private static Day day(LocalDate day, DailyRollup rollup) {
+        long reviews = rollup.reviews();
+        int[] bounds = DailyRollup.INTERVAL_BUCKETS;
+        List<IntervalBucket> intervals = new ArrayList<>();
+        for (int bucket = 0; bucket <= bounds.length; bucket++) {
+            intervals.add(new IntervalBucket(bucket == 0 ? 0 : bounds[bucket - 1],
+                    bucket < bounds.length ? bounds[bucket] : null, rollup.intervalHistogram()[bucket]));
+        }
+        return new Day(day, reviews,
+                ratio(rollup.passed(), reviews),
+                ratio(rollup.maturePassed(), rollup.matureReviews()),
+                ratio(rollup.retrievabilitySum(), reviews),
+                ratio(rollup.stabilitySum(), reviews),
+                ratio(rollup.intervalDaysSum(), reviews),
+                intervals);
+    }
+
+    private static Double ratio(double sum, long count) {
+        return count > 0 ? sum / count : null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mrtob.srs.dto;
+
+import java.time.Instant;
+
+public record SessionReviewResponse(
+        CardResponse reviewed,
+        DueCardResponse next,
+        Instant leasedUntil
+) {
+}
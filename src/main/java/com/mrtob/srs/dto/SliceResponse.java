@@ -0,0 +1,32 @@
+package com.mrtob.srs.dto;
+
+import com.mrtob.srs.service.CardCountEstimator;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * A page without a mandatory total count.
+ *
+ * @param total     the total as requested by {@code totalMode}, or {@code null} for {@code NONE}
+ * @param totalMode how {@code total} was obtained; {@code EXACT} whenever the last page makes it known
+ */
+public record SliceResponse<T>(
+        List<T> content,
+        int page,
+        int size,
+        boolean last,
+        Long total,
+        CardCountEstimator.Mode totalMode
+) {
+    public static <T> SliceResponse<T> from(Slice<T> slice, Long total, CardCountEstimator.Mode totalMode) {
+        return new SliceResponse<>(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                slice.isLast(),
+                total,
+                totalMode
+        );
+    }
+}
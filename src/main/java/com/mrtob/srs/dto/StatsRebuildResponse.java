@@ -0,0 +1,8 @@
+package com.mrtob.srs.dto;
+
+import java.time.LocalDate;
+
+/**
+ * @param days number of days in the range that had reviews
+ */
+public record StatsRebuildResponse(LocalDate from, LocalDate to, int days) {}
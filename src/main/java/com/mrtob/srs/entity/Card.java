@@ -3,6 +3,7 @@ package com.mrtob.srs.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -17,7 +18,7 @@ import java.util.UUID;
 public class Card {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuid.class)
     private UUID id;
 
     @Column(nullable = false)
@@ -44,7 +45,19 @@ public class Card {
     @Column(nullable = false)
     private Instant nextReview;
 
+    // Null until the first review (or for cards reviewed before it was recorded)
+    private Instant lastReview;
+
     @CreationTimestamp
     @Column(updatable = false)
     private Instant createdAt;
+
+    // Maintained on every insert and update, see ContentHash
+    private byte[] contentHash;
+
+    @PrePersist
+    @PreUpdate
+    void hashContent() {
+        contentHash = ContentHash.of(front, back);
+    }
 }
@@ -0,0 +1,47 @@
+package com.mrtob.srs.entity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * SHA-256 of a card's normalized content, stored in {@code cards.content_hash} to find duplicates
+ * with one index probe instead of comparing texts.
+ * <p>
+ * Front and back are normalized to NFKC, lower-cased, with whitespace runs collapsed to one space
+ * and trimmed, so cards differing only in case or spacing count as duplicates. Existing cards are
+ * backfilled with this class too ({@code ContentHashBackfill}), never with SQL, so both agree on
+ * non-ASCII text.
+ */
+public final class ContentHash {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+", Pattern.UNICODE_CHARACTER_CLASS);
+
+    private ContentHash() {
+    }
+
+    public static byte[] of(String front, String back) {
+        String content = normalize(front) + "\n" + normalize(back);
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").strip();
+    }
+
+    /**
+     * Hex form of a hash, e.g. as a map key (arrays compare by identity).
+     */
+    public static String hex(byte[] hash) {
+        return HexFormat.of().formatHex(hash);
+    }
+}
@@ -0,0 +1,33 @@
+package com.mrtob.srs.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * JFR event for reading a card (or its scheduling columns) before a review.
+ */
+@Name("com.mrtob.srs.CardLoad")
+@Label("Card Load")
+@Category({"Spaced Repetition", "Review"})
+@StackTrace(false)
+public class CardLoadEvent extends Event {
+
+    @Label("Card Id")
+    String cardId;
+
+    @Label("Found")
+    boolean found;
+
+    public void commit(UUID cardId, boolean found) {
+        if (shouldCommit()) {
+            this.cardId = cardId.toString();
+            this.found = found;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mrtob.srs.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * JFR event for mapping a reviewed card to its response DTO.
+ */
+@Name("com.mrtob.srs.CardMapping")
+@Label("Card Mapping")
+@Category({"Spaced Repetition", "Review"})
+@StackTrace(false)
+public class CardMappingEvent extends Event {
+
+    @Label("Card Id")
+    String cardId;
+
+    @Label("Response")
+    String response;
+
+    public void commit(UUID cardId, String response) {
+        if (shouldCommit()) {
+            this.cardId = cardId.toString();
+            this.response = response;
+            commit();
+        }
+    }
+}
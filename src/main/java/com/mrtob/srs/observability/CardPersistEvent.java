@@ -0,0 +1,40 @@
+package com.mrtob.srs.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * JFR event for writing a card's new scheduling state.
+ */
+@Name("com.mrtob.srs.CardPersist")
+@Label("Card Persist")
+@Category({"Spaced Repetition", "Review"})
+@StackTrace(false)
+public class CardPersistEvent extends Event {
+
+    @Label("Card Id")
+    String cardId;
+
+    @Label("Mode")
+    @Description("compare-and-set, write-behind or save")
+    String mode;
+
+    @Label("Applied")
+    @Description("False if a concurrent review won the compare-and-set")
+    boolean applied;
+
+    public void commit(UUID cardId, String mode, boolean applied) {
+        if (shouldCommit()) {
+            this.cardId = cardId.toString();
+            this.mode = mode;
+            this.applied = applied;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.mrtob.srs.observability;
+
+import com.mrtob.srs.config.FlightRecorderProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * Controls an in-process, continuous JDK Flight Recorder recording: no agent and no JVM flags needed.
+ * <p>
+ * The recording keeps the last {@code srs.jfr.max-age} (at most {@code srs.jfr.max-size}) of JVM and
+ * application events, including the review pipeline events of this package, and can be dumped at any time.
+ * With the {@code default} settings the overhead stays around 1%.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FlightRecorder {
+
+    static final String RECORDING_NAME = "srs-continuous";
+
+    /** Review pipeline events; enabled by class because {@code Recording.enable} takes no wildcards. */
+    static final List<Class<? extends Event>> EVENTS = List.of(ReviewEvent.class, ScheduleEvent.class,
+            CardLoadEvent.class, CardPersistEvent.class, CardMappingEvent.class);
+
+    private final FlightRecorderProperties properties;
+
+    private Recording recording;
+
+    @PostConstruct
+    void startOnBoot() throws IOException, ParseException {
+        if (properties.startOnBoot()) {
+            start();
+        }
+    }
+
+    /**
+     * Starts the continuous recording unless it is already running.
+     *
+     * @return whether a new recording was started
+     */
+    public synchronized boolean start() throws IOException, ParseException {
+        if (isRunning()) {
+            return false;
+        }
+        Recording started = new Recording(Configuration.getConfiguration(properties.settings()));
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxAge(properties.maxAge());
+        started.setMaxSize(properties.maxSize().toBytes());
+        EVENTS.forEach(event -> started.enable(event).withoutThreshold());
+        started.start();
+        recording = started;
+        log.info("Started JFR recording '{}' ({} settings, last {})", RECORDING_NAME, properties.settings(),
+                properties.maxAge());
+        return true;
+    }
+
+    public synchronized boolean isRunning() {
+        return recording != null;
+    }
+
+    /**
+     * Writes the data recorded so far to a new temporary file; the recording keeps running.
+     * The caller owns (and should delete) the returned file.
+     *
+     * @throws IllegalStateException if no recording is running
+     */
+    public synchronized Path dump() throws IOException {
+        if (!isRunning()) {
+            throw new IllegalStateException("No JFR recording is running");
+        }
+        Path file = Files.createTempFile("srs-", ".jfr");
+        recording.dump(file);
+        return file;
+    }
+
+    /**
+     * Stops and discards the recording.
+     *
+     * @return whether a recording was running
+     */
+    @PreDestroy
+    public synchronized boolean stop() {
+        if (!isRunning()) {
+            return false;
+        }
+        recording.close();
+        recording = null;
+        log.info("Stopped JFR recording '{}'", RECORDING_NAME);
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mrtob.srs.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * JFR event spanning a whole review in {@code ReviewService}; the stages inside it are recorded as
+ * {@link CardLoadEvent}, {@link ScheduleEvent} and {@link CardPersistEvent}.
+ * <p>
+ * Like all events here, it costs next to nothing unless a recording has it enabled: fields are
+ * only filled in after {@link #shouldCommit()}.
+ */
+@Name("com.mrtob.srs.Review")
+@Label("Review")
+@Category({"Spaced Repetition", "Review"})
+@Description("A card review, from loading the card to persisting its new scheduling state")
+@StackTrace(false)
+public class ReviewEvent extends Event {
+
+    @Label("Card Id")
+    String cardId;
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Quality")
+    @Description("Submitted 0-5 quality score")
+    int quality;
+
+    @Label("Interval")
+    @Description("Time until the next review")
+    @Timespan(Timespan.SECONDS)
+    long interval;
+
+    @Label("Attempts")
+    @Description("Compare-and-set attempts; more than one means the card was reviewed concurrently")
+    int attempts;
+
+    public void commit(UUID cardId, String algorithm, int quality, Instant now, Instant nextReview, int attempts) {
+        if (shouldCommit()) {
+            this.cardId = cardId.toString();
+            this.algorithm = algorithm;
+            this.quality = quality;
+            this.interval = Duration.between(now, nextReview).toSeconds();
+            this.attempts = attempts;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mrtob.srs.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * JFR event for computing the next scheduling state with the active algorithm.
+ */
+@Name("com.mrtob.srs.Schedule")
+@Label("Schedule")
+@Category({"Spaced Repetition", "Review"})
+@StackTrace(false)
+public class ScheduleEvent extends Event {
+
+    @Label("Card Id")
+    String cardId;
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Quality")
+    int quality;
+
+    @Label("Interval")
+    @Timespan(Timespan.SECONDS)
+    long interval;
+
+    public void commit(UUID cardId, String algorithm, int quality, Instant now, Instant nextReview) {
+        if (shouldCommit()) {
+            this.cardId = cardId.toString();
+            this.algorithm = algorithm;
+            this.quality = quality;
+            this.interval = Duration.between(now, nextReview).toSeconds();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.mrtob.srs.observability;
+
+import com.mrtob.srs.config.StatementBudgetProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Logs a warning when a request issues more SQL statements than {@code srs.statements.budget-per-request}.
+ * <p>
+ * Only statements issued on the request thread are counted; background work such as the
+ * write-behind flusher is not attributed to requests.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final StatementBudgetProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (properties.budgetPerRequest() <= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (StatementCounter.Scope scope = StatementCounter.open()) {
+            chain.doFilter(request, response);
+            if (scope.count() > properties.budgetPerRequest()) {
+                log.warn("{} {} issued {} SQL statements (budget {}): {}",
+                        request.getMethod(), request.getRequestURI(), scope.count(),
+                        properties.budgetPerRequest(), scope.statements());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mrtob.srs.observability;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Counts SQL statements issued by the current thread.
+ * <p>
+ * Statements are recorded by {@link StatementCountingDataSource}, so JPA and plain JDBC
+ * access are both covered. Counting only happens inside an open {@link Scope}; scopes nest,
+ * and a statement counts towards every scope open on the thread.
+ * <pre>
+ * try (StatementCounter.Scope scope = StatementCounter.open()) {
+ *     cardService.update(id, request);
+ *     assert scope.count() &lt;= 2;
+ * }
+ * </pre>
+ */
+public final class StatementCounter {
+
+    /** Statements kept per scope for diagnostics; the count itself is not capped. */
+    private static final int MAX_RECORDED = 20;
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private StatementCounter() {
+    }
+
+    public static Scope open() {
+        Scope scope = new Scope();
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    static void record(String sql) {
+        Deque<Scope> scopes = SCOPES.get();
+        for (Scope scope : scopes) {
+            scope.count++;
+            if (scope.statements.size() < MAX_RECORDED) {
+                scope.statements.add(sql);
+            }
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private int count;
+        private final List<String> statements = new ArrayList<>();
+
+        private Scope() {
+        }
+
+        public int count() {
+            return count;
+        }
+
+        /** The first statements of this scope, in execution order. */
+        public List<String> statements() {
+            return Collections.unmodifiableList(statements);
+        }
+
+        @Override
+        public void close() {
+            Deque<Scope> scopes = SCOPES.get();
+            scopes.remove(this);
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.mrtob.srs.observability;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps the application {@link DataSource} so every statement is reported to {@link StatementCounter}.
+ * <p>
+ * A prepared statement counts once when it is prepared; a plain {@link Statement} counts once per
+ * {@code execute*} call. Batches therefore count as a single statement, matching one round trip.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    private static Connection countingConnection(Connection target) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if ((name.equals("prepareStatement") || name.equals("prepareCall")) && args != null) {
+                StatementCounter.record((String) args[0]);
+            }
+            Object result = invoke(target, method, args);
+            if (name.equals("createStatement")) {
+                return countingStatement((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private static Statement countingStatement(Statement target) {
+        return proxy(Statement.class, target, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                StatementCounter.record(args != null && args.length > 0 && args[0] instanceof String sql ? sql : "<batch>");
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,95 @@
+package com.mrtob.srs.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit that adapts to measured latency (additive increase, multiplicative decrease).
+ * <p>
+ * The limit grows by about one per limit's worth of fast responses while it is actually
+ * being used, and shrinks by {@value #BACKOFF_RATIO} on a response slower than
+ * {@code latencyTolerance} times the baseline. As in TCP congestion control, it shrinks at most
+ * once per round trip: only slow responses that started after the previous decrease count, so one
+ * latency spike seen by every in-flight request is one congestion signal, not one per request.
+ * The baseline is the lowest recent latency; it drifts slowly towards newer samples so that it
+ * recovers when the workload changes.
+ * <p>
+ * When the database pool saturates, latency rises before queues get long, so requests are
+ * shed with a cheap rejection instead of waiting for a connection. All state is held in
+ * atomics; acquire and release are CAS loops without locks.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final long BASELINE_DRIFT = 256;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong baselineNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(NEVER);
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double latencyTolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyTolerance = Math.max(1.0, latencyTolerance);
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(Math.clamp(initialLimit, this.minLimit, this.maxLimit)));
+    }
+
+    /**
+     * Reserves a slot. Every successful call must be followed by {@link #release(long)}.
+     */
+    boolean tryAcquire() {
+        int limit = limit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of a request that took {@code latencyNanos} and ended at {@code nowNanos}
+     * ({@link System#nanoTime()}).
+     */
+    void release(long latencyNanos, long nowNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        long baseline = baselineNanos.accumulateAndGet(latencyNanos,
+                (current, sample) -> sample < current ? sample : current + (sample - current) / BASELINE_DRIFT);
+
+        if (latencyNanos > baseline * latencyTolerance) {
+            long lastDecrease = lastDecreaseNanos.get();
+            boolean startedAfterDecrease = lastDecrease == NEVER || nowNanos - latencyNanos - lastDecrease >= 0;
+            // Of the slow requests of one round trip, only the first to get here backs off
+            if (startedAfterDecrease && lastDecreaseNanos.compareAndSet(lastDecrease, nowNanos)) {
+                update(limit -> Math.max(minLimit, limit * BACKOFF_RATIO));
+            }
+            return;
+        }
+        // Only grow while the limit is actually in use, otherwise it drifts up unchecked at low load
+        if (inFlightBefore * 2 >= limit()) {
+            update(limit -> Math.min(maxLimit, limit + 1.0 / limit));
+        }
+    }
+
+    private void update(DoubleUnaryOperator function) {
+        limitBits.getAndUpdate(bits -> Double.doubleToLongBits(function.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+
+    int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
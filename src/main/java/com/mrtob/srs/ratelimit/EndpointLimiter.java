@@ -0,0 +1,59 @@
+package com.mrtob.srs.ratelimit;
+
+import com.mrtob.srs.config.RateLimitProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits for one class of endpoints: a token bucket per client and one shared adaptive concurrency limit.
+ */
+final class EndpointLimiter {
+
+    private final RateLimitProperties.Limit limit;
+    private final int maxTrackedClients;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AdaptiveConcurrencyLimit concurrency;
+
+    EndpointLimiter(RateLimitProperties.Limit limit, int maxTrackedClients) {
+        this.limit = limit;
+        this.maxTrackedClients = maxTrackedClients;
+        this.concurrency = new AdaptiveConcurrencyLimit(limit.initialConcurrency(), limit.minConcurrency(),
+                limit.maxConcurrency(), limit.latencyTolerance());
+    }
+
+    /**
+     * @return {@code 0} if the client may proceed, otherwise the nanoseconds until it may retry
+     */
+    long tryAcquirePermit(String client, long nowNanos) {
+        TokenBucket bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(client, key -> new TokenBucket(limit.permitsPerSecond(), limit.burst(), nowNanos));
+            if (buckets.size() > maxTrackedClients) {
+                evictIdle(nowNanos);
+            }
+        }
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    AdaptiveConcurrencyLimit concurrency() {
+        return concurrency;
+    }
+
+    int trackedClients() {
+        return buckets.size();
+    }
+
+    /** Full buckets carry no state, so dropping them is lossless. One thread sweeps at a time. */
+    private void evictIdle(long nowNanos) {
+        if (evicting.compareAndSet(false, true)) {
+            try {
+                buckets.values().removeIf(bucket -> bucket.isIdle(nowNanos));
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.mrtob.srs.ratelimit;
+
+import com.mrtob.srs.config.RateLimitProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protects the review (including session review) and search endpoints from overload.
+ * <p>
+ * Each client gets a token bucket per endpoint class, so one misbehaving client is throttled
+ * without affecting others. On top of that, every endpoint class has an
+ * {@link AdaptiveConcurrencyLimit} that sheds load as soon as latency rises, before requests
+ * queue up for database connections. Rejected requests get {@code 429 Too Many Requests}
+ * with a {@code Retry-After} header.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final PathPattern REVIEW = PathPatternParser.defaultInstance.parse("/cards/{id}/review");
+    private static final PathPattern SESSION_REVIEW =
+            PathPatternParser.defaultInstance.parse("/sessions/{sessionId}/cards/{cardId}/review");
+    private static final PathPattern SEARCH = PathPatternParser.defaultInstance.parse("/cards");
+    private static final long SHED_RETRY_AFTER_SECONDS = 1;
+
+    private final RateLimitProperties properties;
+    private final TrustedProxies trustedProxies;
+    private final EndpointLimiter review;
+    private final EndpointLimiter search;
+
+    public RateLimitFilter(RateLimitProperties properties) {
+        this.properties = properties;
+        this.trustedProxies = new TrustedProxies(properties.trustedProxies());
+        if (hasClientHeader() && trustedProxies.isEmpty()) {
+            log.warn("Rate limit client header {} is ignored: no trusted proxies configured",
+                    properties.clientHeader());
+        }
+        this.review = new EndpointLimiter(properties.review(), properties.maxTrackedClients());
+        this.search = new EndpointLimiter(properties.search(), properties.maxTrackedClients());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled() || limiterFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointLimiter limiter = limiterFor(request);
+        String client = clientOf(request);
+
+        long waitNanos = limiter.tryAcquirePermit(client, System.nanoTime());
+        if (waitNanos > 0) {
+            log.debug("Rate limit exceeded for {} on {}", client, request.getRequestURI());
+            reject(response, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)), "Rate limit exceeded");
+            return;
+        }
+
+        AdaptiveConcurrencyLimit concurrency = limiter.concurrency();
+        if (!concurrency.tryAcquire()) {
+            log.debug("Shedding {} (concurrency limit {})", request.getRequestURI(), concurrency.limit());
+            reject(response, SHED_RETRY_AFTER_SECONDS, "Server busy");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long end = System.nanoTime();
+            concurrency.release(end - start, end);
+        }
+    }
+
+    EndpointLimiter limiterFor(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        if (HttpMethod.POST.matches(request.getMethod()) && (REVIEW.matches(path) || SESSION_REVIEW.matches(path))) {
+            return review;
+        }
+        String query = request.getParameter("search");
+        if (HttpMethod.GET.matches(request.getMethod()) && SEARCH.matches(path) && query != null && !query.isBlank()) {
+            return search;
+        }
+        return null;
+    }
+
+    /**
+     * The remote address, or the client header if the request comes from a trusted proxy.
+     */
+    private String clientOf(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (hasClientHeader() && trustedProxies.contains(remoteAddress)) {
+            String client = request.getHeader(properties.clientHeader());
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return remoteAddress;
+    }
+
+    private boolean hasClientHeader() {
+        return properties.clientHeader() != null && !properties.clientHeader().isBlank();
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), message);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mrtob.srs.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm (GCRA).
+ * <p>
+ * Instead of a token count that needs periodic refills, the bucket stores a single
+ * <em>theoretical arrival time</em>: the instant at which it would be full again.
+ * Each permit pushes that instant one emission interval into the future; a request is
+ * rejected while it lies more than the burst tolerance ahead of now. Acquiring is one CAS.
+ * <p>
+ * Times are {@link System#nanoTime()} values and only compared by difference.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one permit.
+     *
+     * @return {@code 0} if a permit was taken, otherwise the nanoseconds until the next one is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long ahead = arrival - nowNanos;
+            if (ahead > burstToleranceNanos) {
+                return ahead - burstToleranceNanos;
+            }
+            long next = (ahead > 0 ? arrival : nowNanos) + emissionIntervalNanos;
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Whether the bucket is full, i.e. indistinguishable from a new one.
+     */
+    boolean isIdle(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.mrtob.srs.ratelimit;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * Remote addresses whose client header is believed: IP literals or CIDR blocks such as
+ * {@code 172.16.0.0/12}. Everything else, including hosts that cannot be parsed, is untrusted.
+ */
+final class TrustedProxies {
+
+    private record Block(byte[] network, int prefixLength) {
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int bytes = prefixLength / 8;
+            for (int i = 0; i < bytes; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int bits = prefixLength % 8;
+            if (bits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - bits);
+            return (address[bytes] & mask) == (network[bytes] & mask);
+        }
+    }
+
+    private final List<Block> blocks;
+
+    TrustedProxies(List<String> entries) {
+        this.blocks = entries.stream().map(String::strip).filter(entry -> !entry.isEmpty())
+                .map(TrustedProxies::parse).toList();
+    }
+
+    boolean isEmpty() {
+        return blocks.isEmpty();
+    }
+
+    boolean contains(String remoteAddress) {
+        if (blocks.isEmpty() || remoteAddress == null || !isLiteral(remoteAddress)) {
+            return false;
+        }
+        try {
+            byte[] address = bytesOf(remoteAddress);
+            return blocks.stream().anyMatch(block -> block.contains(address));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static Block parse(String entry) {
+        int slash = entry.indexOf('/');
+        String host = slash < 0 ? entry : entry.substring(0, slash);
+        if (!isLiteral(host)) {
+            throw new IllegalArgumentException("Trusted proxy must be an IP address or CIDR block: " + entry);
+        }
+        byte[] network = bytesOf(host);
+        int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(entry.substring(slash + 1));
+        if (prefixLength < 0 || prefixLength > network.length * 8) {
+            throw new IllegalArgumentException("Invalid prefix length in trusted proxy " + entry);
+        }
+        return new Block(network, prefixLength);
+    }
+
+    // only address literals reach InetAddress, so parsing never triggers a DNS lookup
+    private static boolean isLiteral(String host) {
+        if (host.indexOf(':') >= 0) {
+            return host.chars().allMatch(c -> Character.digit(c, 16) >= 0 || c == '.' || c == ':');
+        }
+        return !host.isEmpty() && host.chars().allMatch(c -> Character.isDigit(c) || c == '.');
+    }
+
+    private static byte[] bytesOf(String literal) {
+        try {
+            return InetAddress.getByName(literal).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Not an IP address: " + literal, e);
+        }
+    }
+}
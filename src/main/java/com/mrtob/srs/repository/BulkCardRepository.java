@@ -0,0 +1,151 @@
+package com.mrtob.srs.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based changes to all cards matching a {@link CardFilter}, one chunk per statement.
+ * <p>
+ * Each call locks and changes the next {@code limit} matching cards in id order after {@code after},
+ * so a caller walks the table with a keyset cursor (see {@link #last}) and every statement commits on
+ * its own: locks are held for one chunk, never for the whole operation. Cards changed or deleted
+ * concurrently are re-checked against the filter when locked and skipped if they no longer match, so a
+ * chunk can come back empty although matching cards remain; {@link #anyMatching} tells the two apart.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkCardRepository {
+
+    /**
+     * @param from the {@code next_review} before the change
+     * @param to   the {@code next_review} after the change, {@code null} if the card was deleted
+     */
+    public record Change(UUID id, Instant from, Instant to) {}
+
+    private static final String BATCH = """
+            WITH batch AS (
+                SELECT id, next_review
+                FROM cards
+                WHERE %s
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE
+            )
+            """;
+
+    private static final String UPDATE = BATCH + """
+            UPDATE cards AS c SET %s,
+                lease_owner  = NULL,
+                leased_until = NULL
+            FROM batch AS b
+            WHERE c.id = b.id
+            RETURNING c.id, b.next_review AS previous_review, c.next_review
+            """;
+
+    private static final String POSTPONE = """
+            next_review = greatest(b.next_review, ?) + make_interval(secs => (? + ? * c.stability) * 86400)""";
+
+    private static final String RESET = """
+            easiness_factor = 2.5,
+                interval_days   = 0,
+                repetitions     = 0,
+                stability       = 0,
+                difficulty      = 0,
+                learning_step   = 0,
+                next_review     = ?,
+                last_review     = NULL""";
+
+    private static final String DELETE = BATCH + """
+            DELETE FROM cards AS c
+            USING batch AS b
+            WHERE c.id = b.id
+            RETURNING c.id, c.next_review AS previous_review, NULL::timestamptz AS next_review
+            """;
+
+    private static final RowMapper<Change> CHANGE_MAPPER = (rs, rowNum) -> {
+        Timestamp to = rs.getTimestamp("next_review");
+        return new Change(rs.getObject("id", UUID.class), rs.getTimestamp("previous_review").toInstant(),
+                to != null ? to.toInstant() : null);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Moves the next review of the matching cards to {@code days + stabilityFraction * stability} days
+     * after their current next review, or after {@code now} for overdue cards.
+     */
+    public List<Change> postpone(CardFilter filter, UUID after, int limit, Instant now, double days,
+                                 double stabilityFraction) {
+        List<Object> args = new ArrayList<>();
+        String sql = UPDATE.formatted(where(filter, after, args), POSTPONE);
+        args.add(limit);
+        args.add(Timestamp.from(now));
+        args.add(days);
+        args.add(stabilityFraction);
+        return jdbcTemplate.query(sql, CHANGE_MAPPER, args.toArray());
+    }
+
+    /**
+     * Resets the scheduling state of the matching cards to that of a new card, due at {@code now}.
+     */
+    public List<Change> reset(CardFilter filter, UUID after, int limit, Instant now) {
+        List<Object> args = new ArrayList<>();
+        String sql = UPDATE.formatted(where(filter, after, args), RESET);
+        args.add(limit);
+        args.add(Timestamp.from(now));
+        return jdbcTemplate.query(sql, CHANGE_MAPPER, args.toArray());
+    }
+
+    public List<Change> delete(CardFilter filter, UUID after, int limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = DELETE.formatted(where(filter, after, args));
+        args.add(limit);
+        return jdbcTemplate.query(sql, CHANGE_MAPPER, args.toArray());
+    }
+
+    /**
+     * Whether any card after {@code after} (in id order) still matches the filter.
+     */
+    public boolean anyMatching(CardFilter filter, UUID after) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT EXISTS (SELECT 1 FROM cards WHERE %s)".formatted(where(filter, after, args));
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, args.toArray()));
+    }
+
+    private static String where(CardFilter filter, UUID after, List<Object> args) {
+        String conditions = filter.conditions(args);
+        if (after == null) {
+            return conditions + "TRUE";
+        }
+        args.add(after);
+        return conditions + "id > ?";
+    }
+
+    /**
+     * The cursor for the chunk after {@code changes}: its greatest id in Postgres order, which compares
+     * uuids as unsigned bytes (unlike {@link UUID#compareTo}).
+     */
+    public static UUID last(List<Change> changes) {
+        UUID last = null;
+        for (Change change : changes) {
+            UUID id = change.id();
+            if (last == null || compare(id, last) > 0) {
+                last = id;
+            }
+        }
+        return last;
+    }
+
+    private static int compare(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,62 @@
+package com.mrtob.srs.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Card counts from planner statistics, without scanning the table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CardCountRepository {
+
+    /**
+     * Scales the tuple density from the last {@code ANALYZE} to the current table size, the same
+     * way the planner does, so the estimate follows inserts and deletes between analyzes.
+     * {@code reltuples} is {@code -1} for a table that has never been analyzed.
+     */
+    private static final String ESTIMATE_ALL = """
+            SELECT CASE
+                       WHEN c.reltuples < 0 THEN NULL
+                       WHEN c.relpages = 0 THEN 0
+                       ELSE (c.reltuples / c.relpages
+                             * (pg_relation_size(c.oid) / current_setting('block_size')::int))::bigint
+                   END
+            FROM pg_class c
+            WHERE c.oid = 'cards'::regclass
+            """;
+
+    private static final String EXPLAIN_SEARCH = """
+            EXPLAIN SELECT 1 FROM cards
+            WHERE lower(front) LIKE lower('%' || CAST(? AS text) || '%')
+               OR lower(back) LIKE lower('%' || CAST(? AS text) || '%')
+            """;
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the estimated number of cards, or empty if the table has no statistics yet
+     */
+    public OptionalLong estimateAll() {
+        Long estimate = jdbcTemplate.queryForObject(ESTIMATE_ALL, Long.class);
+        return estimate != null ? OptionalLong.of(estimate) : OptionalLong.empty();
+    }
+
+    /**
+     * The planner's row estimate for the search predicate. Unanchored {@code LIKE} is estimated
+     * with default selectivities, so this is an order of magnitude rather than a count.
+     */
+    public long estimateSearch(String term) {
+        List<String> plan = jdbcTemplate.queryForList(EXPLAIN_SEARCH, String.class, term, term);
+        Matcher rows = PLAN_ROWS.matcher(plan.getFirst());
+        return rows.find() ? Long.parseLong(rows.group(1)) : 0;
+    }
+}
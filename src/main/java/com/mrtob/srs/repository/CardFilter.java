@@ -0,0 +1,74 @@
+package com.mrtob.srs.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selects cards for bulk operations; unset criteria match every card.
+ *
+ * @param search  substring of {@code front} or {@code back}, case-insensitive like the listing search
+ * @param dueFrom inclusive lower bound of {@code nextReview}
+ * @param dueTo   exclusive upper bound of {@code nextReview}
+ * @param state   learning state
+ */
+public record CardFilter(String search, Instant dueFrom, Instant dueTo, State state) {
+
+    /**
+     * Learning state of a card, derived from its scheduling columns.
+     */
+    public enum State {
+
+        /** Never reviewed. */
+        NEW("last_review IS NULL AND repetitions = 0 AND stability = 0"),
+
+        /** In the FSRS learning or relearning steps. */
+        LEARNING("learning_step >= 0 AND stability > 0"),
+
+        /** Everything else: graduated FSRS cards and cards reviewed with SM-2. */
+        REVIEW("NOT (last_review IS NULL AND repetitions = 0 AND stability = 0) "
+                + "AND NOT (learning_step >= 0 AND stability > 0)");
+
+        final String predicate;
+
+        State(String predicate) {
+            this.predicate = predicate;
+        }
+    }
+
+    public boolean isEmpty() {
+        return (search == null || search.isBlank()) && dueFrom == null && dueTo == null && state == null;
+    }
+
+    /**
+     * {@code WHERE} conditions over the columns of {@code cards}, each followed by {@code AND}, so that
+     * further conditions can be appended.
+     *
+     * @param args receives the bind parameters in order
+     */
+    String conditions(List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (search != null && !search.isBlank()) {
+            conditions.add("(lower(front) LIKE lower('%' || ? || '%') OR lower(back) LIKE lower('%' || ? || '%'))");
+            args.add(search.trim());
+            args.add(search.trim());
+        }
+        if (dueFrom != null) {
+            conditions.add("next_review >= ?");
+            args.add(Timestamp.from(dueFrom));
+        }
+        if (dueTo != null) {
+            conditions.add("next_review < ?");
+            args.add(Timestamp.from(dueTo));
+        }
+        if (state != null) {
+            conditions.add("(" + state.predicate + ")");
+        }
+        StringBuilder sql = new StringBuilder();
+        for (String condition : conditions) {
+            sql.append(condition).append(" AND ");
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.mrtob.srs.repository;
+
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.entity.ContentHash;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based statements for importing many cards: one duplicate check per batch and multi-row inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CardImportRepository {
+
+    /** Postgres accepts at most 65535 bind parameters per statement. */
+    public static final int MAX_BATCH_SIZE = 65535 / 6;
+
+    private static final String INSERT = """
+            INSERT INTO cards (id, front, back, next_review, created_at, content_hash)
+            VALUES %s
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ids of existing cards with any of the given content hashes, oldest card per hash, in one statement.
+     *
+     * @return card ids keyed by {@link ContentHash#hex}
+     */
+    public Map<String, UUID> findIdsByContentHash(Collection<byte[]> hashes) {
+        Map<String, UUID> ids = new HashMap<>();
+        if (hashes.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query(con -> {
+            Array array = con.createArrayOf("bytea", hashes.toArray());
+            PreparedStatement statement = con.prepareStatement("""
+                    SELECT DISTINCT ON (content_hash) content_hash, id
+                    FROM cards
+                    WHERE content_hash = ANY (?)
+                    ORDER BY content_hash, created_at
+                    """);
+            statement.setArray(1, array);
+            return statement;
+        }, rs -> {
+            ids.put(ContentHash.hex(rs.getBytes("content_hash")), rs.getObject("id", UUID.class));
+        });
+        return ids;
+    }
+
+    /**
+     * Inserts new cards with multi-row {@code INSERT}s of up to {@link #MAX_BATCH_SIZE} rows. Scheduling
+     * columns take their defaults, so only new cards can be inserted this way.
+     */
+    public void insertAll(List<Card> cards) {
+        for (int from = 0; from < cards.size(); from += MAX_BATCH_SIZE) {
+            List<Card> batch = cards.subList(from, Math.min(cards.size(), from + MAX_BATCH_SIZE));
+            Object[] args = new Object[batch.size() * 6];
+            int i = 0;
+            for (Card card : batch) {
+                args[i++] = card.getId();
+                args[i++] = card.getFront();
+                args[i++] = card.getBack();
+                args[i++] = Timestamp.from(card.getNextReview());
+                args[i++] = Timestamp.from(card.getCreatedAt());
+                args[i++] = card.getContentHash();
+            }
+            jdbcTemplate.update(INSERT.formatted(String.join(", ", Collections.nCopies(batch.size(),
+                    "(?, ?, ?, ?, ?, ?)"))), args);
+        }
+    }
+}
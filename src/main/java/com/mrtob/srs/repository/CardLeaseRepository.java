@@ -0,0 +1,83 @@
+package com.mrtob.srs.repository;
+
+import com.mrtob.srs.entity.Card;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Leases of due cards to review sessions.
+ * <p>
+ * A lease is a {@code lease_owner}/{@code leased_until} pair on the card row. Cards are picked with
+ * {@code FOR UPDATE SKIP LOCKED}, so concurrent sessions never block each other or receive the
+ * same card. Expired leases need no cleanup: the next session to lease simply takes the card over.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CardLeaseRepository {
+
+    private static final String RENEW_AND_LEASE = """
+            WITH renewed AS (
+                UPDATE cards SET leased_until = ?
+                WHERE lease_owner = ?
+            ), leased AS (
+                UPDATE cards SET lease_owner = ?, leased_until = ?
+                WHERE id IN (
+                    SELECT id FROM cards
+                    WHERE next_review < ?
+                      AND (lease_owner IS NULL OR leased_until < ?)
+                      AND lease_owner IS DISTINCT FROM ?
+                    ORDER BY %2$s
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING %1$s
+            )
+            SELECT * FROM leased ORDER BY %2$s
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Extends all leases held by {@code owner} to {@code until} and leases up to {@code limit}
+     * further cards due before {@code now}, in one statement.
+     *
+     * @return the newly leased cards, first in {@code order} first
+     */
+    public List<Card> renewAndLease(UUID owner, Instant now, Instant until, int limit, DueOrder order) {
+        Timestamp untilTs = Timestamp.from(until);
+        Timestamp nowTs = Timestamp.from(now);
+        String sql = RENEW_AND_LEASE.formatted(SchedulingStateRepository.CARD_COLUMNS, order.orderBy);
+        return jdbcTemplate.query(sql, SchedulingStateRepository::mapCard,
+                untilTs, owner, owner, untilTs, nowTs, nowTs, owner, limit);
+    }
+
+    /**
+     * @return whether the card was leased to {@code owner}
+     */
+    public boolean release(UUID cardId, UUID owner) {
+        return jdbcTemplate.update("UPDATE cards SET lease_owner = NULL, leased_until = NULL "
+                + "WHERE id = ? AND lease_owner = ?", cardId, owner) > 0;
+    }
+
+    /**
+     * @return the number of leases released
+     */
+    public int releaseAll(UUID owner) {
+        return jdbcTemplate.update("UPDATE cards SET lease_owner = NULL, leased_until = NULL "
+                + "WHERE lease_owner = ?", owner);
+    }
+
+    /**
+     * @return the number of expired leases cleared
+     */
+    public int releaseExpired(Instant now) {
+        return jdbcTemplate.update("UPDATE cards SET lease_owner = NULL, leased_until = NULL "
+                + "WHERE leased_until < ?", Timestamp.from(now));
+    }
+}
@@ -3,6 +3,7 @@ package com.mrtob.srs.repository;
 import com.mrtob.srs.entity.Card;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -17,10 +19,30 @@ public interface CardRepository extends JpaRepository<Card, UUID> {
 
     List<Card> findByNextReviewBefore(Instant now);
 
+    /** One probe of the {@code content_hash} index. */
+    Optional<Card> findFirstByContentHash(byte[] contentHash);
+
     @Query("""
     SELECT c FROM Card c
     WHERE LOWER(c.front) LIKE LOWER(CONCAT('%', :term, '%'))
        OR LOWER(c.back) LIKE LOWER(CONCAT('%', :term, '%'))
     """)
     Page<Card> search(@Param("term") String term, Pageable pageable);
+
+    /** Page of all cards without the total count query. */
+    Slice<Card> findSliceBy(Pageable pageable);
+
+    @Query("""
+    SELECT c FROM Card c
+    WHERE LOWER(c.front) LIKE LOWER(CONCAT('%', :term, '%'))
+       OR LOWER(c.back) LIKE LOWER(CONCAT('%', :term, '%'))
+    """)
+    Slice<Card> searchSlice(@Param("term") String term, Pageable pageable);
+
+    @Query("""
+    SELECT COUNT(c) FROM Card c
+    WHERE LOWER(c.front) LIKE LOWER(CONCAT('%', :term, '%'))
+       OR LOWER(c.back) LIKE LOWER(CONCAT('%', :term, '%'))
+    """)
+    long countSearch(@Param("term") String term);
 }
@@ -0,0 +1,79 @@
+package com.mrtob.srs.repository;
+
+import com.mrtob.srs.entity.ContentHash;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Migration 7.1: fills {@code cards.content_hash} for cards created before V7.
+ * <p>
+ * Runs in Java rather than SQL so existing cards are hashed by {@link ContentHash} itself: Postgres'
+ * {@code lower} and {@code \s} depend on the database collation and differ from Java for non-ASCII text,
+ * which would hide duplicates of those cards. Spring Boot registers {@code JavaMigration} beans with Flyway.
+ */
+@Component
+public class ContentHashBackfill implements JavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("7.1");
+    }
+
+    @Override
+    public String getDescription() {
+        return "backfill content hash";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        backfill(context.getConnection());
+    }
+
+    /**
+     * @return the number of cards hashed
+     */
+    static int backfill(Connection connection) throws SQLException {
+        int hashed = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, front, back FROM cards WHERE content_hash IS NULL");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE cards SET content_hash = ? WHERE id = ?")) {
+            // Streams the cards with a cursor instead of loading them all (needs the migration's transaction)
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    update.setBytes(1, ContentHash.of(rs.getString("front"), rs.getString("back")));
+                    update.setObject(2, rs.getObject("id", UUID.class));
+                    update.addBatch();
+                    if (++hashed % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+            }
+            if (hashed % BATCH_SIZE != 0) {
+                update.executeBatch();
+            }
+        }
+        return hashed;
+    }
+}
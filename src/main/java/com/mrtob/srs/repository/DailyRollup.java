@@ -0,0 +1,77 @@
+package com.mrtob.srs.repository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Review aggregates of one UTC day. Every field is a count or a sum, so rollups of disjoint sets
+ * of reviews can be added up, both in memory ({@link #plus}) and in the database.
+ *
+ * @param intervalHistogram reviews per bucket of {@link #INTERVAL_BUCKETS}
+ */
+public record DailyRollup(
+        LocalDate day,
+        long reviews,
+        long passed,
+        long matureReviews,
+        long maturePassed,
+        double retrievabilitySum,
+        double stabilitySum,
+        long intervalDaysSum,
+        long[] intervalHistogram
+) {
+
+    /**
+     * Lower bounds (in days) of the scheduled-interval buckets; bucket {@code i} holds intervals
+     * from {@code INTERVAL_BUCKETS[i - 1]} (or 0) up to {@code INTERVAL_BUCKETS[i]} (exclusive).
+     * Matches Postgres' {@code width_bucket(interval_days, thresholds)}.
+     */
+    public static final int[] INTERVAL_BUCKETS = {1, 2, 4, 8, 15, 31, 91, 181, 366};
+
+    public static DailyRollup empty(LocalDate day) {
+        return new DailyRollup(day, 0, 0, 0, 0, 0, 0, 0, new long[INTERVAL_BUCKETS.length + 1]);
+    }
+
+    public static DailyRollup of(LocalDate day, Collection<ReviewLogEntry> entries) {
+        long passed = 0, matureReviews = 0, maturePassed = 0, intervalDaysSum = 0;
+        double retrievabilitySum = 0, stabilitySum = 0;
+        long[] histogram = new long[INTERVAL_BUCKETS.length + 1];
+        for (ReviewLogEntry entry : entries) {
+            if (entry.passed()) {
+                passed++;
+            }
+            if (entry.mature()) {
+                matureReviews++;
+                if (entry.passed()) {
+                    maturePassed++;
+                }
+            }
+            retrievabilitySum += entry.retrievability();
+            stabilitySum += entry.stability();
+            intervalDaysSum += entry.intervalDays();
+            histogram[bucketOf(entry.intervalDays())]++;
+        }
+        return new DailyRollup(day, entries.size(), passed, matureReviews, maturePassed,
+                retrievabilitySum, stabilitySum, intervalDaysSum, histogram);
+    }
+
+    public static int bucketOf(int intervalDays) {
+        int bucket = Arrays.binarySearch(INTERVAL_BUCKETS, intervalDays);
+        return bucket >= 0 ? bucket + 1 : -bucket - 1;
+    }
+
+    /**
+     * Sum of two rollups, keeping this rollup's day.
+     */
+    public DailyRollup plus(DailyRollup other) {
+        long[] histogram = intervalHistogram.clone();
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] += other.intervalHistogram[i];
+        }
+        return new DailyRollup(day, reviews + other.reviews, passed + other.passed,
+                matureReviews + other.matureReviews, maturePassed + other.maturePassed,
+                retrievabilitySum + other.retrievabilitySum, stabilitySum + other.stabilitySum,
+                intervalDaysSum + other.intervalDaysSum, histogram);
+    }
+}
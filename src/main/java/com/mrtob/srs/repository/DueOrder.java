@@ -0,0 +1,47 @@
+package com.mrtob.srs.repository;
+
+import com.mrtob.srs.algorithm.FSRSAlgorithm;
+import com.mrtob.srs.algorithm.SM2Algorithm;
+
+/**
+ * Order in which due cards are served.
+ */
+public enum DueOrder {
+
+    /** Most overdue first. */
+    NEXT_REVIEW("next_review"),
+
+    /**
+     * Lowest current retrievability first, i.e. the cards most likely forgotten.
+     * <p>
+     * Uses the FSRS forgetting curve {@code R = (1 + FACTOR * t/S)^DECAY} for cards with a stability,
+     * SM-2's {@code R = 0.9^(t/I)} for the others and treats new cards as fully retained, with the
+     * constants taken from {@link FSRSAlgorithm} and {@link SM2Algorithm}. Without a recorded
+     * {@code last_review}, the same fallbacks as the algorithms apply. Ranked at the database's clock
+     * so the whole ranking happens in the query.
+     * <p>
+     * The expression is computed per row, so every overdue card is ranked (a top-N sort that only keeps
+     * {@code limit} rows in memory), not read from an index: cost grows with the size of the backlog.
+     */
+    RETRIEVABILITY("""
+            CASE
+                WHEN stability > 0 THEN power(1 + %s * greatest(0,
+                    extract(epoch FROM CURRENT_TIMESTAMP) - extract(epoch FROM coalesce(last_review, next_review)))
+                    / 86400 / stability, %s)
+                WHEN interval_days > 0 THEN power(%s, greatest(0, CASE
+                    WHEN last_review IS NOT NULL
+                        THEN extract(epoch FROM CURRENT_TIMESTAMP) - extract(epoch FROM last_review)
+                    ELSE extract(epoch FROM CURRENT_TIMESTAMP) - extract(epoch FROM next_review)
+                        + interval_days * 86400.0
+                    END) / 86400 / interval_days)
+                ELSE 1
+            END, next_review""".formatted(FSRSAlgorithm.FACTOR, FSRSAlgorithm.DECAY,
+            SM2Algorithm.RETENTION_PER_INTERVAL));
+
+    /** {@code ORDER BY} expression over the columns of {@code cards}. */
+    final String orderBy;
+
+    DueOrder(String orderBy) {
+        this.orderBy = orderBy;
+    }
+}
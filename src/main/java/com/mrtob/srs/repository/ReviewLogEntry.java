@@ -0,0 +1,31 @@
+package com.mrtob.srs.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * One row of {@code review_log}.
+ *
+ * @param passed         whether the scheduling algorithm counted the answer as recalled
+ * @param mature         whether the card was in the review phase before this review
+ * @param retrievability predicted recall probability at the time of the review
+ * @param stability      stability after the review
+ * @param intervalDays   whole days until the next scheduled review
+ */
+public record ReviewLogEntry(
+        UUID cardId,
+        Instant reviewedAt,
+        int quality,
+        boolean passed,
+        boolean mature,
+        double retrievability,
+        double stability,
+        int intervalDays
+) {
+
+    public LocalDate day() {
+        return LocalDate.ofInstant(reviewedAt, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,205 @@
+package com.mrtob.srs.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Review history and its per-day rollups.
+ * <p>
+ * Rollups are only ever changed with additive upserts ({@code SET x = x + EXCLUDED.x}), so any number
+ * of replicas can append concurrently, and a rebuild racing with an append still ends up correct:
+ * reviews the rebuild did not see are added on top by the appending transaction.
+ * <p>
+ * Every writer locks {@code review_stats_daily} rows before {@code review_interval_histogram} rows, each
+ * in ascending (day, bucket) order, so concurrent appends and rebuilds wait for each other instead of
+ * deadlocking.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReviewStatsRepository {
+
+    /** Postgres accepts at most 65535 bind parameters per statement. */
+    public static final int MAX_LOG_BATCH_SIZE = 65535 / 8;
+
+    private static final int PRUNE_BATCH_SIZE = 10_000;
+
+    private static final String INSERT_LOG = """
+            INSERT INTO review_log (card_id, reviewed_at, quality, passed, mature, retrievability, stability,
+                                    interval_days)
+            %s
+            """;
+
+    private static final String UPSERT_DAILY = """
+            INSERT INTO review_stats_daily (day, reviews, passed, mature_reviews, mature_passed,
+                                            retrievability_sum, stability_sum, interval_days_sum)
+            %s
+            ON CONFLICT (day) DO UPDATE SET
+                reviews            = review_stats_daily.reviews + EXCLUDED.reviews,
+                passed             = review_stats_daily.passed + EXCLUDED.passed,
+                mature_reviews     = review_stats_daily.mature_reviews + EXCLUDED.mature_reviews,
+                mature_passed      = review_stats_daily.mature_passed + EXCLUDED.mature_passed,
+                retrievability_sum = review_stats_daily.retrievability_sum + EXCLUDED.retrievability_sum,
+                stability_sum      = review_stats_daily.stability_sum + EXCLUDED.stability_sum,
+                interval_days_sum  = review_stats_daily.interval_days_sum + EXCLUDED.interval_days_sum
+            """;
+
+    private static final String UPSERT_HISTOGRAM = """
+            INSERT INTO review_interval_histogram (day, bucket, reviews)
+            %s
+            ON CONFLICT (day, bucket) DO UPDATE SET
+                reviews = review_interval_histogram.reviews + EXCLUDED.reviews
+            """;
+
+    private static final String THRESHOLDS = "'{" + String.join(",",
+            Arrays.stream(DailyRollup.INTERVAL_BUCKETS).mapToObj(Integer::toString).toList()) + "}'::int[]";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends reviews to the history and adds their rollups, atomically.
+     *
+     * @param rollups the rollups of exactly {@code entries}
+     */
+    @Transactional
+    public void append(List<ReviewLogEntry> entries, Collection<DailyRollup> rollups) {
+        for (int from = 0; from < entries.size(); from += MAX_LOG_BATCH_SIZE) {
+            insertLog(entries.subList(from, Math.min(entries.size(), from + MAX_LOG_BATCH_SIZE)));
+        }
+        if (rollups.isEmpty()) {
+            return;
+        }
+
+        List<DailyRollup> byDay = rollups.stream().sorted(Comparator.comparing(DailyRollup::day)).toList();
+        List<Object> args = new ArrayList<>();
+        for (DailyRollup rollup : byDay) {
+            Collections.addAll(args, Date.valueOf(rollup.day()), rollup.reviews(), rollup.passed(),
+                    rollup.matureReviews(), rollup.maturePassed(), rollup.retrievabilitySum(),
+                    rollup.stabilitySum(), rollup.intervalDaysSum());
+        }
+        jdbcTemplate.update(UPSERT_DAILY.formatted(values(rollups.size(), "(CAST(? AS date), CAST(? AS bigint), "
+                + "CAST(? AS bigint), CAST(? AS bigint), CAST(? AS bigint), CAST(? AS double precision), "
+                + "CAST(? AS double precision), CAST(? AS bigint))")), args.toArray());
+
+        args.clear();
+        for (DailyRollup rollup : byDay) {
+            long[] histogram = rollup.intervalHistogram();
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                if (histogram[bucket] > 0) {
+                    Collections.addAll(args, Date.valueOf(rollup.day()), bucket, histogram[bucket]);
+                }
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.update(UPSERT_HISTOGRAM.formatted(values(args.size() / 3,
+                    "(CAST(? AS date), CAST(? AS smallint), CAST(? AS bigint))")), args.toArray());
+        }
+    }
+
+    private void insertLog(List<ReviewLogEntry> entries) {
+        Object[] args = new Object[entries.size() * 8];
+        int i = 0;
+        for (ReviewLogEntry entry : entries) {
+            args[i++] = entry.cardId();
+            args[i++] = Timestamp.from(entry.reviewedAt());
+            args[i++] = entry.quality();
+            args[i++] = entry.passed();
+            args[i++] = entry.mature();
+            args[i++] = entry.retrievability();
+            args[i++] = entry.stability();
+            args[i++] = entry.intervalDays();
+        }
+        jdbcTemplate.update(INSERT_LOG.formatted(values(entries.size(), "(?, ?, ?, ?, ?, ?, ?, ?)")), args);
+    }
+
+    private static String values(int rows, String row) {
+        return "VALUES " + String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    /**
+     * Rollups of the days in {@code [from, to]} that had reviews, in two index range scans.
+     */
+    public List<DailyRollup> findDaily(LocalDate from, LocalDate to) {
+        Map<LocalDate, long[]> histograms = new TreeMap<>();
+        jdbcTemplate.query("SELECT day, bucket, reviews FROM review_interval_histogram WHERE day BETWEEN ? AND ?",
+                rs -> {
+                    long[] histogram = histograms.computeIfAbsent(rs.getDate("day").toLocalDate(),
+                            day -> new long[DailyRollup.INTERVAL_BUCKETS.length + 1]);
+                    histogram[rs.getInt("bucket")] = rs.getLong("reviews");
+                }, Date.valueOf(from), Date.valueOf(to));
+
+        return jdbcTemplate.query("SELECT * FROM review_stats_daily WHERE day BETWEEN ? AND ? ORDER BY day",
+                (rs, rowNum) -> {
+                    LocalDate day = rs.getDate("day").toLocalDate();
+                    return new DailyRollup(day, rs.getLong("reviews"), rs.getLong("passed"),
+                            rs.getLong("mature_reviews"), rs.getLong("mature_passed"),
+                            rs.getDouble("retrievability_sum"), rs.getDouble("stability_sum"),
+                            rs.getLong("interval_days_sum"),
+                            histograms.getOrDefault(day, new long[DailyRollup.INTERVAL_BUCKETS.length + 1]));
+                }, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Deletes reviews before {@code before} from the history, {@value #PRUNE_BATCH_SIZE} rows per statement so
+     * a large first run does not hold one long transaction. Rollups are kept.
+     *
+     * @return the number of reviews deleted
+     */
+    public long pruneLog(Instant before) {
+        Timestamp cutoff = Timestamp.from(before);
+        long pruned = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("""
+                    DELETE FROM review_log WHERE id IN (
+                        SELECT id FROM review_log WHERE reviewed_at < ? ORDER BY reviewed_at LIMIT ?)
+                    """, cutoff, PRUNE_BATCH_SIZE);
+            pruned += deleted;
+        } while (deleted == PRUNE_BATCH_SIZE);
+        return pruned;
+    }
+
+    /**
+     * Recomputes the rollups of {@code [from, to]} from {@code review_log}.
+     *
+     * @return the number of days with reviews
+     */
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        Date fromDate = Date.valueOf(from);
+        Date toDate = Date.valueOf(to);
+        jdbcTemplate.update("DELETE FROM review_stats_daily WHERE day BETWEEN ? AND ?", fromDate, toDate);
+        jdbcTemplate.update("DELETE FROM review_interval_histogram WHERE day BETWEEN ? AND ?", fromDate, toDate);
+
+        // Reviews of [from, to] in UTC days; the range predicate uses idx_review_log_reviewed_at
+        String range = "FROM review_log WHERE reviewed_at >= ? AND reviewed_at < ? GROUP BY 1";
+        Timestamp start = Timestamp.from(from.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp end = Timestamp.from(to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        int days = jdbcTemplate.update(UPSERT_DAILY.formatted("""
+                SELECT (reviewed_at AT TIME ZONE 'UTC')::date, count(*),
+                       count(*) FILTER (WHERE passed),
+                       count(*) FILTER (WHERE mature),
+                       count(*) FILTER (WHERE mature AND passed),
+                       sum(retrievability), sum(stability), sum(interval_days)
+                """ + range + " ORDER BY 1"), start, end);
+        jdbcTemplate.update(UPSERT_HISTOGRAM.formatted("""
+                SELECT (reviewed_at AT TIME ZONE 'UTC')::date, width_bucket(interval_days, %s), count(*)
+                """.formatted(THRESHOLDS) + range + ", 2 ORDER BY 1, 2"), start, end);
+        return days;
+    }
+}
@@ -0,0 +1,109 @@
+package com.mrtob.srs.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads for scheduling snapshots: a consistent export of all scheduling columns, and the changes
+ * since a snapshot was taken.
+ * <p>
+ * Changes are found through {@code cards.updated_at}, which a trigger moves whenever a scheduling
+ * column changes, and deletions through {@code card_tombstones}, filled by a delete trigger.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SchedulingSnapshotRepository {
+
+    /** Rows fetched per round trip while exporting, so the export never holds all cards in memory. */
+    static final int EXPORT_FETCH_SIZE = 10_000;
+
+    /**
+     * Receives the rows of an export.
+     */
+    public interface Export {
+
+        /**
+         * Called once before the rows, with the number of rows that follow.
+         *
+         * @param asOf database time of the export; every change after it shows up in {@link #findChangesSince}
+         */
+        void begin(Instant asOf, int count) throws IOException;
+
+        /**
+         * Called for every card, in ascending {@code id} order as Postgres compares UUIDs (unsigned, bytewise).
+         */
+        void row(SchedulingState state) throws IOException;
+    }
+
+    /**
+     * Changes since a point in time.
+     *
+     * @param changed current state of every card whose scheduling columns changed, including new cards
+     * @param deleted ids of deleted cards
+     */
+    public record Changes(List<SchedulingState> changed, List<UUID> deleted) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams the scheduling columns of all cards from one consistent database snapshot.
+     *
+     * @throws UncheckedIOException if {@code export} fails
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ, readOnly = true)
+    public void export(Export export) {
+        Instant asOf = jdbcTemplate.queryForObject("SELECT now()", Timestamp.class).toInstant();
+        long count = jdbcTemplate.queryForObject("SELECT count(*) FROM cards", Long.class);
+        try {
+            export.begin(asOf, Math.toIntExact(count));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(
+                    "SELECT " + SchedulingStateRepository.SCHEDULING_COLUMNS + " FROM cards ORDER BY id");
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            try {
+                export.row(SchedulingStateRepository.STATE_MAPPER.mapRow(rs, rs.getRow()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Cards changed or deleted after {@code since}, read from one consistent database snapshot.
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ, readOnly = true)
+    public Changes findChangesSince(Instant since) {
+        Timestamp from = Timestamp.from(since);
+        List<SchedulingState> changed = jdbcTemplate.query(
+                "SELECT " + SchedulingStateRepository.SCHEDULING_COLUMNS + " FROM cards WHERE updated_at > ?",
+                SchedulingStateRepository.STATE_MAPPER, from);
+        List<UUID> deleted = jdbcTemplate.query("SELECT id FROM card_tombstones WHERE deleted_at > ?",
+                (rs, rowNum) -> rs.getObject("id", UUID.class), from);
+        return new Changes(changed, deleted);
+    }
+
+    /**
+     * Forgets deletions before {@code before}; snapshots older than that can no longer be reconciled.
+     *
+     * @return the number of tombstones removed
+     */
+    public int pruneTombstones(Instant before) {
+        return jdbcTemplate.update("DELETE FROM card_tombstones WHERE deleted_at < ?", Timestamp.from(before));
+    }
+}
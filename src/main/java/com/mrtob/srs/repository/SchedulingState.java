@@ -0,0 +1,70 @@
+package com.mrtob.srs.repository;
+
+import com.mrtob.srs.algorithm.MemoryState;
+import com.mrtob.srs.entity.Card;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the scheduling columns of a {@link Card}.
+ * <p>
+ * Used wherever scheduling state is moved around without the card content
+ * (front/back), e.g. by the write-behind buffer.
+ */
+public record SchedulingState(
+        UUID id,
+        double easinessFactor,
+        int intervalDays,
+        int repetitions,
+        double stability,
+        double difficulty,
+        int learningStep,
+        Instant nextReview,
+        Instant lastReview
+) {
+
+    public static SchedulingState of(Card card) {
+        return new SchedulingState(
+                card.getId(),
+                card.getEasinessFactor(),
+                card.getIntervalDays(),
+                card.getRepetitions(),
+                card.getStability(),
+                card.getDifficulty(),
+                card.getLearningStep(),
+                card.getNextReview(),
+                card.getLastReview()
+        );
+    }
+
+    public static SchedulingState of(UUID id, MemoryState state) {
+        return new SchedulingState(
+                id,
+                state.easinessFactor(),
+                state.intervalDays(),
+                state.repetitions(),
+                state.stability(),
+                state.difficulty(),
+                state.learningStep(),
+                state.nextReview(),
+                state.lastReview()
+        );
+    }
+
+    public MemoryState toMemoryState() {
+        return new MemoryState(easinessFactor, intervalDays, repetitions, stability, difficulty,
+                learningStep, nextReview, lastReview);
+    }
+
+    public void applyTo(Card card) {
+        card.setEasinessFactor(easinessFactor);
+        card.setIntervalDays(intervalDays);
+        card.setRepetitions(repetitions);
+        card.setStability(stability);
+        card.setDifficulty(difficulty);
+        card.setLearningStep(learningStep);
+        card.setNextReview(nextReview);
+        card.setLastReview(lastReview);
+    }
+}
@@ -0,0 +1,230 @@
+package com.mrtob.srs.repository;
+
+import com.mrtob.srs.entity.Card;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Set-based persistence of scheduling columns, bypassing the JPA persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SchedulingStateRepository {
+
+    /** Postgres accepts at most 65535 bind parameters per statement. */
+    public static final int MAX_BATCH_SIZE = 65535 / 9;
+
+    private static final String UPDATE_FROM_VALUES = """
+            UPDATE cards AS c SET
+                easiness_factor = v.easiness_factor,
+                interval_days   = v.interval_days,
+                repetitions     = v.repetitions,
+                stability       = v.stability,
+                difficulty      = v.difficulty,
+                learning_step   = v.learning_step,
+                next_review     = v.next_review,
+                last_review     = v.last_review
+            FROM (VALUES %s) AS v(id, easiness_factor, interval_days, repetitions,
+                                  stability, difficulty, learning_step, next_review, last_review)
+            WHERE c.id = v.id
+            """;
+
+    private static final String VALUES_ROW = "(CAST(? AS uuid), CAST(? AS double precision), CAST(? AS integer), "
+            + "CAST(? AS integer), CAST(? AS double precision), CAST(? AS double precision), CAST(? AS integer), "
+            + "CAST(? AS timestamptz), CAST(? AS timestamptz))";
+
+    static final String SCHEDULING_COLUMNS =
+            "id, easiness_factor, interval_days, repetitions, stability, difficulty, learning_step, next_review, "
+            + "last_review";
+
+    /** Columns needed to build a {@link Card} with {@link #mapCard}. */
+    static final String CARD_COLUMNS = "id, front, back, easiness_factor, interval_days, repetitions, "
+            + "stability, difficulty, learning_step, next_review, last_review, created_at";
+
+    private static final String COMPARE_AND_SET = """
+            UPDATE cards SET
+                easiness_factor = ?,
+                interval_days   = ?,
+                repetitions     = ?,
+                stability       = ?,
+                difficulty      = ?,
+                learning_step   = ?,
+                next_review     = ?,
+                last_review     = ?%s
+            WHERE id = ? AND next_review = ?%s
+            RETURNING """ + CARD_COLUMNS;
+
+    private static final String UPDATE = COMPARE_AND_SET.formatted("", "");
+
+    private static final String UPDATE_RELEASING_LEASE = COMPARE_AND_SET.formatted(
+            ", lease_owner = NULL, leased_until = NULL", " AND lease_owner = ?");
+
+    static final RowMapper<SchedulingState> STATE_MAPPER = (rs, rowNum) -> new SchedulingState(
+            rs.getObject("id", UUID.class),
+            rs.getDouble("easiness_factor"),
+            rs.getInt("interval_days"),
+            rs.getInt("repetitions"),
+            rs.getDouble("stability"),
+            rs.getDouble("difficulty"),
+            rs.getInt("learning_step"),
+            rs.getTimestamp("next_review").toInstant(),
+            instant(rs.getTimestamp("last_review"))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reads only the scheduling columns of a card, leaving {@code front}/{@code back} untouched.
+     */
+    public Optional<SchedulingState> findById(UUID id) {
+        return jdbcTemplate.query("SELECT " + SCHEDULING_COLUMNS + " FROM cards WHERE id = ?", STATE_MAPPER, id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Writes the scheduling columns of {@code next} in one statement, provided the card is still
+     * in state {@code expected} (compared by {@code next_review}, which every review moves).
+     *
+     * @return the updated card, or empty if it was deleted or reviewed concurrently
+     */
+    public Optional<Card> compareAndSet(SchedulingState expected, SchedulingState next) {
+        return jdbcTemplate.query(UPDATE, SchedulingStateRepository::mapCard,
+                        next.easinessFactor(), next.intervalDays(), next.repetitions(), next.stability(),
+                        next.difficulty(), next.learningStep(), Timestamp.from(next.nextReview()),
+                        timestamp(next.lastReview()), expected.id(), Timestamp.from(expected.nextReview()))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Reads the scheduling columns of a card only if it is leased to {@code leaseOwner}.
+     */
+    public Optional<SchedulingState> findLeased(UUID id, UUID leaseOwner) {
+        return jdbcTemplate.query("SELECT " + SCHEDULING_COLUMNS + " FROM cards WHERE id = ? AND lease_owner = ?",
+                        STATE_MAPPER, id, leaseOwner)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Like {@link #compareAndSet}, but only while the card is leased to {@code leaseOwner}, and
+     * releases the lease in the same statement.
+     *
+     * @return the updated card, or empty if it was reviewed concurrently or lost its lease
+     */
+    public Optional<Card> compareAndSetReleasingLease(SchedulingState expected, SchedulingState next, UUID leaseOwner) {
+        return jdbcTemplate.query(UPDATE_RELEASING_LEASE, SchedulingStateRepository::mapCard,
+                        next.easinessFactor(), next.intervalDays(), next.repetitions(), next.stability(),
+                        next.difficulty(), next.learningStep(), Timestamp.from(next.nextReview()),
+                        timestamp(next.lastReview()), expected.id(), Timestamp.from(expected.nextReview()), leaseOwner)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Writes all given states in a single {@code UPDATE ... FROM (VALUES ...)} statement.
+     *
+     * @return the number of rows updated (cards deleted in the meantime are skipped)
+     */
+    public int updateAll(Collection<SchedulingState> states) {
+        if (states.isEmpty()) {
+            return 0;
+        }
+        if (states.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch too large: " + states.size() + " > " + MAX_BATCH_SIZE);
+        }
+
+        String sql = UPDATE_FROM_VALUES.formatted(String.join(", ", Collections.nCopies(states.size(), VALUES_ROW)));
+        Object[] args = new Object[states.size() * 9];
+        int i = 0;
+        for (SchedulingState state : states) {
+            args[i++] = state.id();
+            args[i++] = state.easinessFactor();
+            args[i++] = state.intervalDays();
+            args[i++] = state.repetitions();
+            args[i++] = state.stability();
+            args[i++] = state.difficulty();
+            args[i++] = state.learningStep();
+            args[i++] = Timestamp.from(state.nextReview());
+            args[i++] = timestamp(state.lastReview());
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+
+    /**
+     * Cards due before {@code now} in the given order; the ranking and the limit are applied by the
+     * database. The {@code next_review} index finds the overdue cards, but for
+     * {@link DueOrder#RETRIEVABILITY} all of them are ranked on every call.
+     */
+    public List<Card> findDue(Instant now, DueOrder order, int limit) {
+        return jdbcTemplate.query("SELECT " + CARD_COLUMNS + " FROM cards WHERE next_review < ? ORDER BY "
+                + order.orderBy + " LIMIT ?", SchedulingStateRepository::mapCard, Timestamp.from(now), limit);
+    }
+
+    static Card mapCard(ResultSet rs, int rowNum) throws SQLException {
+        return Card.builder()
+                .id(rs.getObject("id", UUID.class))
+                .front(rs.getString("front"))
+                .back(rs.getString("back"))
+                .easinessFactor(rs.getDouble("easiness_factor"))
+                .intervalDays(rs.getInt("interval_days"))
+                .repetitions(rs.getInt("repetitions"))
+                .stability(rs.getDouble("stability"))
+                .difficulty(rs.getDouble("difficulty"))
+                .learningStep(rs.getInt("learning_step"))
+                .nextReview(rs.getTimestamp("next_review").toInstant())
+                .lastReview(instant(rs.getTimestamp("last_review")))
+                .createdAt(instant(rs.getTimestamp("created_at")))
+                .build();
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    /**
+     * Number of cards per hour of {@code next_review}, keyed by hours since the epoch.
+     */
+    public Map<Long, Long> countByNextReviewHour() {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT floor(extract(epoch FROM next_review) / 3600)::bigint AS hour, count(*) AS cards
+                FROM cards
+                GROUP BY 1
+                """, rs -> {
+            counts.put(rs.getLong("hour"), rs.getLong("cards"));
+        });
+        return counts;
+    }
+
+    /**
+     * Deletes a card in one round trip.
+     *
+     * @return the {@code next_review} of the deleted card, or empty if it did not exist
+     */
+    public Optional<Instant> deleteReturningNextReview(UUID id) {
+        return jdbcTemplate.query("DELETE FROM cards WHERE id = ? RETURNING next_review",
+                        (rs, rowNum) -> rs.getTimestamp("next_review").toInstant(), id)
+                .stream()
+                .findFirst();
+    }
+}
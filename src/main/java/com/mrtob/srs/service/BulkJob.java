@@ -0,0 +1,97 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.entity.TimeOrderedUuid;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a submitted {@link BulkOperation}.
+ */
+public class BulkJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        /** Stopped between two chunks on request; the chunks before stay applied. */
+        CANCELLED,
+        /** Stopped by an error; the chunks before stay applied. */
+        FAILED;
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    private final UUID id = TimeOrderedUuid.next();
+    private final BulkOperation operation;
+    private final Instant submittedAt;
+    private final AtomicLong affected = new AtomicLong();
+    private volatile boolean cancelRequested;
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    BulkJob(BulkOperation operation, Instant submittedAt) {
+        this.operation = operation;
+        this.submittedAt = submittedAt;
+    }
+
+    public UUID id() {
+        return id;
+    }
+
+    public BulkOperation operation() {
+        return operation;
+    }
+
+    public Instant submittedAt() {
+        return submittedAt;
+    }
+
+    /**
+     * Number of cards changed or deleted so far.
+     */
+    public long affected() {
+        return affected.get();
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public Instant finishedAt() {
+        return finishedAt;
+    }
+
+    public String error() {
+        return error;
+    }
+
+    /**
+     * Asks the job to stop before its next chunk; no effect once it has finished.
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void started() {
+        status = Status.RUNNING;
+    }
+
+    void affected(int cards) {
+        affected.addAndGet(cards);
+    }
+
+    void finish(Status status, String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = status;
+    }
+}
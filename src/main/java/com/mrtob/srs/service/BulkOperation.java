@@ -0,0 +1,22 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.repository.CardFilter;
+
+/**
+ * A change to all cards matching a filter, see {@link BulkOperationService}.
+ *
+ * @param days              {@link Type#POSTPONE}: fixed part of the delay
+ * @param stabilityFraction {@link Type#POSTPONE}: part of the delay proportional to each card's stability,
+ *                          e.g. {@code 0.1} postpones a card with a stability of 30 days by 3 more days
+ */
+public record BulkOperation(Type type, CardFilter filter, double days, double stabilityFraction) {
+
+    public enum Type {
+        /** Moves the next review back by {@code days + stabilityFraction * stability} days. */
+        POSTPONE,
+        /** Resets the scheduling state to that of a new card, due now. */
+        RESET,
+        /** Deletes the cards. */
+        DELETE
+    }
+}
@@ -0,0 +1,188 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.config.BulkProperties;
+import com.mrtob.srs.repository.BulkCardRepository;
+import com.mrtob.srs.repository.SchedulingState;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Postpones, resets or deletes all cards matching a filter, in the background.
+ * <p>
+ * An operation walks the matching cards in id order, {@code chunk-size} cards per set-based statement
+ * (see {@link BulkCardRepository}), and keeps the due count index current after every chunk. It can be
+ * cancelled between chunks; chunks already applied stay applied.
+ * <p>
+ * Reviews buffered by write-behind are flushed before the first chunk. Reviews of affected cards
+ * buffered while the operation runs are dropped, so the operation wins over them. Each chunk and its
+ * drops run {@link SchedulingWriteBehind#exclusively exclusively}, so a concurrent flush cannot write a
+ * dropped state over the chunk.
+ * <p>
+ * Jobs are tracked in memory on the replica that accepted them, for {@code retention} after they finish.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkOperationService {
+
+    private final BulkCardRepository repository;
+    private final SchedulingWriteBehind writeBehind;
+    private final DueCountIndex dueCounts;
+    private final BulkProperties properties;
+
+    private final Map<UUID, BulkJob> jobs = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+
+    @PostConstruct
+    void start() {
+        workers = Executors.newFixedThreadPool(Math.max(1, properties.maxRunning()),
+                Thread.ofPlatform().name("bulk-", 0).factory());
+    }
+
+    /**
+     * Queues an operation.
+     *
+     * @throws ResponseStatusException {@code 400} if a delete has no filter or a postpone no delay
+     */
+    public BulkJob submit(BulkOperation operation) {
+        validate(operation);
+        evictFinished();
+        BulkJob job = new BulkJob(operation, Instant.now());
+        jobs.put(job.id(), job);
+        workers.execute(() -> run(job));
+        log.info("Bulk operation {} queued: {} where {}", job.id(), operation.type(), operation.filter());
+        return job;
+    }
+
+    public Optional<BulkJob> find(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Requests cancellation; the job stops before its next chunk.
+     */
+    public Optional<BulkJob> cancel(UUID id) {
+        Optional<BulkJob> job = find(id);
+        job.ifPresent(BulkJob::cancel);
+        return job;
+    }
+
+    private static void validate(BulkOperation operation) {
+        if (operation.filter().dueFrom() != null && operation.filter().dueTo() != null
+                && !operation.filter().dueFrom().isBefore(operation.filter().dueTo())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "dueFrom must be before dueTo");
+        }
+        switch (operation.type()) {
+            case DELETE -> {
+                if (operation.filter().isEmpty()) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A bulk delete needs a filter");
+                }
+            }
+            case POSTPONE -> {
+                if (operation.days() < 0 || operation.stabilityFraction() < 0
+                        || operation.days() + operation.stabilityFraction() == 0) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "A postpone needs a positive days or stabilityFraction, and neither negative");
+                }
+            }
+            case RESET -> {
+            }
+        }
+    }
+
+    void run(BulkJob job) {
+        if (job.isCancelRequested()) {
+            job.finish(BulkJob.Status.CANCELLED, null);
+            return;
+        }
+        job.started();
+        try {
+            writeBehind.flush();
+            UUID after = null;
+            while (!job.isCancelRequested()) {
+                UUID cursor = after;
+                List<BulkCardRepository.Change> changes = writeBehind.exclusively(() -> {
+                    List<BulkCardRepository.Change> chunk = chunk(job.operation(), cursor);
+                    chunk.forEach(this::reindex);
+                    return chunk;
+                });
+                if (changes.isEmpty()) {
+                    // Every locked card may have failed the re-check; then the same cursor finds the rest
+                    if (repository.anyMatching(job.operation().filter(), cursor)) {
+                        continue;
+                    }
+                    job.finish(BulkJob.Status.COMPLETED, null);
+                    log.info("Bulk operation {} completed: {} cards", job.id(), job.affected());
+                    return;
+                }
+                job.affected(changes.size());
+                after = BulkCardRepository.last(changes);
+            }
+            job.finish(BulkJob.Status.CANCELLED, null);
+            log.info("Bulk operation {} cancelled after {} cards", job.id(), job.affected());
+        } catch (DataAccessException e) {
+            job.finish(BulkJob.Status.FAILED, e.getMessage());
+            log.warn("Bulk operation {} failed after {} cards: {}", job.id(), job.affected(), e.getMessage());
+        } catch (RuntimeException e) {
+            // Any job left unfinished would be reported as running until it is evicted
+            job.finish(BulkJob.Status.FAILED, e.toString());
+            log.error("Bulk operation {} failed after {} cards", job.id(), job.affected(), e);
+        }
+    }
+
+    private List<BulkCardRepository.Change> chunk(BulkOperation operation, UUID after) {
+        int limit = properties.chunkSize();
+        return switch (operation.type()) {
+            case POSTPONE -> repository.postpone(operation.filter(), after, limit, Instant.now(), operation.days(),
+                    operation.stabilityFraction());
+            case RESET -> repository.reset(operation.filter(), after, limit, Instant.now());
+            case DELETE -> repository.delete(operation.filter(), after, limit);
+        };
+    }
+
+    private void reindex(BulkCardRepository.Change change) {
+        // The index counts a card at its buffered state while write-behind holds one
+        SchedulingState pending = writeBehind.discard(change.id());
+        Instant from = pending != null ? pending.nextReview() : change.from();
+        if (change.to() == null) {
+            dueCounts.remove(from);
+        } else {
+            dueCounts.move(from, change.to());
+        }
+    }
+
+    private void evictFinished() {
+        Instant cutoff = Instant.now().minus(properties.retention());
+        jobs.values().removeIf(job -> job.status().isFinished() && job.finishedAt().isBefore(cutoff));
+    }
+
+    /**
+     * Cancels running operations and waits for them to stop at their next chunk.
+     */
+    @PreDestroy
+    void stop() {
+        jobs.values().forEach(BulkJob::cancel);
+        workers.shutdown();
+        try {
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.cluster.CardChange;
+import com.mrtob.srs.cluster.ClusterResync;
+import com.mrtob.srs.cluster.RemoteCardChanges;
+import com.mrtob.srs.config.ListingProperties;
+import com.mrtob.srs.repository.CardCountRepository;
+import com.mrtob.srs.repository.CardRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Totals for card listings, from an exact {@code COUNT(*)} down to no count at all.
+ * <p>
+ * Approximate totals come from planner statistics and cost one catalog lookup (or one
+ * {@code EXPLAIN} when searching) instead of a scan. While the table has no statistics yet,
+ * an exact count is used and cached for {@code srs.listing.count-cache-ttl}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CardCountEstimator {
+
+    public enum Mode {
+        /** {@code COUNT(*)} with the search predicate applied. */
+        EXACT,
+        /** Planner estimate; cheap, but may be off by a wide margin for searches. */
+        APPROXIMATE,
+        /** No total; clients page with {@code last} only. */
+        NONE
+    }
+
+    private final CardRepository cardRepository;
+    private final CardCountRepository cardCountRepository;
+    private final ListingProperties properties;
+
+    private volatile CachedCount cached;
+
+    /**
+     * @param term search term, or {@code null} for all cards
+     * @return the total, or {@code null} for {@link Mode#NONE}
+     */
+    public Long total(Mode mode, String term) {
+        return switch (mode) {
+            case NONE -> null;
+            case EXACT -> term == null ? cardRepository.count() : cardRepository.countSearch(term);
+            case APPROXIMATE -> term == null
+                    ? cardCountRepository.estimateAll().orElseGet(this::cachedCount)
+                    : cardCountRepository.estimateSearch(term);
+        };
+    }
+
+    @EventListener
+    void onRemoteChanges(RemoteCardChanges event) {
+        if (event.changes().stream().anyMatch(CardChange::changesCount)) {
+            cached = null;
+        }
+    }
+
+    @EventListener
+    void onResync(ClusterResync event) {
+        cached = null;
+    }
+
+    private long cachedCount() {
+        Instant now = Instant.now();
+        CachedCount current = cached;
+        if (current == null || current.expiresAt().isBefore(now)) {
+            // Concurrent refreshes may both count; the last one wins, which is harmless
+            current = new CachedCount(cardRepository.count(), now.plus(properties.countCacheTtl()));
+            cached = current;
+        }
+        return current.count();
+    }
+
+    private record CachedCount(long count, Instant expiresAt) {}
+}
@@ -1,58 +1,235 @@
 package com.mrtob.srs.service;
 
+import com.mrtob.srs.config.CardProperties;
 import com.mrtob.srs.dto.CardCreateRequest;
 import com.mrtob.srs.dto.CardUpdateRequest;
 import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.entity.ContentHash;
+import com.mrtob.srs.entity.TimeOrderedUuid;
+import com.mrtob.srs.repository.CardImportRepository;
 import com.mrtob.srs.repository.CardRepository;
+import com.mrtob.srs.repository.DueOrder;
+import com.mrtob.srs.repository.SchedulingState;
+import com.mrtob.srs.repository.SchedulingStateRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CardService {
 
+    /**
+     * @param duplicate whether {@code card} is an existing card returned under {@link DuplicatePolicy#MERGE}
+     */
+    public record Created(Card card, boolean duplicate) {}
+
+    /**
+     * @param ids        card ids in request order; duplicates merged into an existing card carry its id
+     * @param created    number of cards inserted
+     * @param duplicates number of requested cards merged into existing (or earlier requested) cards
+     */
+    public record Imported(List<UUID> ids, int created, int duplicates) {}
+
     private final CardRepository cardRepository;
+    private final SchedulingStateRepository schedulingStateRepository;
+    private final SchedulingWriteBehind writeBehind;
+    private final DueCountIndex dueCounts;
+    private final CardImportRepository cardImportRepository;
+    private final CardProperties properties;
 
     public Page<Card> findAll(Pageable pageable) {
-        return cardRepository.findAll(pageable);
+        Page<Card> page = cardRepository.findAll(pageable);
+        page.forEach(writeBehind::overlay);
+        return page;
     }
 
     public Page<Card> search(String term, Pageable pageable) {
-        return cardRepository.search(term, pageable);
+        Page<Card> page = cardRepository.search(term, pageable);
+        page.forEach(writeBehind::overlay);
+        return page;
+    }
+
+    public Slice<Card> findSlice(Pageable pageable) {
+        Slice<Card> slice = cardRepository.findSliceBy(pageable);
+        slice.forEach(writeBehind::overlay);
+        return slice;
+    }
+
+    public Slice<Card> searchSlice(String term, Pageable pageable) {
+        Slice<Card> slice = cardRepository.searchSlice(term, pageable);
+        slice.forEach(writeBehind::overlay);
+        return slice;
     }
 
     public Card create(CardCreateRequest request) {
+        return create(request, null).card();
+    }
+
+    /**
+     * Creates a card, checking for a duplicate with one probe of the content hash index unless the
+     * policy is {@link DuplicatePolicy#ALLOW}.
+     *
+     * @param policy {@code null} for the configured default
+     * @throws ResponseStatusException {@code 409} if the card is a duplicate under {@link DuplicatePolicy#REJECT}
+     */
+    public Created create(CardCreateRequest request, DuplicatePolicy policy) {
+        policy = policy != null ? policy : properties.duplicates();
+        if (policy != DuplicatePolicy.ALLOW) {
+            Optional<Card> existing =
+                    cardRepository.findFirstByContentHash(ContentHash.of(request.front(), request.back()));
+            if (existing.isPresent()) {
+                if (policy == DuplicatePolicy.REJECT) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Duplicate of card " + existing.get().getId());
+                }
+                writeBehind.overlay(existing.get());
+                return new Created(existing.get(), true);
+            }
+        }
+
         Card card = Card.builder()
                 .front(request.front())
                 .back(request.back())
                 .nextReview(Instant.now())
                 .build();
-        return cardRepository.save(card);
+        Card saved = cardRepository.save(card);
+        dueCounts.add(saved.getNextReview());
+        return new Created(saved, false);
     }
 
+    /**
+     * Creates many cards: one set-based duplicate check for the whole batch (unless the policy is
+     * {@link DuplicatePolicy#ALLOW}), then multi-row inserts, in one transaction.
+     *
+     * @param policy {@code null} for the configured default
+     * @throws ResponseStatusException {@code 409} if any card is a duplicate under {@link DuplicatePolicy#REJECT},
+     *                                 {@code 400} if the batch exceeds {@code srs.cards.max-import-size}
+     */
+    @Transactional
+    public Imported importAll(List<CardCreateRequest> requests, DuplicatePolicy policy) {
+        if (requests.size() > properties.maxImportSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + properties.maxImportSize() + " cards per import");
+        }
+        policy = policy != null ? policy : properties.duplicates();
+        List<byte[]> hashes = requests.stream()
+                .map(request -> ContentHash.of(request.front(), request.back()))
+                .toList();
+        Map<String, UUID> known = policy == DuplicatePolicy.ALLOW
+                ? new HashMap<>()
+                : cardImportRepository.findIdsByContentHash(hashes);
+
+        Instant now = Instant.now();
+        List<UUID> ids = new ArrayList<>(requests.size());
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String key = ContentHash.hex(hashes.get(i));
+            UUID duplicateOf = policy == DuplicatePolicy.ALLOW ? null : known.get(key);
+            if (duplicateOf != null) {
+                if (policy == DuplicatePolicy.REJECT) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Card " + i + " of the import is a duplicate of card " + duplicateOf);
+                }
+                ids.add(duplicateOf);
+                continue;
+            }
+            Card card = Card.builder()
+                    .id(TimeOrderedUuid.next())
+                    .front(requests.get(i).front())
+                    .back(requests.get(i).back())
+                    .nextReview(now)
+                    .createdAt(now)
+                    .contentHash(hashes.get(i))
+                    .build();
+            cards.add(card);
+            ids.add(card.getId());
+            known.put(key, card.getId());
+        }
+
+        cardImportRepository.insertAll(cards);
+        // Neither this replica's index nor the others may count cards of an import that rolls back
+        afterCommit(() -> cards.forEach(card -> dueCounts.add(card.getNextReview())));
+        return new Imported(ids, cards.size(), requests.size() - cards.size());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Transactional
     public Card update(UUID id, CardUpdateRequest request) {
         Card card = cardRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Card not found: " + id));
+        writeBehind.overlay(card);
         card.setFront(request.front());
         card.setBack(request.back());
         return cardRepository.save(card);
     }
 
     public void delete(UUID id) {
-        if (!cardRepository.existsById(id)) {
-            throw new EntityNotFoundException("Card not found: " + id);
-        }
-        cardRepository.deleteById(id);
+        Instant nextReview = schedulingStateRepository.deleteReturningNextReview(id)
+                .orElseThrow(() -> new EntityNotFoundException("Card not found: " + id));
+        SchedulingState pending = writeBehind.discard(id);
+        dueCounts.remove(pending != null ? pending.nextReview() : nextReview);
     }
 
     public List<Card> findDueCards() {
-        return cardRepository.findByNextReviewBefore(Instant.now());
+        Instant now = Instant.now();
+        List<Card> due = new ArrayList<>(cardRepository.findByNextReviewBefore(now));
+
+        // Read-through: unflushed reviews may have moved cards out of (or into) the due set
+        due.removeIf(card -> writeBehind.overlay(card) && !card.getNextReview().isBefore(now));
+
+        Set<UUID> loaded = due.stream().map(Card::getId).collect(Collectors.toSet());
+        List<UUID> pendingDue = writeBehind.pendingDueIds(now).stream()
+                .filter(id -> !loaded.contains(id))
+                .toList();
+        if (!pendingDue.isEmpty()) {
+            List<Card> extra = cardRepository.findAllById(pendingDue);
+            extra.forEach(writeBehind::overlay);
+            due.addAll(extra);
+        }
+        return due;
+    }
+
+    /**
+     * The first {@code limit} due cards in the given order, ranked by the database.
+     * <p>
+     * Cards moved out of the due set by unflushed reviews are dropped, so fewer than
+     * {@code limit} cards may be returned while write-behind is enabled.
+     */
+    public List<Card> findFirstDue(DueOrder order, int limit) {
+        Instant now = Instant.now();
+        List<Card> due = new ArrayList<>(schedulingStateRepository.findDue(now, order, limit));
+        due.removeIf(card -> writeBehind.overlay(card) && !card.getNextReview().isBefore(now));
+        return due;
     }
 }
@@ -0,0 +1,181 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.cluster.CardChange;
+import com.mrtob.srs.cluster.ClusterChangeBus;
+import com.mrtob.srs.cluster.ClusterResync;
+import com.mrtob.srs.cluster.RemoteCardChanges;
+import com.mrtob.srs.repository.SchedulingStateRepository;
+import com.mrtob.srs.snapshot.ReconciledSnapshot;
+import com.mrtob.srs.snapshot.SchedulingSnapshotStore;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory histogram of cards per hour of {@code nextReview}.
+ * <p>
+ * Built with one aggregate query at startup (or from the scheduling snapshot, see
+ * {@link SchedulingSnapshotStore}) and kept current by the services whenever a
+ * card's {@code nextReview} changes, so due counts are answered from the buckets instead of
+ * scanning {@code cards}. Resolution is one hour: a card due later in the current hour counts
+ * as due now.
+ * <p>
+ * Hours that lie in the past are folded into a single bucket, so the map only grows with
+ * the number of distinct future hours.
+ * <p>
+ * Local changes are broadcast through {@link ClusterChangeBus}, and changes from other replicas
+ * are applied as they arrive, so every replica answers with the cluster-wide counts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DueCountIndex {
+
+    public enum Granularity {
+        HOUR(1),
+        DAY(24);
+
+        private final int hours;
+
+        Granularity(int hours) {
+            this.hours = hours;
+        }
+    }
+
+    public record Bucket(Instant from, Instant to, long count) {}
+
+    public record Snapshot(Instant asOf, long dueNow, List<Bucket> buckets) {}
+
+    private static final long PAST = Long.MIN_VALUE;
+
+    private final SchedulingStateRepository repository;
+    private final ClusterChangeBus changes;
+    private final SchedulingSnapshotStore snapshots;
+
+    // replaced as a whole on rebuild, so readers never see a half-loaded index
+    private volatile ConcurrentSkipListMap<Long, Long> cardsPerHour = new ConcurrentSkipListMap<>();
+
+    @PostConstruct
+    void start() {
+        snapshots.load()
+                .map(ReconciledSnapshot::countByNextReviewHour)
+                .ifPresentOrElse(this::replace, this::rebuild);
+    }
+
+    public void rebuild() {
+        replace(repository.countByNextReviewHour());
+    }
+
+    private void replace(Map<Long, Long> counts) {
+        cardsPerHour = new ConcurrentSkipListMap<>(counts);
+        log.info("Due count index rebuilt: {} cards in {} hourly buckets",
+                counts.values().stream().mapToLong(Long::longValue).sum(), counts.size());
+    }
+
+    public void add(Instant nextReview) {
+        adjust(hourOf(nextReview), 1);
+        changes.publish(null, nextReview);
+    }
+
+    public void remove(Instant nextReview) {
+        adjust(hourOf(nextReview), -1);
+        changes.publish(nextReview, null);
+    }
+
+    public void move(Instant from, Instant to) {
+        if (hourOf(from) != hourOf(to)) {
+            apply(new CardChange(from, to));
+            changes.publish(from, to);
+        }
+    }
+
+    @EventListener
+    void onRemoteChanges(RemoteCardChanges event) {
+        event.changes().forEach(this::apply);
+    }
+
+    @EventListener
+    void onResync(ClusterResync event) {
+        rebuild();
+    }
+
+    private void apply(CardChange change) {
+        if (change.from() != null) {
+            adjust(hourOf(change.from()), -1);
+        }
+        if (change.to() != null) {
+            adjust(hourOf(change.to()), 1);
+        }
+    }
+
+    /**
+     * Due counts as of {@code now}: everything due up to the end of the current hour, followed by
+     * {@code buckets} upcoming buckets. The first bucket ends at the next granularity boundary (UTC),
+     * so for {@link Granularity#DAY} it covers the rest of today.
+     */
+    public Snapshot snapshot(Instant now, Granularity granularity, int buckets) {
+        long currentHour = hourOf(now);
+        ConcurrentSkipListMap<Long, Long> hours = cardsPerHour;
+        compact(hours, currentHour);
+
+        long dueNow = sum(hours.headMap(currentHour, true));
+
+        List<Bucket> result = new ArrayList<>(buckets);
+        long from = currentHour + 1;
+        for (int i = 0; i < buckets; i++) {
+            long to = (Math.floorDiv(from, granularity.hours) + 1) * granularity.hours;
+            result.add(new Bucket(instantOf(from), instantOf(to), sum(hours.subMap(from, to))));
+            from = to;
+        }
+        return new Snapshot(now, dueNow, result);
+    }
+
+    private void adjust(long hour, long delta) {
+        adjust(cardsPerHour, hour, delta);
+    }
+
+    private static void adjust(ConcurrentSkipListMap<Long, Long> hours, long hour, long delta) {
+        hours.merge(hour, delta, (current, d) -> current + d == 0 ? null : current + d);
+    }
+
+    /**
+     * Folds hours before {@code currentHour} into one bucket. Safe under concurrent updates:
+     * an adjustment to a folded hour re-creates that key, which is folded again next time,
+     * and both keys are always summed together as "due".
+     */
+    private static void compact(ConcurrentSkipListMap<Long, Long> hours, long currentHour) {
+        ConcurrentNavigableMap<Long, Long> past = hours.subMap(PAST, false, currentHour, false);
+        for (Long hour : past.keySet()) {
+            Long count = hours.remove(hour);
+            if (count != null) {
+                adjust(hours, PAST, count);
+            }
+        }
+    }
+
+    private static long sum(Map<Long, Long> buckets) {
+        long total = 0;
+        for (long count : buckets.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static long hourOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 3600);
+    }
+
+    private static Instant instantOf(long hour) {
+        return Instant.EPOCH.plus(hour, ChronoUnit.HOURS);
+    }
+}
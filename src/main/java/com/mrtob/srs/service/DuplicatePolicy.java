@@ -0,0 +1,13 @@
+package com.mrtob.srs.service;
+
+/**
+ * What happens to a new card whose normalized content matches an existing card.
+ */
+public enum DuplicatePolicy {
+    /** Fail with {@code 409 Conflict}; an import is rejected as a whole. */
+    REJECT,
+    /** Keep the existing card and return it instead of creating a new one. */
+    MERGE,
+    /** Create the card anyway; no duplicate check is made. */
+    ALLOW
+}
@@ -1,29 +1,146 @@
 package com.mrtob.srs.service;
 
+import com.mrtob.srs.algorithm.MemoryState;
+import com.mrtob.srs.algorithm.Rating;
 import com.mrtob.srs.algorithm.SpacedRepetitionAlgorithm;
 import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.observability.CardLoadEvent;
+import com.mrtob.srs.observability.CardPersistEvent;
+import com.mrtob.srs.observability.ReviewEvent;
+import com.mrtob.srs.observability.ScheduleEvent;
+import com.mrtob.srs.repository.CardLeaseRepository;
 import com.mrtob.srs.repository.CardRepository;
+import com.mrtob.srs.repository.SchedulingState;
+import com.mrtob.srs.repository.SchedulingStateRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class ReviewService {
 
+    /** Attempts before giving up on a card that keeps being reviewed concurrently. */
+    private static final int MAX_ATTEMPTS = 3;
+
     private final CardRepository repo;
+    private final SchedulingStateRepository schedulingStates;
+    private final CardLeaseRepository leases;
     private final SpacedRepetitionAlgorithm algorithm;
+    private final SchedulingWriteBehind writeBehind;
+    private final DueCountIndex dueCounts;
+    private final ReviewStatsRecorder stats;
 
     public Card review(UUID cardId, int quality) {
-        Card card = repo.findById(cardId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Card not found: " + cardId));
+        return writeBehind.isEnabled() ? reviewBuffered(cardId, quality) : reviewDirect(cardId, quality, null);
+    }
+
+    /**
+     * Reviews a card leased to a session and releases its lease.
+     *
+     * @throws ResponseStatusException {@code 409} if the card is not (or no longer) leased to the session
+     */
+    public Card reviewLeased(UUID cardId, int quality, UUID sessionId) {
+        if (!writeBehind.isEnabled()) {
+            return reviewDirect(cardId, quality, sessionId);
+        }
+        if (!leases.release(cardId, sessionId)) {
+            throw notLeased(cardId);
+        }
+        return reviewBuffered(cardId, quality);
+    }
+
+    /**
+     * Reads only the scheduling columns and writes them back with a single
+     * {@code UPDATE ... RETURNING}, without loading the card into the persistence context.
+     * A concurrent review of the same card makes the update miss; it is then retried on fresh state.
+     * With a {@code leaseOwner}, the card must be leased to it and the lease is released by the same update.
+     */
+    private Card reviewDirect(UUID cardId, int quality, UUID leaseOwner) {
+        ReviewEvent event = new ReviewEvent();
+        event.begin();
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            CardLoadEvent load = new CardLoadEvent();
+            load.begin();
+            Optional<SchedulingState> found = leaseOwner == null
+                    ? schedulingStates.findById(cardId)
+                    : schedulingStates.findLeased(cardId, leaseOwner);
+            load.commit(cardId, found.isPresent());
+            SchedulingState current = found.orElseThrow(() -> leaseOwner == null ? notFound(cardId) : notLeased(cardId));
+
+            ScheduleEvent schedule = new ScheduleEvent();
+            schedule.begin();
+            Instant now = Instant.now();
+            MemoryState next = algorithm.schedule(current.toMemoryState(), quality, now);
+            schedule.commit(cardId, algorithmName(), quality, now, next.nextReview());
+
+            CardPersistEvent persist = new CardPersistEvent();
+            persist.begin();
+            SchedulingState nextState = SchedulingState.of(cardId, next);
+            Optional<Card> updated = leaseOwner == null
+                    ? schedulingStates.compareAndSet(current, nextState)
+                    : schedulingStates.compareAndSetReleasingLease(current, nextState, leaseOwner);
+            persist.commit(cardId, "compare-and-set", updated.isPresent());
+            if (updated.isPresent()) {
+                dueCounts.move(current.nextReview(), next.nextReview());
+                stats.record(cardId, current.toMemoryState(), next, quality, now);
+                event.commit(cardId, algorithmName(), quality, now, next.nextReview(), attempt);
+                return updated.get();
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Card is being reviewed concurrently: " + cardId);
+    }
+
+    private Card reviewBuffered(UUID cardId, int quality) {
+        ReviewEvent event = new ReviewEvent();
+        event.begin();
+        CardLoadEvent load = new CardLoadEvent();
+        load.begin();
+        Optional<Card> found = repo.findById(cardId);
+        load.commit(cardId, found.isPresent());
+        Card card = found.orElseThrow(() -> notFound(cardId));
+        writeBehind.overlay(card);
+        MemoryState before = MemoryState.of(card);
 
+        ScheduleEvent schedule = new ScheduleEvent();
+        schedule.begin();
+        Instant now = Instant.now();
         Card updated = algorithm.review(card, quality);
+        schedule.commit(cardId, algorithmName(), quality, now, updated.getNextReview());
+        dueCounts.move(before.nextReview(), updated.getNextReview());
+        stats.record(cardId, before, MemoryState.of(updated), quality, now);
+
+        CardPersistEvent persist = new CardPersistEvent();
+        persist.begin();
+        boolean staged = writeBehind.stage(updated);
+        Card saved = staged ? updated : repo.save(updated);
+        persist.commit(cardId, staged ? "write-behind" : "save", true);
+        event.commit(cardId, algorithmName(), quality, now, saved.getNextReview(), 1);
+        return saved;
+    }
+
+    /**
+     * Outcome of each rating if the card were reviewed at {@code now}. Does not change the card.
+     */
+    public Map<Rating, MemoryState> preview(Card card, Instant now) {
+        return algorithm.previewAll(MemoryState.of(card), now);
+    }
+
+    private String algorithmName() {
+        return algorithm.getClass().getSimpleName();
+    }
+
+    private static ResponseStatusException notFound(UUID cardId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Card not found: " + cardId);
+    }
 
-        return repo.save(updated);
+    private static ResponseStatusException notLeased(UUID cardId) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Card is not leased to this session: " + cardId);
     }
 }
@@ -0,0 +1,13 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.entity.Card;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A started review session and the cards leased to it.
+ */
+public record ReviewSession(UUID id, Instant leasedUntil, List<Card> cards) {
+}
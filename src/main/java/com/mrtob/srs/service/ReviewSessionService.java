@@ -0,0 +1,68 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.config.ReviewSessionProperties;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.entity.TimeOrderedUuid;
+import com.mrtob.srs.repository.CardLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Review sessions backed by card leases.
+ * <p>
+ * Starting a session leases a batch of due cards; each review in the session releases the
+ * reviewed card, renews the remaining leases and leases one more card, so a client needs a
+ * single request per card and devices running their own sessions never get the same card.
+ * Sessions have no server-side state besides the leases themselves.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReviewSessionService {
+
+    private final CardLeaseRepository leases;
+    private final ReviewService reviewService;
+    private final SchedulingWriteBehind writeBehind;
+    private final ReviewSessionProperties properties;
+
+    public ReviewSession start(int size) {
+        UUID sessionId = TimeOrderedUuid.next();
+        Instant now = Instant.now();
+        Instant leasedUntil = now.plus(properties.leaseDuration());
+        return new ReviewSession(sessionId, leasedUntil,
+                lease(sessionId, now, leasedUntil, Math.clamp(size, 1, properties.maxSize())));
+    }
+
+    public SessionReview review(UUID sessionId, UUID cardId, int quality) {
+        Card reviewed = reviewService.reviewLeased(cardId, quality, sessionId);
+
+        Instant now = Instant.now();
+        Instant leasedUntil = now.plus(properties.leaseDuration());
+        List<Card> next = lease(sessionId, now, leasedUntil, 1);
+        return new SessionReview(reviewed, next.isEmpty() ? null : next.getFirst(), leasedUntil);
+    }
+
+    /**
+     * Releases all cards still leased to the session.
+     */
+    public void end(UUID sessionId) {
+        leases.releaseAll(sessionId);
+    }
+
+    private List<Card> lease(UUID sessionId, Instant now, Instant leasedUntil, int limit) {
+        List<Card> cards = new ArrayList<>(leases.renewAndLease(sessionId, now, leasedUntil, limit, properties.order()));
+        // Unflushed reviews may have moved a card out of the due set after the database picked it
+        cards.removeIf(card -> {
+            boolean reviewedMeanwhile = writeBehind.overlay(card) && !card.getNextReview().isBefore(now);
+            if (reviewedMeanwhile) {
+                leases.release(card.getId(), sessionId);
+            }
+            return reviewedMeanwhile;
+        });
+        return cards;
+    }
+}
@@ -0,0 +1,151 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.algorithm.MemoryState;
+import com.mrtob.srs.algorithm.SpacedRepetitionAlgorithm;
+import com.mrtob.srs.config.StatsProperties;
+import com.mrtob.srs.repository.DailyRollup;
+import com.mrtob.srs.repository.ReviewLogEntry;
+import com.mrtob.srs.repository.ReviewStatsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Records reviews for the statistics rollups, off the request path.
+ * <p>
+ * A review only enqueues its before/after states. Every {@code flush-interval} a background thread
+ * derives the log rows (retrievability, interval), aggregates them per day and writes history and
+ * rollups in one transaction of three statements, however many reviews were recorded.
+ * <p>
+ * Like the write-behind buffer, a crash loses at most one flush interval of statistics; the
+ * review itself is persisted independently.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewStatsRecorder {
+
+    private final ReviewStatsRepository repository;
+    private final SpacedRepetitionAlgorithm algorithm;
+    private final StatsProperties properties;
+
+    private final Queue<Review> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("stats-flusher").factory());
+        long intervalMillis = properties.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a review that moved a card from {@code before} to {@code after} at {@code reviewedAt}.
+     */
+    public void record(UUID cardId, MemoryState before, MemoryState after, int quality, Instant reviewedAt) {
+        if (!properties.enabled()) {
+            return;
+        }
+        if (pendingCount.incrementAndGet() > properties.maxPending()) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        pending.add(new Review(cardId, before, after, quality, reviewedAt));
+    }
+
+    /**
+     * Writes all pending reviews. Reviews are put back if deriving or writing the rows fails.
+     */
+    synchronized void flush() {
+        List<Review> batch = new ArrayList<>();
+        for (Review review; (review = pending.poll()) != null; ) {
+            batch.add(review);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<ReviewLogEntry> entries = batch.stream().map(this::toEntry).toList();
+            Map<LocalDate, List<ReviewLogEntry>> byDay = entries.stream()
+                    .collect(Collectors.groupingBy(ReviewLogEntry::day, TreeMap::new, Collectors.toList()));
+            List<DailyRollup> rollups = byDay.entrySet().stream()
+                    .map(day -> DailyRollup.of(day.getKey(), day.getValue()))
+                    .toList();
+            repository.append(entries, rollups);
+            pendingCount.addAndGet(-batch.size());
+        } catch (RuntimeException e) {
+            pending.addAll(batch);
+            throw e;
+        }
+    }
+
+    private ReviewLogEntry toEntry(Review review) {
+        MemoryState before = review.before();
+        MemoryState after = review.after();
+        long intervalDays = Duration.between(review.reviewedAt(), after.nextReview()).toDays();
+        return new ReviewLogEntry(review.cardId(), review.reviewedAt(), review.quality(),
+                algorithm.passed(review.quality()),
+                before.learningStep() < 0 || before.repetitions() > 0,
+                algorithm.retrievability(before, review.reviewedAt()),
+                after.stability(),
+                (int) Math.clamp(intervalDays, 0, Integer.MAX_VALUE));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            log.warn("Writing review statistics failed, {} reviews pending: {}", pendingCount.get(), e.getMessage());
+        } catch (RuntimeException e) {
+            // an exception escaping the scheduled task would cancel all further flushes
+            log.error("Recording review statistics failed, {} reviews pending", pendingCount.get(), e);
+        }
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("{} reviews were not recorded in the statistics: too many pending", lost);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(properties.flushInterval().toMillis() * 2 + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    private record Review(UUID cardId, MemoryState before, MemoryState after, int quality, Instant reviewedAt) {}
+}
@@ -0,0 +1,77 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.cluster.ClusterJobs;
+import com.mrtob.srs.config.StatsProperties;
+import com.mrtob.srs.repository.DailyRollup;
+import com.mrtob.srs.repository.ReviewStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Review statistics read from the daily rollups; the cost depends on the number of days, not reviews.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewStatsService {
+
+    /** Longest range served or rebuilt at once. */
+    public static final int MAX_DAYS = 366;
+
+    private final ReviewStatsRepository repository;
+    private final ClusterJobs clusterJobs;
+    private final StatsProperties properties;
+
+    public record Stats(LocalDate from, LocalDate to, DailyRollup total, List<DailyRollup> days) {}
+
+    /**
+     * Rollups of the days in {@code [from, to]} that had reviews, and their sum.
+     */
+    public Stats daily(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        List<DailyRollup> days = repository.findDaily(from, to);
+        DailyRollup total = days.stream().reduce(DailyRollup.empty(from), DailyRollup::plus);
+        return new Stats(from, to, total, days);
+    }
+
+    /**
+     * Recomputes the rollups of {@code [from, to]} from the review history, on one replica at a time.
+     *
+     * @return the number of days with reviews
+     * @throws ResponseStatusException {@code 400} if the history of {@code from} may already be pruned,
+     *                                 {@code 409} if a rebuild is already running
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        Instant cutoff = properties.logCutoff(Instant.now());
+        if (cutoff != null && !from.isAfter(LocalDate.ofInstant(cutoff, ZoneOffset.UTC))) {
+            // Rebuilding would replace the rollups of pruned reviews with nothing
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The review history before " + cutoff + " is pruned, rebuild from a later day");
+        }
+        AtomicInteger days = new AtomicInteger();
+        if (!clusterJobs.runExclusive("rebuild-review-stats", () -> days.set(repository.rebuild(from, to)))) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A statistics rebuild is already running");
+        }
+        log.info("Rebuilt review statistics for {} to {}: {} days with reviews", from, to, days.get());
+        return days.get();
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range must cover 1 to " + MAX_DAYS + " days: " + from + " to " + to);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.config.WriteBehindProperties;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.repository.SchedulingState;
+import com.mrtob.srs.repository.SchedulingStateRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind buffer for card scheduling state.
+ * <p>
+ * When enabled, reviews are acknowledged as soon as the new state is in the dirty map.
+ * A background flusher coalesces repeated updates to the same card and writes all
+ * changed rows in one set-based statement every {@code flush-interval} or as soon as
+ * {@code max-batch-size} cards are dirty. Readers call {@link #overlay(Card)} so that
+ * unflushed state is visible before it reaches the database.
+ * <p>
+ * Trade-off: up to one flush interval of acknowledged reviews can be lost on a crash.
+ * A graceful shutdown drains the buffer. While flushes fail, at most {@code max-pending} cards
+ * are buffered; reviews of other cards are then written synchronously (and fail with the database).
+ */
+@Component
+@Slf4j
+public class SchedulingWriteBehind {
+
+    private static final int DRAIN_ATTEMPTS = 3;
+
+    private final SchedulingStateRepository repository;
+    private final WriteBehindProperties properties;
+    private final int batchSize;
+
+    private final Map<UUID, SchedulingState> dirty = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicBoolean full = new AtomicBoolean();
+    private volatile boolean accepting;
+    private ScheduledExecutorService flusher;
+
+    public SchedulingWriteBehind(SchedulingStateRepository repository, WriteBehindProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+        this.batchSize = Math.clamp(properties.maxBatchSize(), 1, SchedulingStateRepository.MAX_BATCH_SIZE);
+        this.accepting = properties.enabled();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("write-behind-flusher").factory());
+        long intervalMillis = properties.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Write-behind enabled (flush every {} or {} cards)", properties.flushInterval(), batchSize);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Stages the scheduling state of a reviewed card.
+     *
+     * @return {@code false} if write-behind is disabled, shutting down or full — the caller must persist
+     *         synchronously
+     */
+    public boolean stage(Card card) {
+        if (!accepting) {
+            return false;
+        }
+        // a card already buffered is always replaced, so a synchronous save can't be overwritten by the flush
+        if (dirty.size() >= properties.maxPending() && !dirty.containsKey(card.getId())) {
+            if (full.compareAndSet(false, true)) {
+                log.warn("Write-behind buffer full ({} cards), persisting further reviews synchronously",
+                        dirty.size());
+            }
+            return false;
+        }
+        dirty.put(card.getId(), SchedulingState.of(card));
+        if (dirty.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // shutting down — drain() picks up the remaining states
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the scheduling fields of a freshly loaded card with unflushed state, if any.
+     *
+     * @return whether the card had unflushed state
+     */
+    public boolean overlay(Card card) {
+        SchedulingState pending = dirty.get(card.getId());
+        if (pending == null) {
+            return false;
+        }
+        pending.applyTo(card);
+        return true;
+    }
+
+    /**
+     * Ids of cards whose unflushed state is due before {@code now}.
+     */
+    public List<UUID> pendingDueIds(Instant now) {
+        return dirty.values().stream()
+                .filter(state -> state.nextReview().isBefore(now))
+                .map(SchedulingState::id)
+                .toList();
+    }
+
+    /**
+     * Drops unflushed state of a deleted card.
+     *
+     * @return the dropped state, or {@code null} if there was none
+     */
+    public SchedulingState discard(UUID cardId) {
+        return dirty.remove(cardId);
+    }
+
+    /**
+     * Runs {@code action} while no flush is in progress. A flush that collected a state before
+     * {@code action} discards it cannot write it back afterwards.
+     */
+    public synchronized <T> T exclusively(Supplier<T> action) {
+        return action.get();
+    }
+
+    int pendingCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Writes all dirty states in batches. Entries updated again while a batch is in flight
+     * stay dirty and are picked up by the next round.
+     */
+    synchronized void flush() {
+        flushRequested.set(false);
+        while (!dirty.isEmpty()) {
+            List<SchedulingState> batch = dirty.values().stream().limit(batchSize).toList();
+            repository.updateAll(batch);
+            batch.forEach(state -> dirty.remove(state.id(), state));
+        }
+        if (full.compareAndSet(true, false)) {
+            log.info("Write-behind buffer flushed, buffering reviews again");
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // an exception escaping the scheduled task would cancel all further flushes
+            log.warn("Write-behind flush failed, {} cards still pending: {}", dirty.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void drain() {
+        accepting = false;
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(properties.flushInterval().toMillis() * 2 + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (int attempt = 1; attempt <= DRAIN_ATTEMPTS && !dirty.isEmpty(); attempt++) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Write-behind drain attempt {} failed: {}", attempt, e.getMessage());
+            }
+        }
+        if (!dirty.isEmpty()) {
+            log.error("Write-behind drain gave up, {} card states were not persisted: {}", dirty.size(), dirty.keySet());
+        } else {
+            log.info("Write-behind buffer drained");
+        }
+    }
+}
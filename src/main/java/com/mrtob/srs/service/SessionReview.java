@@ -0,0 +1,13 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.entity.Card;
+
+import java.time.Instant;
+
+/**
+ * Result of a review within a session.
+ *
+ * @param next the card leased in its place, or {@code null} when nothing else is due
+ */
+public record SessionReview(Card reviewed, Card next, Instant leasedUntil) {
+}
@@ -0,0 +1,70 @@
+package com.mrtob.srs.simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads {@code card_id,reviewed_at,quality} lines from a CSV file, one line at a time.
+ * <p>
+ * {@code card_id} is a UUID or any other string, {@code reviewed_at} is ISO-8601 or epoch millis.
+ * A header line and blank lines are skipped.
+ */
+public class CsvReviewEventSource implements ReviewEventSource {
+
+    private final Path path;
+
+    public CsvReviewEventSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void forEach(Consumer<ReviewEvent> consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.startsWith("card_id"))) {
+                    continue;
+                }
+                consumer.accept(parse(line, lineNumber));
+            }
+        }
+    }
+
+    static ReviewEvent parse(String line, long lineNumber) {
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        if (second < 0) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected card_id,reviewed_at,quality");
+        }
+        String card = line.substring(0, first).trim();
+        String time = line.substring(first + 1, second).trim();
+        String quality = line.substring(second + 1).trim();
+
+        long reviewedAt = time.indexOf('T') < 0
+                ? Long.parseLong(time)
+                : Instant.parse(time).toEpochMilli();
+        return new ReviewEvent(cardKey(card), reviewedAt, Integer.parseInt(quality));
+    }
+
+    private static long cardKey(String card) {
+        if (card.length() == 36) {
+            UUID id = UUID.fromString(card);
+            return id.getMostSignificantBits() * 31 + id.getLeastSignificantBits();
+        }
+        // FNV-1a, stable across runs unlike String.hashCode collisions on 32 bits
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < card.length(); i++) {
+            hash ^= card.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
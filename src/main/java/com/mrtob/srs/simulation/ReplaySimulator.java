@@ -0,0 +1,369 @@
+package com.mrtob.srs.simulation;
+
+import com.mrtob.srs.algorithm.FSRSAlgorithm;
+import com.mrtob.srs.algorithm.MemoryState;
+import com.mrtob.srs.algorithm.SM2Algorithm;
+import com.mrtob.srs.algorithm.SpacedRepetitionAlgorithm;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Offline replay of a review history through several {@link SpacedRepetitionAlgorithm}s.
+ * <p>
+ * Each card keeps its recorded start time and sequence of grades, but is reviewed whenever
+ * the algorithm under test schedules it. Once the recorded grades are used up, the card keeps
+ * being answered with {@code continuationQuality} until the horizon ends (or stops if negative).
+ * This turns a history into the workload each algorithm would have caused.
+ * <p>
+ * Cards are scheduled exactly as live reviews are: {@code schedule} measures the elapsed time from the
+ * due date, and the carried {@code lastReview} only feeds the predicted retention of the report. A card
+ * reviewed exactly when due therefore never grows its FSRS stability, so each review happens late by an
+ * exponentially distributed fraction of its interval with mean {@code reviewDelay}. The lateness is drawn
+ * from the card and its due date, so it is the same for every run and thread count.
+ * <p>
+ * Events are read as a stream and partitioned by card across worker threads. A worker owns all
+ * state of its cards, so no locking is needed, and results are identical for any thread count.
+ */
+public class ReplaySimulator {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final int BATCH_SIZE = 4096;
+    private static final long[] POISON = new long[0];
+
+    private final Map<String, SpacedRepetitionAlgorithm> algorithms;
+    private final int threads;
+    private final int days;
+    private final int continuationQuality;
+    private final double reviewDelay;
+
+    public ReplaySimulator(Map<String, SpacedRepetitionAlgorithm> algorithms, int threads, int days,
+                           int continuationQuality, double reviewDelay) {
+        if (reviewDelay < 0) {
+            throw new IllegalArgumentException("reviewDelay must not be negative: " + reviewDelay);
+        }
+        this.algorithms = new LinkedHashMap<>(algorithms);
+        this.threads = Math.max(1, threads);
+        this.days = days;
+        this.continuationQuality = continuationQuality;
+        this.reviewDelay = reviewDelay;
+    }
+
+    /**
+     * Replays the source. The horizon starts at {@code start}, or at the day of the first event if {@code null}.
+     */
+    public SimulationReport run(ReviewEventSource source, Instant start) throws IOException {
+        List<BlockingQueue<long[]>> queues = new ArrayList<>();
+        List<Worker> workers = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("replay-", 0).factory());
+        try {
+            for (int i = 0; i < threads; i++) {
+                queues.add(new ArrayBlockingQueue<>(16));
+            }
+            Dispatcher dispatcher = new Dispatcher(queues, start);
+
+            List<Future<?>> futures = new ArrayList<>();
+            source.forEach(event -> {
+                if (workers.isEmpty()) {
+                    if (dispatcher.startMillis < 0) {
+                        dispatcher.startMillis = Instant.ofEpochMilli(event.reviewedAtMillis())
+                                .truncatedTo(ChronoUnit.DAYS).toEpochMilli();
+                    }
+                    for (BlockingQueue<long[]> queue : queues) {
+                        Worker worker = new Worker(queue, dispatcher.startMillis);
+                        workers.add(worker);
+                        futures.add(executor.submit(worker));
+                    }
+                }
+                dispatcher.accept(event);
+            });
+            dispatcher.finish();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return merge(workers, dispatcher);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replay interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replay worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SimulationReport merge(List<Worker> workers, Dispatcher dispatcher) {
+        List<SimulationReport.AlgorithmResult> results = new ArrayList<>();
+        int index = 0;
+        for (String name : algorithms.keySet()) {
+            long reviews = 0;
+            long retentionSamples = 0;
+            double retentionSum = 0;
+            long[] dailyLoad = new long[days];
+            for (Worker worker : workers) {
+                reviews += worker.reviews[index];
+                retentionSamples += worker.retentionSamples[index];
+                retentionSum += worker.retentionSum[index];
+                for (int day = 0; day < days; day++) {
+                    dailyLoad[day] += worker.dailyLoad[index][day];
+                }
+            }
+            double meanRetention = retentionSamples == 0 ? Double.NaN : retentionSum / retentionSamples;
+            results.add(new SimulationReport.AlgorithmResult(name, reviews, meanRetention, dailyLoad));
+            index++;
+        }
+        long cards = workers.stream().mapToLong(worker -> worker.cards.size()).sum();
+        Instant start = Instant.ofEpochMilli(Math.max(0, dispatcher.startMillis));
+        return new SimulationReport(start, days, cards, dispatcher.events, reviewDelay, results);
+    }
+
+    /**
+     * Routes events into per-worker batches of packed {@code [cardKey, millis, quality]} triples.
+     */
+    private final class Dispatcher {
+
+        private final List<BlockingQueue<long[]>> queues;
+        private final long[][] batches;
+        private final int[] fill;
+        private long startMillis;
+        private long events;
+
+        Dispatcher(List<BlockingQueue<long[]>> queues, Instant start) {
+            this.queues = queues;
+            this.batches = new long[threads][BATCH_SIZE * 3];
+            this.fill = new int[threads];
+            this.startMillis = start == null ? -1 : start.toEpochMilli();
+        }
+
+        void accept(ReviewEvent event) {
+            int worker = Math.floorMod(Long.hashCode(event.cardKey() * 0x9E3779B97F4A7C15L), threads);
+            long[] batch = batches[worker];
+            int i = fill[worker];
+            batch[i] = event.cardKey();
+            batch[i + 1] = event.reviewedAtMillis();
+            batch[i + 2] = event.quality();
+            fill[worker] = i + 3;
+            events++;
+            if (fill[worker] == batch.length) {
+                send(worker);
+            }
+        }
+
+        void finish() throws InterruptedException {
+            for (int worker = 0; worker < queues.size(); worker++) {
+                if (fill[worker] > 0) {
+                    send(worker);
+                }
+                queues.get(worker).put(POISON);
+            }
+        }
+
+        private void send(int worker) {
+            long[] batch = fill[worker] == batches[worker].length
+                    ? batches[worker]
+                    : Arrays.copyOf(batches[worker], fill[worker]);
+            try {
+                queues.get(worker).put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Replay interrupted", e);
+            }
+            batches[worker] = new long[BATCH_SIZE * 3];
+            fill[worker] = 0;
+        }
+    }
+
+    /**
+     * Owns the cards of one partition and replays them through every algorithm.
+     */
+    private final class Worker implements Callable<Void> {
+
+        private final BlockingQueue<long[]> queue;
+        private final long startMillis;
+        private final long endMillis;
+        private final SpacedRepetitionAlgorithm[] algos = algorithms.values().toArray(SpacedRepetitionAlgorithm[]::new);
+        private final Map<Long, MemoryState[]> cards = new HashMap<>();
+
+        private final long[] reviews = new long[algos.length];
+        private final long[] retentionSamples = new long[algos.length];
+        private final double[] retentionSum = new double[algos.length];
+        private final long[][] dailyLoad = new long[algos.length][days];
+
+        Worker(BlockingQueue<long[]> queue, long startMillis) {
+            this.queue = queue;
+            this.startMillis = startMillis;
+            this.endMillis = startMillis + days * DAY_MILLIS;
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            RuntimeException failure = null;
+            long[] batch;
+            while ((batch = queue.take()) != POISON) {
+                if (failure != null) {
+                    continue; // keep draining so the dispatcher never blocks on a dead worker
+                }
+                try {
+                    for (int i = 0; i < batch.length; i += 3) {
+                        replay(batch[i], batch[i + 1], (int) batch[i + 2]);
+                    }
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (continuationQuality >= 0) {
+                cards.forEach(this::continueUntilHorizon);
+            }
+            return null;
+        }
+
+        private void replay(long cardKey, long reviewedAtMillis, int quality) {
+            MemoryState[] states = cards.get(cardKey);
+            if (states == null) {
+                states = new MemoryState[algos.length];
+                Instant introduced = Instant.ofEpochMilli(reviewedAtMillis);
+                for (int a = 0; a < algos.length; a++) {
+                    states[a] = MemoryState.initial(introduced);
+                }
+                cards.put(cardKey, states);
+            }
+            for (int a = 0; a < algos.length; a++) {
+                states[a] = review(cardKey, a, states[a], quality);
+            }
+        }
+
+        private void continueUntilHorizon(long cardKey, MemoryState[] states) {
+            for (int a = 0; a < algos.length; a++) {
+                MemoryState state = states[a];
+                for (MemoryState next; (next = review(cardKey, a, state, continuationQuality)) != state; ) {
+                    state = next;
+                }
+                states[a] = state;
+            }
+        }
+
+        /**
+         * Reviews the card some time after the algorithm scheduled it. Reviews past the horizon are not
+         * counted and return the state itself.
+         */
+        private MemoryState review(long cardKey, int a, MemoryState state, int quality) {
+            Instant at = reviewTime(cardKey, state);
+            long millis = at.toEpochMilli();
+            if (millis >= endMillis) {
+                return state;
+            }
+            if (millis >= startMillis) {
+                reviews[a]++;
+                dailyLoad[a][(int) ((millis - startMillis) / DAY_MILLIS)]++;
+                if (state.lastReview() != null) {
+                    retentionSum[a] += algos[a].retrievability(state, at);
+                    retentionSamples[a]++;
+                }
+            }
+            return algos[a].schedule(state, quality, at);
+        }
+
+        private Instant reviewTime(long cardKey, MemoryState state) {
+            Instant due = state.nextReview();
+            if (reviewDelay == 0 || state.lastReview() == null) {
+                return due;
+            }
+            long interval = Math.max(0, due.toEpochMilli() - state.lastReview().toEpochMilli());
+            // uniform in [0, 1) from a mix of card and due date (the SplittableRandom finalizer)
+            long z = (cardKey ^ due.toEpochMilli() * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 31)) * 0x94D049BB133111EBL;
+            double uniform = ((z ^ (z >>> 29)) >>> 11) * 0x1.0p-53;
+            return due.plusMillis((long) (-Math.log1p(-uniform) * reviewDelay * interval));
+        }
+    }
+
+    /**
+     * Command line entry point.
+     * <pre>
+     * java -cp target/classes com.mrtob.srs.simulation.ReplaySimulator \
+     *      [--input=reviews.csv | --synthetic-cards=100000 --reviews-per-card=10 --seed=42] \
+     *      [--days=365] [--threads=N] [--continuation=3] [--review-delay=0.1]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        int days = Integer.parseInt(options.getOrDefault("days", "365"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int continuation = Integer.parseInt(options.getOrDefault("continuation", "3"));
+        double reviewDelay = Double.parseDouble(options.getOrDefault("review-delay", "0.1"));
+
+        ReviewEventSource source;
+        Instant start = null;
+        if (options.containsKey("input")) {
+            source = new CsvReviewEventSource(Path.of(options.get("input")));
+        } else {
+            start = Instant.now().truncatedTo(ChronoUnit.DAYS);
+            source = new SyntheticReviewEventSource(
+                    Long.parseLong(options.getOrDefault("synthetic-cards", "100000")),
+                    Integer.parseInt(options.getOrDefault("reviews-per-card", "10")),
+                    start.toEpochMilli(),
+                    Integer.parseInt(options.getOrDefault("introduction-days", "30")),
+                    Long.parseLong(options.getOrDefault("seed", "42")));
+        }
+
+        Map<String, SpacedRepetitionAlgorithm> algorithms = new LinkedHashMap<>();
+        algorithms.put("sm2", new SM2Algorithm());
+        algorithms.put("fsrs", new FSRSAlgorithm());
+
+        long began = System.nanoTime();
+        SimulationReport report = new ReplaySimulator(algorithms, threads, days, continuation, reviewDelay)
+                .run(source, start);
+        print(report, Duration.ofNanos(System.nanoTime() - began), System.out);
+    }
+
+    static void print(SimulationReport report, Duration elapsed, PrintStream out) {
+        out.printf("Replayed %,d events for %,d cards in %d ms (%d days from %s)%n",
+                report.events(), report.cards(), elapsed.toMillis(), report.days(), report.start());
+        out.printf("Reviews are late by %.0f%% of their interval on average; FSRS measures elapsed time from "
+                + "the due date, so reviews on time would not grow its stability%n", report.reviewDelay() * 100);
+        out.printf("%-10s %14s %12s %12s %12s%n", "algorithm", "reviews", "retention", "avg/day", "peak/day");
+        for (SimulationReport.AlgorithmResult result : report.results()) {
+            out.printf("%-10s %,14d %11.2f%% %,12d %,12d%n",
+                    result.algorithm(), result.reviews(), result.meanRetention() * 100,
+                    result.reviews() / Math.max(1, report.days()), result.peakDailyLoad());
+        }
+        out.println();
+        out.println("day," + String.join(",", report.results().stream().map(SimulationReport.AlgorithmResult::algorithm).toList()));
+        for (int day = 0; day < report.days(); day++) {
+            StringBuilder line = new StringBuilder().append(day);
+            for (SimulationReport.AlgorithmResult result : report.results()) {
+                line.append(',').append(result.dailyLoad()[day]);
+            }
+            out.println(line);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.mrtob.srs.simulation;
+
+/**
+ * One recorded review: which card, when (epoch millis) and with which 0-5 quality score.
+ * Kept primitive so tens of millions of events can be streamed without boxing.
+ */
+public record ReviewEvent(long cardKey, long reviewedAtMillis, int quality) {
+}
@@ -0,0 +1,14 @@
+package com.mrtob.srs.simulation;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * A stream of review events. Events of the same card must arrive in chronological order;
+ * events of different cards may be interleaved arbitrarily.
+ */
+@FunctionalInterface
+public interface ReviewEventSource {
+
+    void forEach(Consumer<ReviewEvent> consumer) throws IOException;
+}
@@ -0,0 +1,40 @@
+package com.mrtob.srs.simulation;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Result of a replay: one {@link AlgorithmResult} per algorithm, over the same cards and horizon.
+ *
+ * @param reviewDelay mean lateness of a review as a fraction of its interval
+ */
+public record SimulationReport(
+        Instant start,
+        int days,
+        long cards,
+        long events,
+        double reviewDelay,
+        List<AlgorithmResult> results
+) {
+
+    /**
+     * @param reviews            reviews the algorithm scheduled inside the horizon (server workload)
+     * @param meanRetention      mean predicted recall probability at review time, first reviews excluded
+     * @param dailyLoad          reviews per day of the horizon
+     */
+    public record AlgorithmResult(
+            String algorithm,
+            long reviews,
+            double meanRetention,
+            long[] dailyLoad
+    ) {
+
+        public long peakDailyLoad() {
+            long peak = 0;
+            for (long load : dailyLoad) {
+                peak = Math.max(peak, load);
+            }
+            return peak;
+        }
+    }
+}
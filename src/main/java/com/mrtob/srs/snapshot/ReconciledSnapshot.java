@@ -0,0 +1,76 @@
+package com.mrtob.srs.snapshot;
+
+import com.mrtob.srs.repository.SchedulingSnapshotRepository;
+import com.mrtob.srs.repository.SchedulingState;
+
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A {@link SchedulingSnapshot} brought up to date with the changes made since it was taken.
+ * <p>
+ * Rows of changed or deleted cards are masked out of the mapped file, and the current state of
+ * changed cards is kept on the heap, so only the delta is ever materialized.
+ */
+public final class ReconciledSnapshot {
+
+    private final SchedulingSnapshot snapshot;
+    private final BitSet superseded;
+    private final List<SchedulingState> changed;
+
+    ReconciledSnapshot(SchedulingSnapshot snapshot, SchedulingSnapshotRepository.Changes changes) {
+        this.snapshot = snapshot;
+        this.superseded = new BitSet(snapshot.size());
+        this.changed = changes.changed();
+        for (SchedulingState state : changes.changed()) {
+            supersede(state.id());
+        }
+        for (UUID id : changes.deleted()) {
+            supersede(id);
+        }
+    }
+
+    private void supersede(UUID id) {
+        int row = snapshot.indexOf(id);
+        if (row >= 0) {
+            superseded.set(row);
+        }
+    }
+
+    public Instant asOf() {
+        return snapshot.asOf();
+    }
+
+    /**
+     * Number of cards.
+     */
+    public int size() {
+        return snapshot.size() - superseded.cardinality() + changed.size();
+    }
+
+    /**
+     * Number of cards whose state came from the database rather than the snapshot.
+     */
+    public int changedCount() {
+        return changed.size();
+    }
+
+    /**
+     * Number of cards per hour of {@code nextReview}, keyed by hours since the epoch; the same result as
+     * {@link com.mrtob.srs.repository.SchedulingStateRepository#countByNextReviewHour()}.
+     */
+    public Map<Long, Long> countByNextReviewHour() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (int row = superseded.nextClearBit(0); row < snapshot.size(); row = superseded.nextClearBit(row + 1)) {
+            counts.merge(snapshot.nextReviewHour(row), 1L, Long::sum);
+        }
+        for (SchedulingState state : changed) {
+            counts.merge(Math.floorDiv(state.nextReview().getEpochSecond(), 3600), 1L, Long::sum);
+        }
+        return counts;
+    }
+}
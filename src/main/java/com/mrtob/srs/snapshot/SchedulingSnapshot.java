@@ -0,0 +1,204 @@
+package com.mrtob.srs.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-only, memory-mapped view of a scheduling snapshot file.
+ * <p>
+ * The file is columnar and fixed-width, so opening it maps the columns without reading them, and
+ * a row is found by index or by binary search over the sorted ids:
+ * <pre>
+ * header   64 bytes   magic, version, asOf (epoch micros), row count
+ * id       2 x long   most/least significant bits, sorted as Postgres sorts UUIDs
+ * nextReview  long    epoch micros
+ * stability   double
+ * difficulty  double
+ * intervalDays, repetitions, learningStep   int each
+ * </pre>
+ * All values are little-endian. Columns are mapped separately, so each stays within the 2 GiB limit of
+ * a mapping on its own.
+ */
+public final class SchedulingSnapshot {
+
+    /** {@code "SRSSNAP1"} read as a little-endian long. */
+    static final long MAGIC = 0x3150414E53535253L;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+
+    static final int ID_MSB = 0;
+    static final int ID_LSB = 1;
+    static final int NEXT_REVIEW = 2;
+    static final int STABILITY = 3;
+    static final int DIFFICULTY = 4;
+    static final int INTERVAL_DAYS = 5;
+    static final int REPETITIONS = 6;
+    static final int LEARNING_STEP = 7;
+
+    private static final int[] COLUMN_WIDTHS = {8, 8, 8, 8, 8, 4, 4, 4};
+    private static final long MICROS_PER_HOUR = 3_600_000_000L;
+
+    private final Instant asOf;
+    private final int size;
+    private final LongBuffer idMsb;
+    private final LongBuffer idLsb;
+    private final LongBuffer nextReview;
+    private final DoubleBuffer stability;
+    private final DoubleBuffer difficulty;
+    private final IntBuffer intervalDays;
+    private final IntBuffer repetitions;
+    private final IntBuffer learningStep;
+
+    private SchedulingSnapshot(FileChannel channel, Instant asOf, int size) throws IOException {
+        this.asOf = asOf;
+        this.size = size;
+        this.idMsb = map(channel, ID_MSB, size).asLongBuffer();
+        this.idLsb = map(channel, ID_LSB, size).asLongBuffer();
+        this.nextReview = map(channel, NEXT_REVIEW, size).asLongBuffer();
+        this.stability = map(channel, STABILITY, size).asDoubleBuffer();
+        this.difficulty = map(channel, DIFFICULTY, size).asDoubleBuffer();
+        this.intervalDays = map(channel, INTERVAL_DAYS, size).asIntBuffer();
+        this.repetitions = map(channel, REPETITIONS, size).asIntBuffer();
+        this.learningStep = map(channel, LEARNING_STEP, size).asIntBuffer();
+    }
+
+    /**
+     * Maps a snapshot file. The mappings stay valid after the file is replaced by a newer snapshot.
+     *
+     * @throws IOException if the file cannot be read or is not a complete snapshot
+     */
+    public static SchedulingSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a scheduling snapshot: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getLong(0) != MAGIC) {
+                throw new IOException("Not a scheduling snapshot: " + path);
+            }
+            if (header.getInt(8) != VERSION) {
+                throw new IOException("Unsupported scheduling snapshot version " + header.getInt(8) + ": " + path);
+            }
+            long count = header.getLong(24);
+            if (count < 0 || count > Integer.MAX_VALUE || channel.size() != fileSize((int) count)) {
+                throw new IOException("Truncated scheduling snapshot: " + path);
+            }
+            return new SchedulingSnapshot(channel, fromMicros(header.getLong(16)), (int) count);
+        }
+    }
+
+    public Instant asOf() {
+        return asOf;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public UUID id(int row) {
+        return new UUID(idMsb.get(row), idLsb.get(row));
+    }
+
+    public Instant nextReview(int row) {
+        return fromMicros(nextReview.get(row));
+    }
+
+    public double stability(int row) {
+        return stability.get(row);
+    }
+
+    public double difficulty(int row) {
+        return difficulty.get(row);
+    }
+
+    public int intervalDays(int row) {
+        return intervalDays.get(row);
+    }
+
+    public int repetitions(int row) {
+        return repetitions.get(row);
+    }
+
+    public int learningStep(int row) {
+        return learningStep.get(row);
+    }
+
+    /**
+     * Hour of {@code nextReview} since the epoch, without creating an {@link Instant}.
+     */
+    long nextReviewHour(int row) {
+        return Math.floorDiv(nextReview.get(row), MICROS_PER_HOUR);
+    }
+
+    /**
+     * Binary search over the id column.
+     *
+     * @return the row of {@code id}, or {@code -1} if the snapshot does not contain it
+     */
+    public int indexOf(UUID id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(idMsb.get(mid), idLsb.get(mid), id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares UUIDs the way Postgres does: bytewise, i.e. both halves unsigned. {@link UUID#compareTo}
+     * compares them signed and would disagree with {@code ORDER BY id}.
+     */
+    static int compare(long msb, long lsb, UUID other) {
+        int cmp = Long.compareUnsigned(msb, other.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(lsb, other.getLeastSignificantBits());
+    }
+
+    static long fileSize(int count) {
+        return columnOffset(COLUMN_WIDTHS.length, count);
+    }
+
+    static long columnOffset(int column, int count) {
+        long offset = HEADER_BYTES;
+        for (int i = 0; i < column; i++) {
+            offset += (long) COLUMN_WIDTHS[i] * count;
+        }
+        return offset;
+    }
+
+    static long columnBytes(int column, int count) {
+        return (long) COLUMN_WIDTHS[column] * count;
+    }
+
+    static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1000);
+    }
+
+    static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000);
+    }
+
+    private static ByteBuffer map(FileChannel channel, int column, int count) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                columnOffset(column, count), columnBytes(column, count));
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
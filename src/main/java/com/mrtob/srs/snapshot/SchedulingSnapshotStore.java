@@ -0,0 +1,123 @@
+package com.mrtob.srs.snapshot;
+
+import com.mrtob.srs.config.SnapshotProperties;
+import com.mrtob.srs.repository.SchedulingSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a local {@link SchedulingSnapshot} of all cards, so a restarting replica can warm-start its
+ * in-memory indexes from a memory-mapped file plus a delta query instead of scanning {@code cards}.
+ * <p>
+ * A background thread exports a new snapshot every {@code interval}, and once more on shutdown. Exports
+ * stream through a fixed-size fetch window and never hold all cards in memory.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulingSnapshotStore {
+
+    private final SchedulingSnapshotRepository repository;
+    private final SnapshotProperties properties;
+
+    private ScheduledExecutorService writer;
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        writer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("snapshot-writer").factory());
+        long intervalMillis = properties.interval().toMillis();
+        writer.scheduleWithFixedDelay(this::writeQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The last snapshot, reconciled with everything that changed since.
+     *
+     * @return empty if snapshots are disabled, or there is no usable snapshot: missing, unreadable or older
+     * than {@code max-age}
+     */
+    public Optional<ReconciledSnapshot> load() {
+        if (!properties.enabled()) {
+            return Optional.empty();
+        }
+        SchedulingSnapshot snapshot;
+        try {
+            snapshot = SchedulingSnapshot.open(properties.path());
+        } catch (NoSuchFileException e) {
+            log.info("No scheduling snapshot at {}", properties.path());
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Ignoring scheduling snapshot: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        Duration age = Duration.between(snapshot.asOf(), Instant.now());
+        if (age.compareTo(properties.maxAge()) > 0) {
+            log.info("Ignoring scheduling snapshot from {}: older than {}", snapshot.asOf(), properties.maxAge());
+            return Optional.empty();
+        }
+        ReconciledSnapshot reconciled = new ReconciledSnapshot(snapshot,
+                repository.findChangesSince(snapshot.asOf().minus(properties.reconcileMargin())));
+        log.info("Loaded scheduling snapshot from {}: {} cards, {} changed since", snapshot.asOf(),
+                reconciled.size(), reconciled.changedCount());
+        return Optional.of(reconciled);
+    }
+
+    /**
+     * Exports all cards into a new snapshot, replacing the previous one.
+     */
+    synchronized void write() throws IOException {
+        Path target = properties.path();
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = parent.resolve(target.getFileName() + ".tmp");
+        long started = System.nanoTime();
+        try (SchedulingSnapshotWriter snapshot = new SchedulingSnapshotWriter(temporary)) {
+            repository.export(snapshot);
+            snapshot.commit(target);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.debug("Wrote scheduling snapshot in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException | DataAccessException | IllegalStateException e) {
+            log.warn("Writing the scheduling snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeQuietly();
+    }
+}
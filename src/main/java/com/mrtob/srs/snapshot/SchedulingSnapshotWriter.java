@@ -0,0 +1,113 @@
+package com.mrtob.srs.snapshot;
+
+import com.mrtob.srs.repository.SchedulingSnapshotRepository;
+import com.mrtob.srs.repository.SchedulingState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mrtob.srs.snapshot.SchedulingSnapshot.*;
+
+/**
+ * Writes a {@link SchedulingSnapshot} file from an export.
+ * <p>
+ * Rows go straight into memory-mapped columns of a temporary file, which {@link #commit} moves over
+ * the target atomically, so readers only ever see complete snapshots.
+ */
+final class SchedulingSnapshotWriter implements SchedulingSnapshotRepository.Export, AutoCloseable {
+
+    private final Path temporary;
+    private final List<MappedByteBuffer> mappings = new ArrayList<>();
+    private FileChannel channel;
+    private Instant asOf;
+    private int count;
+    private int written;
+    private ByteBuffer[] columns;
+    private long lastMsb;
+    private long lastLsb;
+
+    SchedulingSnapshotWriter(Path temporary) {
+        this.temporary = temporary;
+    }
+
+    @Override
+    public void begin(Instant asOf, int count) throws IOException {
+        this.asOf = asOf;
+        this.count = count;
+        channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        columns = new ByteBuffer[LEARNING_STEP + 1];
+        for (int column = 0; column < columns.length; column++) {
+            columns[column] = map(columnOffset(column, count), columnBytes(column, count));
+        }
+    }
+
+    @Override
+    public void row(SchedulingState state) {
+        if (written == count) {
+            throw new IllegalStateException("More rows than announced: " + count);
+        }
+        long msb = state.id().getMostSignificantBits();
+        long lsb = state.id().getLeastSignificantBits();
+        if (written > 0 && compare(lastMsb, lastLsb, state.id()) >= 0) {
+            throw new IllegalStateException("Rows out of id order at " + state.id());
+        }
+        lastMsb = msb;
+        lastLsb = lsb;
+
+        columns[ID_MSB].putLong(msb);
+        columns[ID_LSB].putLong(lsb);
+        columns[NEXT_REVIEW].putLong(toMicros(state.nextReview()));
+        columns[STABILITY].putDouble(state.stability());
+        columns[DIFFICULTY].putDouble(state.difficulty());
+        columns[INTERVAL_DAYS].putInt(state.intervalDays());
+        columns[REPETITIONS].putInt(state.repetitions());
+        columns[LEARNING_STEP].putInt(state.learningStep());
+        written++;
+    }
+
+    /**
+     * Writes the header, flushes the file to disk and moves it to {@code target}.
+     */
+    void commit(Path target) throws IOException {
+        if (written != count) {
+            throw new IllegalStateException("Expected " + count + " rows, got " + written);
+        }
+        ByteBuffer header = map(0, HEADER_BYTES);
+        header.putLong(MAGIC).putInt(VERSION).putInt(0).putLong(toMicros(asOf)).putLong(count);
+        for (MappedByteBuffer mapping : mappings) {
+            mapping.force();
+        }
+        channel.close();
+        channel = null;
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Closes the file; an uncommitted temporary file is deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.deleteIfExists(temporary);
+    }
+
+    private ByteBuffer map(long offset, long size) throws IOException {
+        MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, offset, size);
+        mappings.add(mapping);
+        return mapping.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
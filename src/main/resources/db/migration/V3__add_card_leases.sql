@@ -0,0 +1,6 @@
+-- Review session leases: a leased card is skipped by other sessions until leased_until has passed
+ALTER TABLE cards ADD COLUMN lease_owner UUID;
+ALTER TABLE cards ADD COLUMN leased_until TIMESTAMPTZ;
+
+-- Renewing and releasing all leases of a session
+CREATE INDEX idx_cards_lease_owner ON cards (lease_owner) WHERE lease_owner IS NOT NULL;
@@ -0,0 +1,7 @@
+-- Time of the previous review, needed to compute retrievability in SQL
+ALTER TABLE cards ADD COLUMN last_review TIMESTAMPTZ;
+
+-- FSRS schedules graduated cards round(stability) days (at least one) after their last review
+UPDATE cards
+SET last_review = next_review - make_interval(days => greatest(1, round(stability)::int))
+WHERE stability > 0 AND learning_step = -1;
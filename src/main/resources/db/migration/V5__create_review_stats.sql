@@ -0,0 +1,36 @@
+-- Append-only review history; source of truth for rebuilding the rollups below
+CREATE TABLE review_log
+(
+    id             BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    card_id        UUID             NOT NULL,
+    reviewed_at    TIMESTAMPTZ      NOT NULL,
+    quality        SMALLINT         NOT NULL,
+    mature         BOOLEAN          NOT NULL, -- card was in the review phase (true retention)
+    retrievability DOUBLE PRECISION NOT NULL, -- predicted recall probability at review time
+    stability      DOUBLE PRECISION NOT NULL, -- after the review
+    interval_days  INT              NOT NULL  -- scheduled interval after the review, in whole days
+);
+
+CREATE INDEX idx_review_log_reviewed_at ON review_log (reviewed_at);
+
+-- Per-day (UTC) aggregates, maintained incrementally with additive upserts
+CREATE TABLE review_stats_daily
+(
+    day                DATE PRIMARY KEY,
+    reviews            BIGINT           NOT NULL,
+    passed             BIGINT           NOT NULL,
+    mature_reviews     BIGINT           NOT NULL,
+    mature_passed      BIGINT           NOT NULL,
+    retrievability_sum DOUBLE PRECISION NOT NULL,
+    stability_sum      DOUBLE PRECISION NOT NULL,
+    interval_days_sum  BIGINT           NOT NULL
+);
+
+-- Reviews per day and scheduled-interval bucket (see DailyRollup.INTERVAL_BUCKETS)
+CREATE TABLE review_interval_histogram
+(
+    day     DATE     NOT NULL,
+    bucket  SMALLINT NOT NULL,
+    reviews BIGINT   NOT NULL,
+    PRIMARY KEY (day, bucket)
+);
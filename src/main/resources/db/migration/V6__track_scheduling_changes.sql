@@ -0,0 +1,46 @@
+-- When the scheduling columns of a card last changed, for reconciling scheduling snapshots.
+-- Existing rows count as changed now. A now() default is evaluated once, so the table is not rewritten.
+ALTER TABLE cards ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+CREATE INDEX idx_cards_updated_at ON cards (updated_at);
+
+-- clock_timestamp() rather than now(): the time of the change, not of the transaction start
+CREATE FUNCTION cards_touch_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at := clock_timestamp();
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+-- Lease and content updates leave updated_at alone; only scheduling changes matter to snapshots
+CREATE TRIGGER cards_scheduling_changed
+    BEFORE UPDATE ON cards
+    FOR EACH ROW
+    WHEN (OLD.next_review IS DISTINCT FROM NEW.next_review
+        OR OLD.stability IS DISTINCT FROM NEW.stability
+        OR OLD.difficulty IS DISTINCT FROM NEW.difficulty
+        OR OLD.learning_step IS DISTINCT FROM NEW.learning_step
+        OR OLD.interval_days IS DISTINCT FROM NEW.interval_days
+        OR OLD.repetitions IS DISTINCT FROM NEW.repetitions)
+    EXECUTE FUNCTION cards_touch_updated_at();
+
+-- Deleted cards, so snapshots can drop them; pruned once older than any usable snapshot
+CREATE TABLE card_tombstones (
+    id         UUID PRIMARY KEY,
+    deleted_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_card_tombstones_deleted_at ON card_tombstones (deleted_at);
+
+CREATE FUNCTION cards_record_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO card_tombstones (id, deleted_at) VALUES (OLD.id, clock_timestamp())
+    ON CONFLICT (id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+    RETURN OLD;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER cards_deleted
+    AFTER DELETE ON cards
+    FOR EACH ROW
+    EXECUTE FUNCTION cards_record_tombstone();
@@ -0,0 +1,7 @@
+-- SHA-256 of the normalized front and back, for duplicate detection on create and import.
+-- Existing cards are hashed by ContentHashBackfill (migration 7.1) in Java: SQL lower() and \s treat
+-- non-ASCII text differently from ContentHash.
+ALTER TABLE cards ADD COLUMN content_hash BYTEA;
+
+-- Not unique: the ALLOW policy keeps deliberate duplicates
+CREATE INDEX idx_cards_content_hash ON cards (content_hash);
@@ -0,0 +1,7 @@
+-- Whether the scheduling algorithm counted the review as recalled (SM-2: quality >= 3, FSRS: above Again).
+-- Earlier reviews were rolled up as "anything but Again" and keep that reading.
+ALTER TABLE review_log ADD COLUMN passed BOOLEAN;
+
+UPDATE review_log SET passed = quality > 1;
+
+ALTER TABLE review_log ALTER COLUMN passed SET NOT NULL;
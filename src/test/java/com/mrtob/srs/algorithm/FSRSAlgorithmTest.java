@@ -0,0 +1,86 @@
+package com.mrtob.srs.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FSRSAlgorithmTest {
+
+    private final FSRSAlgorithm algorithm = new FSRSAlgorithm();
+    private final Instant now = Instant.parse("2025-01-15T10:00:00Z");
+
+    @Test
+    void schedule_newCardGood_advancesLearningStep() {
+        MemoryState next = algorithm.schedule(MemoryState.initial(now), Rating.GOOD.quality(), now);
+
+        assertThat(next.learningStep()).isEqualTo(1);
+        assertThat(next.stability()).isEqualTo(2.4);
+        assertThat(next.nextReview()).isEqualTo(now.plus(10, ChronoUnit.MINUTES));
+    }
+
+    @Test
+    void schedule_newCardEasy_graduates() {
+        MemoryState next = algorithm.schedule(MemoryState.initial(now), Rating.EASY.quality(), now);
+
+        assertThat(next.learningStep()).isEqualTo(-1);
+        assertThat(next.nextReview()).isAfterOrEqualTo(now.plus(1, ChronoUnit.DAYS));
+    }
+
+    @Test
+    void previewAll_matchesScheduleForEveryRating() {
+        MemoryState state = new MemoryState(2.5, 0, 0, 12.0, 5.0, -1, now.minus(3, ChronoUnit.DAYS), null);
+
+        Map<Rating, MemoryState> previews = algorithm.previewAll(state, now);
+
+        assertThat(previews).containsOnlyKeys(Rating.values());
+        for (Rating rating : Rating.values()) {
+            assertThat(previews.get(rating)).isEqualTo(algorithm.schedule(state, rating.quality(), now));
+        }
+        assertThat(previews.get(Rating.AGAIN).nextReview()).isBefore(previews.get(Rating.GOOD).nextReview());
+        assertThat(previews.get(Rating.GOOD).nextReview()).isBeforeOrEqualTo(previews.get(Rating.EASY).nextReview());
+    }
+
+    @Test
+    void schedule_measuresElapsedTimeFromDueDate_notLastReview() {
+        // due 3 days ago, last reviewed 20 days ago: R = 0.972 from the due date, 0.848 from the last review
+        MemoryState state = new MemoryState(2.5, 0, 0, 12.0, 5.0, -1, now.minus(3, ChronoUnit.DAYS),
+                now.minus(20, ChronoUnit.DAYS));
+        MemoryState unknownLastReview = new MemoryState(2.5, 0, 0, 12.0, 5.0, -1, now.minus(3, ChronoUnit.DAYS), null);
+
+        MemoryState next = algorithm.schedule(state, Rating.GOOD.quality(), now);
+
+        assertThat(next.stability()).isCloseTo(18.077, within(0.001)); // 46.906 if measured from lastReview
+        assertThat(next.nextReview()).isEqualTo(now.plus(18, ChronoUnit.DAYS));
+        assertThat(next.lastReview()).isEqualTo(now);
+        assertThat(algorithm.schedule(unknownLastReview, Rating.GOOD.quality(), now).nextReview())
+                .isEqualTo(next.nextReview());
+        assertThat(algorithm.previewAll(state, now).get(Rating.GOOD)).isEqualTo(next);
+    }
+
+    @Test
+    void retrievability_measuresFromLastReview_fallingBackToDueDate() {
+        MemoryState state = new MemoryState(2.5, 0, 0, 12.0, 5.0, -1, now.minus(3, ChronoUnit.DAYS),
+                now.minus(20, ChronoUnit.DAYS));
+        MemoryState unknownLastReview = new MemoryState(2.5, 0, 0, 12.0, 5.0, -1, now.minus(3, ChronoUnit.DAYS), null);
+
+        assertThat(algorithm.retrievability(state, now)).isCloseTo(0.848, within(0.001));
+        assertThat(algorithm.retrievability(unknownLastReview, now)).isCloseTo(0.972, within(0.001));
+    }
+
+    @Test
+    void schedule_isPure() {
+        MemoryState state = new MemoryState(2.5, 0, 0, 12.0, 5.0, -1, now.minus(3, ChronoUnit.DAYS), null);
+        MemoryState copy = new MemoryState(2.5, 0, 0, 12.0, 5.0, -1, now.minus(3, ChronoUnit.DAYS), null);
+
+        MemoryState first = algorithm.schedule(state, 3, now);
+        MemoryState second = algorithm.schedule(state, 3, now);
+
+        assertThat(state).isEqualTo(copy);
+        assertThat(first).isEqualTo(second);
+    }
+}
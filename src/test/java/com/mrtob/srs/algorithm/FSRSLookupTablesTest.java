@@ -0,0 +1,98 @@
+package com.mrtob.srs.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Property tests: over random states, {@link FSRSAlgorithm.Precision#TABLES} schedules like
+ * {@link FSRSAlgorithm.Precision#EXACT} within {@link FSRSLookupTables#MAX_RELATIVE_ERROR}.
+ */
+class FSRSLookupTablesTest {
+
+    private static final int SAMPLES = 200_000;
+    private static final double EPSILON = FSRSLookupTables.MAX_RELATIVE_ERROR;
+
+    private final FSRSAlgorithm exact = new FSRSAlgorithm(FSRSAlgorithm.Precision.EXACT);
+    private final FSRSAlgorithm tables = new FSRSAlgorithm(FSRSAlgorithm.Precision.TABLES);
+    private final Instant now = Instant.parse("2025-01-15T10:00:00Z");
+
+    @Test
+    void schedule_stabilityWithinBoundAndDueDayOnlyDiffersAtRoundingEdge() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            MemoryState state = randomState(random);
+            int quality = random.nextInt(6);
+
+            MemoryState expected = exact.schedule(state, quality, now);
+            MemoryState actual = tables.schedule(state, quality, now);
+
+            assertThat(actual.stability()).as("stability of %s, quality %d", state, quality)
+                    .isCloseTo(expected.stability(), within(expected.stability() * EPSILON));
+            assertThat(actual.difficulty()).isEqualTo(expected.difficulty());
+            assertThat(actual.learningStep()).isEqualTo(expected.learningStep());
+            if (expected.nextReview().isBefore(now.plus(1, ChronoUnit.DAYS))) {
+                assertThat(actual.nextReview()).isEqualTo(expected.nextReview()); // learning step
+            } else {
+                assertThat(days(actual)).as("due days of %s, quality %d", state, quality).isBetween(
+                        intervalDays(expected.stability() * (1 - EPSILON)),
+                        intervalDays(expected.stability() * (1 + EPSILON)));
+            }
+        }
+    }
+
+    @Test
+    void retrievability_matchesPowerCurve() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < SAMPLES; i++) {
+            MemoryState state = randomState(random);
+
+            double expected = exact.retrievability(state, now);
+            assertThat(tables.retrievability(state, now)).isCloseTo(expected, within(expected * 1e-15));
+        }
+    }
+
+    @Test
+    void powerTable_matchesMathPowOverAllMagnitudes() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (double exponent : new double[]{-0.14, -0.05, 0.34}) {
+            FSRSLookupTables.PowerTable table = new FSRSLookupTables.PowerTable(exponent);
+            for (int i = 0; i < SAMPLES; i++) {
+                double x = Math.pow(10, random.nextDouble(-300, 300));
+                double expected = Math.pow(x, exponent);
+                assertThat(table.pow(x)).isCloseTo(expected, within(expected * 1e-7));
+            }
+            assertThat(table.pow(1)).isEqualTo(1);
+            assertThat(table.pow(Double.MIN_VALUE)).isEqualTo(Math.pow(Double.MIN_VALUE, exponent));
+        }
+    }
+
+    /**
+     * States in review or learning: stability log-uniform over 0.01 to 100 000 days, the due date
+     * log-uniform over 0.001 to 1000 stabilities ago, so retrievability covers about 0.06 to 1.
+     */
+    private MemoryState randomState(SplittableRandom random) {
+        double stability = Math.pow(10, random.nextDouble(-2, 5));
+        double difficulty = random.nextDouble(1, 10);
+        int learningStep = random.nextInt(4) == 0 ? random.nextInt(2) : -1;
+        long elapsedHours = (long) (Math.pow(10, random.nextDouble(-3, 3)) * stability * 24);
+        Instant due = now.minus(Duration.ofHours(elapsedHours));
+        return new MemoryState(2.5, 0, 0, stability, difficulty, learningStep,
+                due, due.minus((long) Math.ceil(stability), ChronoUnit.DAYS));
+    }
+
+    private long days(MemoryState state) {
+        return Duration.between(now, state.nextReview()).toDays();
+    }
+
+    /** The exact algorithm's interval for a stability, in whole days. */
+    private static long intervalDays(double stability) {
+        return Math.max(1, Math.round(stability));
+    }
+}
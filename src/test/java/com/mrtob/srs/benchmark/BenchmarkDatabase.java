@@ -0,0 +1,53 @@
+package com.mrtob.srs.benchmark;
+
+import org.junit.jupiter.api.Assumptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Connection to the database used by benchmarks.
+ * <p>
+ * Reads {@code DB_URL}, {@code POSTGRES_USER} and {@code POSTGRES_PASSWORD} from the environment,
+ * falling back to the {@code .env} file the application uses in the dev profile.
+ * Benchmarks are skipped when no database is configured.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    static Connection connect() throws SQLException {
+        Properties env = loadDotEnv();
+        String url = setting("DB_URL", env);
+        Assumptions.assumeTrue(url != null, "DB_URL not set — skipping benchmark");
+        return DriverManager.getConnection(url, setting("POSTGRES_USER", env), setting("POSTGRES_PASSWORD", env));
+    }
+
+    static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(name, defaultValue);
+    }
+
+    private static String setting(String name, Properties dotEnv) {
+        String value = System.getenv(name);
+        return value != null ? value : dotEnv.getProperty(name);
+    }
+
+    private static Properties loadDotEnv() {
+        Properties properties = new Properties();
+        Path file = Path.of(".env");
+        if (Files.exists(file)) {
+            try (var reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read .env", e);
+            }
+        }
+        return properties;
+    }
+}
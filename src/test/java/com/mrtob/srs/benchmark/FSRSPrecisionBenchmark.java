@@ -0,0 +1,96 @@
+package com.mrtob.srs.benchmark;
+
+import com.mrtob.srs.algorithm.FSRSAlgorithm;
+import com.mrtob.srs.algorithm.MemoryState;
+import com.mrtob.srs.algorithm.Rating;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Time per {@code previewAll} (retrievability plus four schedules, as on every due-card response) with
+ * exact FSRS math versus lookup tables, and how often the two disagree on a due date.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=FSRSPrecisionBenchmark -Dbenchmark.states=1000000}.
+ * Needs no database.
+ */
+@Tag("benchmark")
+class FSRSPrecisionBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    @Test
+    void compareExactAndTables() {
+        int count = BenchmarkDatabase.intProperty("benchmark.states", 1_000_000);
+        Instant now = Instant.parse("2025-01-15T10:00:00Z");
+        MemoryState[] states = states(count, now);
+        FSRSAlgorithm exact = new FSRSAlgorithm(FSRSAlgorithm.Precision.EXACT);
+        FSRSAlgorithm tables = new FSRSAlgorithm(FSRSAlgorithm.Precision.TABLES);
+
+        double exactNanos = 0;
+        double tablesNanos = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            // round 0 warms up both paths
+            double e = run(exact, states, now);
+            double t = run(tables, states, now);
+            if (round > 0) {
+                exactNanos += e / ROUNDS;
+                tablesNanos += t / ROUNDS;
+            }
+        }
+
+        long differentDays = 0;
+        for (MemoryState state : states) {
+            Map<Rating, MemoryState> expected = exact.previewAll(state, now);
+            Map<Rating, MemoryState> actual = tables.previewAll(state, now);
+            for (Rating rating : Rating.values()) {
+                if (!expected.get(rating).nextReview().equals(actual.get(rating).nextReview())) {
+                    differentDays++;
+                }
+            }
+        }
+
+        System.out.printf("%n%-7s %16s %14s%n", "math", "previewAll (ns)", "previews/s");
+        System.out.printf("%-7s %16.1f %,14.0f%n", "exact", exactNanos, 1e9 / exactNanos);
+        System.out.printf("%-7s %16.1f %,14.0f%n", "tables", tablesNanos, 1e9 / tablesNanos);
+        System.out.printf("speedup %.2fx; %,d of %,d due dates differ by a day%n", exactNanos / tablesNanos,
+                differentDays, (long) count * Rating.values().length);
+    }
+
+    /**
+     * @return mean nanoseconds per {@code previewAll}
+     */
+    private static double run(FSRSAlgorithm algorithm, MemoryState[] states, Instant now) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (MemoryState state : states) {
+            checksum += algorithm.previewAll(state, now).get(Rating.GOOD).nextReview().getEpochSecond();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum == 42) {
+            System.out.println(); // keeps the results alive
+        }
+        return (double) elapsed / states.length;
+    }
+
+    /**
+     * Graduated cards with log-normal stability (median 20 days), reviewed around when due.
+     */
+    private static MemoryState[] states(int count, Instant now) {
+        SplittableRandom random = new SplittableRandom(42);
+        MemoryState[] states = new MemoryState[count];
+        for (int i = 0; i < count; i++) {
+            double stability = Math.max(0.1, Math.exp(Math.log(20) + 1.2 * random.nextGaussian()));
+            double difficulty = Math.clamp(5 + 1.5 * random.nextGaussian(), 1, 10);
+            Instant lastReview = now.minus(Duration.ofMinutes((long) (stability * random.nextDouble(0.5, 1.5) * 1440)));
+            states[i] = new MemoryState(2.5, 0, 0, stability, difficulty, -1,
+                    lastReview.plus(Math.round(stability), ChronoUnit.DAYS), lastReview);
+        }
+        return states;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mrtob.srs.benchmark;
+
+import com.mrtob.srs.algorithm.SpacedRepetitionAlgorithm;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.observability.StatementCounter;
+import com.mrtob.srs.repository.CardRepository;
+import com.mrtob.srs.service.ReviewService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Review latency of the entity path (load the whole card, {@code save} every column) versus the
+ * lean path of {@link ReviewService} (read scheduling columns, one {@code UPDATE ... RETURNING}).
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=ReviewPathBenchmark -Dbenchmark.reviews=20000 -Dbenchmark.textBytes=4000}.
+ * Creates its own cards with {@code textBytes} of front/back text each and deletes them afterwards.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "srs.review.write-behind.enabled=false"
+})
+class ReviewPathBenchmark {
+
+    private static final int CARDS = 1000;
+    private static final int QUALITY = 3;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private SpacedRepetitionAlgorithm algorithm;
+
+    private List<UUID> ids;
+
+    @BeforeAll
+    static void requireDatabase() throws Exception {
+        try (Connection ignored = BenchmarkDatabase.connect()) {
+            // skips the class when no database is configured, before the context starts
+        }
+    }
+
+    @Test
+    void compareEntityAndLeanPath() {
+        int reviews = BenchmarkDatabase.intProperty("benchmark.reviews", 20_000);
+        int textBytes = BenchmarkDatabase.intProperty("benchmark.textBytes", 4_000);
+        ids = createCards(textBytes);
+
+        Result entity;
+        Result lean;
+        try {
+            entity = run("entity", reviews, id -> {
+                Card card = cardRepository.findById(id).orElseThrow();
+                cardRepository.save(algorithm.review(card, QUALITY));
+            });
+            lean = run("lean", reviews, id -> reviewService.review(id, QUALITY));
+        } finally {
+            cardRepository.deleteAllByIdInBatch(ids);
+        }
+
+        System.out.printf("%n%-7s %10s %10s %10s %10s %12s%n", "path", "mean (µs)", "p50 (µs)", "p99 (µs)", "reviews/s", "statements");
+        for (Result result : new Result[]{entity, lean}) {
+            System.out.printf("%-7s %10.0f %10d %10d %10.0f %12.1f%n", result.name, result.meanMicros,
+                    result.p50Micros, result.p99Micros, 1_000_000 / result.meanMicros, result.statementsPerReview);
+        }
+    }
+
+    private List<UUID> createCards(int textBytes) {
+        String text = "x".repeat(textBytes);
+        List<Card> cards = new ArrayList<>(CARDS);
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(Card.builder().front(text).back(text).nextReview(Instant.now()).build());
+        }
+        return cardRepository.saveAll(cards).stream().map(Card::getId).toList();
+    }
+
+    private Result run(String name, int reviews, Consumer<UUID> review) {
+        Random random = new Random(42);
+        for (int i = 0; i < reviews / 10; i++) {
+            review.accept(ids.get(random.nextInt(ids.size())));
+        }
+
+        long[] micros = new long[reviews];
+        int statements;
+        try (StatementCounter.Scope scope = StatementCounter.open()) {
+            for (int i = 0; i < reviews; i++) {
+                UUID id = ids.get(random.nextInt(ids.size()));
+                long start = System.nanoTime();
+                review.accept(id);
+                micros[i] = (System.nanoTime() - start) / 1000;
+            }
+            statements = scope.count();
+        }
+        Arrays.sort(micros);
+        return new Result(name, Arrays.stream(micros).average().orElse(0), micros[reviews / 2],
+                micros[(int) (reviews * 0.99)], (double) statements / reviews);
+    }
+
+    private record Result(String name, double meanMicros, long p50Micros, long p99Micros, double statementsPerReview) {}
+}
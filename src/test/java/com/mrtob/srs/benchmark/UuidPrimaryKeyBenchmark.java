@@ -0,0 +1,83 @@
+package com.mrtob.srs.benchmark;
+
+import com.mrtob.srs.entity.TimeOrderedUuid;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput and primary-key index size with random (v4) versus time-ordered (v7) ids.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=UuidPrimaryKeyBenchmark -Dbenchmark.rows=3000000}.
+ * Uses unlogged scratch tables shaped like {@code cards} and drops them afterwards.
+ */
+@Tag("benchmark")
+class UuidPrimaryKeyBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Test
+    void compareV4AndV7() throws Exception {
+        int rows = BenchmarkDatabase.intProperty("benchmark.rows", 2_000_000);
+
+        try (Connection connection = BenchmarkDatabase.connect()) {
+            Result v4 = run(connection, "bench_uuid_v4", rows, UUID::randomUUID);
+            Result v7 = run(connection, "bench_uuid_v7", rows, TimeOrderedUuid::next);
+
+            System.out.printf("%n%-4s %12s %14s %16s %10s%n", "ids", "rows", "rows/s", "pkey size (MB)", "leaf fill");
+            for (Result result : new Result[]{v4, v7}) {
+                System.out.printf("%-4s %,12d %,14.0f %16.1f %9.0f%%%n", result.name, rows,
+                        rows / (result.millis / 1000.0), result.indexBytes / 1048576.0, result.leafFill);
+            }
+        }
+    }
+
+    private Result run(Connection connection, String table, int rows, Supplier<UUID> ids) throws Exception {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            ddl.execute("CREATE UNLOGGED TABLE " + table + " (id UUID PRIMARY KEY, front TEXT NOT NULL, "
+                    + "back TEXT NOT NULL, next_review TIMESTAMPTZ NOT NULL DEFAULT now())");
+        }
+
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, front, back) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setObject(1, ids.get());
+                insert.setString(2, "Question " + i);
+                insert.setString(3, "Answer " + i);
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        connection.setAutoCommit(true);
+
+        long indexBytes;
+        double leafFill;
+        try (Statement stats = connection.createStatement()) {
+            try (ResultSet rs = stats.executeQuery("SELECT pg_relation_size('" + table + "_pkey')")) {
+                rs.next();
+                indexBytes = rs.getLong(1);
+            }
+            // Approximate density without extensions: tuples × (16 byte uuid + 8 byte header + 4 byte line pointer)
+            leafFill = 100.0 * rows * 28 / indexBytes;
+            stats.execute("DROP TABLE " + table);
+        }
+        return new Result(table.substring(table.lastIndexOf('_') + 1), millis, indexBytes, leafFill);
+    }
+
+    private record Result(String name, long millis, long indexBytes, double leafFill) {}
+}
@@ -0,0 +1,190 @@
+package com.mrtob.srs.cluster;
+
+import com.mrtob.srs.config.ClusterProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterChangeBusTest {
+
+    private static final Instant DUE = Instant.parse("2025-01-15T10:20:00Z");
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    private ClusterChangeBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new ClusterChangeBus(dataSource, jdbcTemplate, events, properties("srs_card_changes"));
+    }
+
+    @Test
+    void encode_roundTripsThroughReceive() {
+        List<CardChange> changes = List.of(
+                new CardChange(null, DUE),
+                new CardChange(DUE, DUE.plusSeconds(3600)),
+                new CardChange(DUE, null));
+
+        List<String> payloads = ClusterChangeBus.encode("other-node", changes);
+        assertThat(payloads).hasSize(1);
+
+        bus.receive(payloads.getFirst());
+
+        verify(events).publishEvent(new RemoteCardChanges(changes));
+    }
+
+    @Test
+    void encode_splitsLargeBatchesBelowNotifyLimit() {
+        List<CardChange> changes = Collections.nCopies(1000, new CardChange(DUE, DUE.plusSeconds(60)));
+
+        List<String> payloads = ClusterChangeBus.encode("node", changes);
+
+        assertThat(payloads).hasSizeGreaterThan(1)
+                .allSatisfy(payload -> assertThat(payload).startsWith("node\n")
+                        .hasSizeLessThanOrEqualTo(ClusterChangeBus.MAX_PAYLOAD_BYTES));
+        assertThat(payloads.stream().mapToLong(payload -> payload.lines().count() - 1).sum()).isEqualTo(1000);
+    }
+
+    @Test
+    void encode_emptyBatch_sendsNothing() {
+        assertThat(ClusterChangeBus.encode("node", List.of())).isEmpty();
+    }
+
+    @Test
+    void receive_ignoresOwnNotifications() {
+        bus.receive(ClusterChangeBus.encode(bus.nodeId(), List.of(new CardChange(null, DUE))).getFirst());
+
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void receive_skipsMalformedPayloads() {
+        bus.receive("other-node\n1736936400000");
+        bus.receive("other-node\nx,1736936400000");
+
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void publish_whenNotStarted_isNoOp() {
+        bus.publish(null, DUE);
+        bus.send();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void send_failure_requeuesUnsentChanges() throws Exception {
+        connectListener();
+        bus = new ClusterChangeBus(dataSource, jdbcTemplate, events,
+                new ClusterProperties(true, "srs_card_changes", Duration.ofHours(1), Duration.ofMinutes(5)));
+        List<CardChange> changes = List.of(new CardChange(null, DUE), new CardChange(DUE, null));
+        String payload = ClusterChangeBus.encode(bus.nodeId(), changes).getFirst();
+        doThrow(new DataAccessResourceFailureException("down")).doNothing().when(jdbcTemplate)
+                .query(eq(NOTIFY), any(RowCallbackHandler.class), eq("srs_card_changes"), eq(payload));
+        bus.start();
+        try {
+            verify(events, timeout(2000)).publishEvent(any(ClusterResync.class));
+            changes.forEach(change -> bus.publish(change.from(), change.to()));
+
+            assertThatThrownBy(bus::send).isInstanceOf(DataAccessException.class);
+            bus.send();
+        } finally {
+            bus.stop();
+        }
+
+        verify(jdbcTemplate, times(2))
+                .query(eq(NOTIFY), any(RowCallbackHandler.class), eq("srs_card_changes"), eq(payload));
+    }
+
+    @Test
+    void listen_resyncsAfterFirstListen() throws Exception {
+        connectListener();
+        bus.start();
+        try {
+            verify(events, timeout(2000)).publishEvent(any(ClusterResync.class));
+        } finally {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void listen_failingHandlers_resyncAndKeepListening() throws Exception {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter())
+                .thenReturn(ClusterChangeBus.encode("other-node", List.of(new CardChange(null, DUE))).getFirst());
+        connectListener(null, new PGNotification[]{notification});
+        doThrow(new DataAccessResourceFailureException("pool exhausted")).doNothing()
+                .when(events).publishEvent(any(ClusterResync.class));
+        doThrow(new IllegalStateException("handler bug")).when(events).publishEvent(any(RemoteCardChanges.class));
+        bus.start();
+        try {
+            // failed first resync retried, then a resync for the change that could not be applied
+            verify(events, timeout(2000).times(3)).publishEvent(any(ClusterResync.class));
+            verify(events).publishEvent(any(RemoteCardChanges.class));
+        } finally {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void rejectsChannelThatIsNotAnIdentifier() {
+        assertThatThrownBy(() -> new ClusterChangeBus(dataSource, jdbcTemplate, events, properties("x; DROP TABLE cards")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Connects the listener to a mocked Postgres connection that returns the given poll results, then nothing.
+     */
+    private void connectListener(PGNotification[]... polls) throws SQLException {
+        Connection connection = mock(Connection.class);
+        PGConnection pg = mock(PGConnection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pg);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        AtomicInteger poll = new AtomicInteger();
+        when(pg.getNotifications(anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(10); // stands in for the poll timeout
+            int index = poll.getAndIncrement();
+            return index < polls.length ? polls[index] : null;
+        });
+    }
+
+    private static ClusterProperties properties(String channel) {
+        return new ClusterProperties(true, channel, Duration.ofMillis(20), Duration.ofMinutes(5));
+    }
+}
@@ -0,0 +1,83 @@
+package com.mrtob.srs.cluster;
+
+import com.mrtob.srs.config.ClusterProperties;
+import com.mrtob.srs.config.SnapshotProperties;
+import com.mrtob.srs.config.StatsProperties;
+import com.mrtob.srs.repository.CardLeaseRepository;
+import com.mrtob.srs.repository.ReviewStatsRepository;
+import com.mrtob.srs.repository.SchedulingSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MaintenanceJobsTest {
+
+    @Mock
+    private ClusterJobs clusterJobs;
+
+    @Mock
+    private CardLeaseRepository leases;
+
+    @Mock
+    private SchedulingSnapshotRepository snapshots;
+
+    @Mock
+    private ReviewStatsRepository reviewStats;
+
+    @BeforeEach
+    void runJobsInline() {
+        when(clusterJobs.runExclusive(anyString(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+    }
+
+    @Test
+    void runAll_prunesReviewLogPastRetention() {
+        Instant before = Instant.now().minus(Duration.ofDays(30));
+
+        jobs(Duration.ofDays(30)).runAll();
+
+        verify(reviewStats).pruneLog(argThat(cutoff -> !cutoff.isBefore(before)
+                && cutoff.isBefore(before.plusSeconds(60))));
+    }
+
+    @Test
+    void runAll_zeroRetention_keepsReviewLog() {
+        jobs(Duration.ZERO).runAll();
+
+        verify(clusterJobs).runExclusive(eq("prune-review-log"), any());
+        verifyNoInteractions(reviewStats);
+    }
+
+    @Test
+    void runAll_failedJob_doesNotSkipTheOthers() {
+        when(leases.releaseExpired(any())).thenThrow(new DataAccessResourceFailureException("down"));
+        when(snapshots.pruneTombstones(any())).thenThrow(new IllegalStateException("bug"));
+
+        jobs(Duration.ofDays(30)).runAll();
+
+        verify(reviewStats).pruneLog(any());
+    }
+
+    private MaintenanceJobs jobs(Duration logRetention) {
+        return new MaintenanceJobs(clusterJobs, leases,
+                new ClusterProperties(true, "srs_card_changes", Duration.ofMillis(20), Duration.ofMinutes(5)),
+                snapshots,
+                new SnapshotProperties(false, Path.of("unused"), Duration.ofMinutes(15), Duration.ofDays(7),
+                        Duration.ofMinutes(1)),
+                reviewStats,
+                new StatsProperties(true, Duration.ofSeconds(1), 100, logRetention));
+    }
+}
@@ -0,0 +1,29 @@
+package com.mrtob.srs.config;
+
+import com.mrtob.srs.observability.StatementCountingDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PersistenceConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(PersistenceConfig.class)
+            .withBean(DataSource.class, () -> mock(DataSource.class));
+
+    @Test
+    void wrapsDataSourceWhileBudgetIsSet() {
+        contextRunner.run(context ->
+                assertThat(context.getBean(DataSource.class)).isInstanceOf(StatementCountingDataSource.class));
+    }
+
+    @Test
+    void budgetZero_leavesDataSourceUnwrapped() {
+        contextRunner.withPropertyValues("srs.statements.budget-per-request=0").run(context ->
+                assertThat(context.getBean(DataSource.class)).isNotInstanceOf(StatementCountingDataSource.class));
+    }
+}
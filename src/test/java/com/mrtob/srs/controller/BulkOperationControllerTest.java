@@ -0,0 +1,93 @@
+package com.mrtob.srs.controller;
+
+import com.mrtob.srs.repository.CardFilter;
+import com.mrtob.srs.service.BulkJob;
+import com.mrtob.srs.service.BulkOperation;
+import com.mrtob.srs.service.BulkOperationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BulkOperationController.class)
+class BulkOperationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BulkOperationService bulkService;
+
+    private final UUID jobId = UUID.randomUUID();
+
+    @Test
+    void submit_returns202WithQueuedJob() throws Exception {
+        BulkJob job = job(BulkOperation.Type.POSTPONE, BulkJob.Status.QUEUED, 0);
+        when(bulkService.submit(new BulkOperation(BulkOperation.Type.POSTPONE,
+                new CardFilter(null, null, Instant.parse("2025-03-01T00:00:00Z"), CardFilter.State.REVIEW), 2, 0.1)))
+                .thenReturn(job);
+
+        mockMvc.perform(post("/cards/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"operation": "POSTPONE", "days": 2, "stabilityFraction": 0.1,
+                                 "filter": {"dueTo": "2025-03-01T00:00:00Z", "state": "REVIEW"}}
+                                """))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(jobId.toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void submit_withoutOperation_returns400() throws Exception {
+        mockMvc.perform(post("/cards/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\": {\"search\": \"x\"}}"))
+                .andExpect(status().isBadRequest());
+
+        verify(bulkService, never()).submit(any());
+    }
+
+    @Test
+    void status_returnsProgress_or404() throws Exception {
+        BulkJob job = job(BulkOperation.Type.DELETE, BulkJob.Status.RUNNING, 1500);
+        when(bulkService.find(jobId)).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/cards/bulk/{id}", jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.operation").value("DELETE"))
+                .andExpect(jsonPath("$.affected").value(1500));
+        mockMvc.perform(get("/cards/bulk/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void cancel_returns202() throws Exception {
+        BulkJob job = job(BulkOperation.Type.RESET, BulkJob.Status.RUNNING, 10);
+        when(bulkService.cancel(jobId)).thenReturn(Optional.of(job));
+
+        mockMvc.perform(delete("/cards/bulk/{id}", jobId))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    private BulkJob job(BulkOperation.Type type, BulkJob.Status status, long affected) {
+        BulkJob job = mock(BulkJob.class);
+        when(job.id()).thenReturn(jobId);
+        when(job.operation()).thenReturn(new BulkOperation(type, new CardFilter(null, null, null, null), 0, 0));
+        when(job.status()).thenReturn(status);
+        when(job.affected()).thenReturn(affected);
+        return job;
+    }
+}
@@ -1,19 +1,29 @@
 package com.mrtob.srs.controller;
 
 import tools.jackson.databind.ObjectMapper;
+import com.mrtob.srs.algorithm.Rating;
 import com.mrtob.srs.dto.CardCreateRequest;
+import com.mrtob.srs.dto.CardImportRequest;
 import com.mrtob.srs.dto.CardMapper;
 import com.mrtob.srs.dto.CardResponse;
 import com.mrtob.srs.dto.CardUpdateRequest;
+import com.mrtob.srs.dto.DueCardResponse;
+import com.mrtob.srs.dto.ReviewPreview;
 import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.repository.DueOrder;
+import com.mrtob.srs.service.CardCountEstimator;
 import com.mrtob.srs.service.CardService;
+import com.mrtob.srs.service.DueCountIndex;
+import com.mrtob.srs.service.DuplicatePolicy;
 import com.mrtob.srs.service.ReviewService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,6 +33,9 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -42,6 +55,12 @@ class CardControllerTest {
     @MockitoBean
     private ReviewService reviewService;
 
+    @MockitoBean
+    private DueCountIndex dueCountIndex;
+
+    @MockitoBean
+    private CardCountEstimator cardCountEstimator;
+
     @MockitoBean
     private CardMapper cardMapper;
 
@@ -53,7 +72,7 @@ class CardControllerTest {
         Card card = buildCard();
         CardResponse response = buildResponse();
 
-        when(cardService.create(any(CardCreateRequest.class))).thenReturn(card);
+        when(cardService.create(any(CardCreateRequest.class), isNull())).thenReturn(new CardService.Created(card, false));
         when(cardMapper.toResponse(card)).thenReturn(response);
 
         mockMvc.perform(post("/cards")
@@ -73,6 +92,48 @@ class CardControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void create_mergedDuplicate_returns200WithExistingCard() throws Exception {
+        Card card = buildCard();
+        when(cardService.create(any(CardCreateRequest.class), eq(DuplicatePolicy.MERGE)))
+                .thenReturn(new CardService.Created(card, true));
+        when(cardMapper.toResponse(card)).thenReturn(buildResponse());
+
+        mockMvc.perform(post("/cards")
+                        .param("duplicates", "MERGE")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CardCreateRequest(" q ", "A"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(cardId.toString()));
+    }
+
+    @Test
+    void importCards_returnsCountsAndIdsInRequestOrder() throws Exception {
+        UUID created = UUID.randomUUID();
+        when(cardService.importAll(anyList(), eq(DuplicatePolicy.MERGE)))
+                .thenReturn(new CardService.Imported(List.of(created, cardId), 1, 1));
+
+        mockMvc.perform(post("/cards/import")
+                        .param("duplicates", "MERGE")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CardImportRequest(List.of(
+                                new CardCreateRequest("New", "A"), new CardCreateRequest("Q", "A"))))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.ids[1]").value(cardId.toString()));
+    }
+
+    @Test
+    void importCards_returns400ForInvalidCard() throws Exception {
+        mockMvc.perform(post("/cards/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CardImportRequest(List.of(
+                                new CardCreateRequest("Q", ""))))))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(cardService);
+    }
+
     @Test
     void list_returnsPagedCards() throws Exception {
         Card card = buildCard();
@@ -104,17 +165,50 @@ class CardControllerTest {
     }
 
     @Test
-    void due_returnsDueCards() throws Exception {
+    void due_returnsDueCardsWithPreviews() throws Exception {
         Card card = buildCard();
-        CardResponse response = buildResponse();
+        Instant inTenMinutes = now.plusSeconds(600);
+        DueCardResponse response = new DueCardResponse(cardId, "Q", "A", now, now,
+                List.of(new ReviewPreview(Rating.AGAIN, 0, inTenMinutes)));
 
         when(cardService.findDueCards()).thenReturn(List.of(card));
-        when(cardMapper.toResponseList(List.of(card))).thenReturn(List.of(response));
+        when(cardMapper.toDueResponse(eq(card), any())).thenReturn(response);
 
         mockMvc.perform(get("/cards/due"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].id").value(cardId.toString()))
+                .andExpect(jsonPath("$[0].previews[0].rating").value("AGAIN"))
+                .andExpect(jsonPath("$[0].previews[0].quality").value(0));
+    }
+
+    @Test
+    void due_withOrder_returnsFirstRankedCards() throws Exception {
+        Card card = buildCard();
+        DueCardResponse response = new DueCardResponse(cardId, "Q", "A", now, now, List.of());
+
+        when(cardService.findFirstDue(DueOrder.RETRIEVABILITY, 1000)).thenReturn(List.of(card));
+        when(cardMapper.toDueResponse(eq(card), any())).thenReturn(response);
+
+        mockMvc.perform(get("/cards/due").param("order", "RETRIEVABILITY").param("limit", "5000"))
+                .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(cardId.toString()));
+
+        verify(cardService, never()).findDueCards();
+    }
+
+    @Test
+    void dueCounts_returnsBucketsFromIndex() throws Exception {
+        Instant nextHour = now.plusSeconds(3600);
+        DueCountIndex.Snapshot snapshot = new DueCountIndex.Snapshot(now, 12,
+                List.of(new DueCountIndex.Bucket(now, nextHour, 3)));
+        when(dueCountIndex.snapshot(any(Instant.class), eq(DueCountIndex.Granularity.HOUR), eq(1)))
+                .thenReturn(snapshot);
+
+        mockMvc.perform(get("/cards/due/counts").param("granularity", "HOUR").param("buckets", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dueNow").value(12))
+                .andExpect(jsonPath("$.buckets[0].count").value(3));
     }
 
     @Test
@@ -139,6 +233,51 @@ class CardControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void listSlice_approximate_usesEstimateWithoutPageCount() throws Exception {
+        Card card = buildCard();
+        when(cardService.findSlice(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(card), PageRequest.of(0, 1), true));
+        when(cardMapper.toResponse(card)).thenReturn(buildResponse());
+        when(cardCountEstimator.total(CardCountEstimator.Mode.APPROXIMATE, null)).thenReturn(1_200_000L);
+
+        mockMvc.perform(get("/cards").param("size", "1").param("total", "APPROXIMATE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(cardId.toString()))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.total").value(1_200_000))
+                .andExpect(jsonPath("$.totalMode").value("APPROXIMATE"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        verify(cardService, never()).findAll(any());
+    }
+
+    @Test
+    void listSlice_lastPage_reportsExactTotalWithoutCounting() throws Exception {
+        Card card = buildCard();
+        when(cardService.searchSlice(eq("capital"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(card), PageRequest.of(2, 10), false));
+        when(cardMapper.toResponse(card)).thenReturn(buildResponse());
+
+        mockMvc.perform(get("/cards").param("page", "2").param("search", " capital ").param("total", "EXACT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.total").value(21))
+                .andExpect(jsonPath("$.totalMode").value("EXACT"));
+        verifyNoInteractions(cardCountEstimator);
+    }
+
+    @Test
+    void listSlice_none_omitsTotal() throws Exception {
+        when(cardService.findSlice(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+        when(cardCountEstimator.total(CardCountEstimator.Mode.NONE, null)).thenReturn(null);
+
+        mockMvc.perform(get("/cards").param("total", "NONE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").isEmpty())
+                .andExpect(jsonPath("$.totalMode").value("NONE"));
+    }
+
     @Test
     void review_returnsReviewedCard() throws Exception {
         Card card = buildCard();
@@ -0,0 +1,59 @@
+package com.mrtob.srs.controller;
+
+import com.mrtob.srs.observability.FlightRecorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = FlightRecorderController.class, properties = "srs.jfr.endpoint-enabled=true")
+class FlightRecorderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private FlightRecorder flightRecorder;
+
+    @Test
+    void dump_streamsRecordingAndDeletesTempFile(@TempDir Path dir) throws Exception {
+        Path file = Files.writeString(dir.resolve("dump.jfr"), "FLR");
+        when(flightRecorder.dump()).thenReturn(file);
+
+        MvcResult result = mockMvc.perform(get("/admin/jfr"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", endsWith(".jfr\"")))
+                .andExpect(content().string("FLR"));
+
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void dump_withoutRecording_returns404() throws Exception {
+        when(flightRecorder.dump()).thenThrow(new IllegalStateException("No JFR recording is running"));
+
+        mockMvc.perform(get("/admin/jfr")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void start_returns201WhenStarted() throws Exception {
+        when(flightRecorder.start()).thenReturn(true);
+
+        mockMvc.perform(post("/admin/jfr")).andExpect(status().isCreated());
+    }
+}
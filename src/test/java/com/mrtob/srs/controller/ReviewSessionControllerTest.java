@@ -0,0 +1,100 @@
+package com.mrtob.srs.controller;
+
+import com.mrtob.srs.dto.CardMapper;
+import com.mrtob.srs.dto.CardResponse;
+import com.mrtob.srs.dto.DueCardResponse;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.service.ReviewService;
+import com.mrtob.srs.service.ReviewSession;
+import com.mrtob.srs.service.ReviewSessionService;
+import com.mrtob.srs.service.SessionReview;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReviewSessionController.class)
+class ReviewSessionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReviewSessionService sessionService;
+
+    @MockitoBean
+    private ReviewService reviewService;
+
+    @MockitoBean
+    private CardMapper cardMapper;
+
+    private final UUID sessionId = UUID.randomUUID();
+    private final UUID cardId = UUID.randomUUID();
+    private final Instant now = Instant.now();
+
+    @Test
+    void start_returns201WithLeasedCards() throws Exception {
+        Card card = buildCard();
+        when(sessionService.start(5)).thenReturn(new ReviewSession(sessionId, now, List.of(card)));
+        when(reviewService.preview(eq(card), any())).thenReturn(Map.of());
+        when(cardMapper.toDueResponse(eq(card), any())).thenReturn(buildDueResponse());
+
+        mockMvc.perform(post("/sessions").param("size", "5"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sessionId").value(sessionId.toString()))
+                .andExpect(jsonPath("$.cards[0].id").value(cardId.toString()));
+    }
+
+    @Test
+    void review_returnsReviewedAndNextCard() throws Exception {
+        Card reviewed = buildCard();
+        Card next = buildCard();
+        when(sessionService.review(sessionId, cardId, 3)).thenReturn(new SessionReview(reviewed, next, now));
+        when(cardMapper.toResponse(reviewed)).thenReturn(new CardResponse(cardId, "Q", "A", now, now));
+        when(cardMapper.toDueResponse(eq(next), any())).thenReturn(buildDueResponse());
+
+        mockMvc.perform(post("/sessions/{sessionId}/cards/{cardId}/review", sessionId, cardId).param("quality", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reviewed.id").value(cardId.toString()))
+                .andExpect(jsonPath("$.next.front").value("Q"));
+    }
+
+    @Test
+    void review_cardNotLeased_returns409() throws Exception {
+        when(sessionService.review(sessionId, cardId, 3))
+                .thenThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Card is not leased to this session"));
+
+        mockMvc.perform(post("/sessions/{sessionId}/cards/{cardId}/review", sessionId, cardId).param("quality", "3"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void end_returns204AndReleasesLeases() throws Exception {
+        mockMvc.perform(delete("/sessions/{sessionId}", sessionId))
+                .andExpect(status().isNoContent());
+
+        verify(sessionService).end(sessionId);
+    }
+
+    private Card buildCard() {
+        return Card.builder().id(cardId).front("Q").back("A").nextReview(now).build();
+    }
+
+    private DueCardResponse buildDueResponse() {
+        return new DueCardResponse(cardId, "Q", "A", now, now, List.of());
+    }
+}
@@ -0,0 +1,64 @@
+package com.mrtob.srs.controller;
+
+import com.mrtob.srs.repository.DailyRollup;
+import com.mrtob.srs.service.ReviewStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StatsController.class)
+class StatsControllerTest {
+
+    private static final LocalDate FROM = LocalDate.parse("2025-01-01");
+    private static final LocalDate TO = LocalDate.parse("2025-01-07");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReviewStatsService statsService;
+
+    @Test
+    void reviews_returnsRatesAndMeansPerDayAndTotal() throws Exception {
+        long[] histogram = new long[DailyRollup.INTERVAL_BUCKETS.length + 1];
+        histogram[0] = 1;
+        histogram[3] = 3;
+        DailyRollup day = new DailyRollup(FROM.plusDays(2), 4, 3, 2, 1, 3.2, 20, 20, histogram);
+        when(statsService.daily(FROM, TO)).thenReturn(new ReviewStatsService.Stats(FROM, TO,
+                DailyRollup.empty(FROM).plus(day), List.of(day)));
+
+        mockMvc.perform(get("/stats/reviews").param("from", "2025-01-01").param("to", "2025-01-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.reviews").value(4))
+                .andExpect(jsonPath("$.total.day").value(nullValue()))
+                .andExpect(jsonPath("$.days[0].day").value("2025-01-03"))
+                .andExpect(jsonPath("$.days[0].passRate").value(0.75))
+                .andExpect(jsonPath("$.days[0].trueRetention").value(0.5))
+                .andExpect(jsonPath("$.days[0].meanRetrievability").value(0.8))
+                .andExpect(jsonPath("$.days[0].meanIntervalDays").value(5.0))
+                .andExpect(jsonPath("$.days[0].intervals[3].minDays").value(4))
+                .andExpect(jsonPath("$.days[0].intervals[3].maxDays").value(8))
+                .andExpect(jsonPath("$.days[0].intervals[3].reviews").value(3));
+    }
+
+    @Test
+    void rebuild_whileRunningElsewhere_returns409() throws Exception {
+        when(statsService.rebuild(FROM, TO))
+                .thenThrow(new ResponseStatusException(HttpStatus.CONFLICT, "already running"));
+
+        mockMvc.perform(post("/stats/reviews/rebuild").param("from", "2025-01-01").param("to", "2025-01-07"))
+                .andExpect(status().isConflict());
+    }
+}
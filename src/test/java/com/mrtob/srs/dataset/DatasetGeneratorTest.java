@@ -0,0 +1,44 @@
+package com.mrtob.srs.dataset;
+
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.entity.ContentHash;
+import com.mrtob.srs.repository.ReviewLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatasetGeneratorTest {
+
+    private static final UUID ID = UUID.fromString("01940000-0000-7000-8000-000000000001");
+    private static final Instant NOW = Instant.parse("2025-01-15T10:20:00.123456789Z");
+
+    @Test
+    void appendCard_writesCopyTextRowWithEscapesAndNulls() {
+        Card card = Card.builder()
+                .id(ID)
+                .front("Tab\there?")
+                .back("C:\\path\nnext")
+                .nextReview(NOW)
+                .createdAt(NOW)
+                .build();
+        StringBuilder out = new StringBuilder();
+
+        DatasetGenerator.appendCard(out, card);
+
+        assertThat(out.toString()).isEqualTo(ID + "\tTab\\there?\tC:\\\\path\\nnext\t2.5\t0\t0\t0.0\t0.0\t0\t"
+                + "2025-01-15T10:20:00.123456Z\t\\N\t2025-01-15T10:20:00.123456Z\t\\\\x"
+                + ContentHash.hex(ContentHash.of("Tab\there?", "C:\\path\nnext")) + "\n");
+    }
+
+    @Test
+    void appendReview_writesOneLinePerEntry() {
+        StringBuilder out = new StringBuilder();
+
+        DatasetGenerator.appendReview(out, new ReviewLogEntry(ID, NOW, 3, true, false, 0.9, 12.5, 13));
+
+        assertThat(out.toString()).isEqualTo(ID + "\t2025-01-15T10:20:00.123456Z\t3\ttrue\tfalse\t0.9\t12.5\t13\n");
+    }
+}
@@ -0,0 +1,80 @@
+package com.mrtob.srs.dataset;
+
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.repository.ReviewLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SyntheticDatasetTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-15T10:20:00Z");
+    private static final int CARDS = 20_000;
+
+    private final SyntheticDataset dataset = new SyntheticDataset(CARDS, 5, NOW, 730, 42);
+
+    @Test
+    void generate_isReproducibleAndIndependentOfOrder() {
+        SyntheticDataset.GeneratedCard card = dataset.generate(1234);
+        new SyntheticDataset(CARDS, 5, NOW, 730, 42).generate(9999);
+
+        SyntheticDataset.GeneratedCard again = new SyntheticDataset(CARDS, 5, NOW, 730, 42).generate(1234);
+
+        assertThat(again.card()).usingRecursiveComparison().isEqualTo(card.card());
+        assertThat(again.history()).isEqualTo(card.history());
+        assertThat(new SyntheticDataset(CARDS, 5, NOW, 730, 7).generate(1234).card().getId())
+                .isNotEqualTo(card.card().getId());
+    }
+
+    @Test
+    void generate_idsAscendWithIndex() {
+        assertThat(LongStream.range(0, 1000).mapToObj(i -> dataset.generate(i).card().getId().toString()).toList())
+                .isSorted();
+    }
+
+    @Test
+    void generate_producesProductionShapedDistributions() {
+        List<Card> cards = LongStream.range(0, CARDS).mapToObj(i -> dataset.generate(i).card()).toList();
+
+        long fresh = cards.stream().filter(card -> card.getLastReview() == null).count();
+        List<Card> inReview = cards.stream().filter(card -> card.getLearningStep() == -1).toList();
+        long overdue = inReview.stream().filter(card -> card.getNextReview().isBefore(NOW)).count();
+        double[] stability = inReview.stream().mapToDouble(Card::getStability).sorted().toArray();
+        double[] frontLength = cards.stream().mapToDouble(card -> card.getFront().length()).sorted().toArray();
+
+        assertThat((double) fresh / CARDS).isCloseTo(0.1, within(0.03));
+        assertThat((double) inReview.size() / CARDS).isCloseTo(0.87, within(0.03));
+        assertThat((double) overdue / inReview.size()).isCloseTo(0.13, within(0.03));
+        assertThat(stability[stability.length / 2]).isBetween(15.0, 25.0);
+        assertThat(frontLength[frontLength.length / 2]).isBetween(30.0, 45.0);
+        assertThat(inReview).allSatisfy(card -> {
+            assertThat(card.getDifficulty()).isBetween(1.0, 10.0);
+            assertThat(card.getLastReview()).isBetween(card.getCreatedAt(), NOW);
+        });
+        assertThat(Arrays.stream(stability).max().orElseThrow()).isLessThanOrEqualTo(731);
+    }
+
+    @Test
+    void history_isChronologicalAndEndsWithTheLastReview() {
+        SyntheticDataset.GeneratedCard generated = LongStream.range(CARDS / 2, CARDS)
+                .mapToObj(dataset::generate)
+                .filter(card -> card.card().getLearningStep() == -1)
+                .findFirst()
+                .orElseThrow();
+
+        List<ReviewLogEntry> history = generated.history();
+
+        assertThat(history).hasSize(5);
+        assertThat(history).extracting(ReviewLogEntry::reviewedAt).isSorted();
+        assertThat(history.getFirst().mature()).isFalse();
+        assertThat(history.getLast().reviewedAt()).isEqualTo(generated.card().getLastReview());
+        assertThat(history.getLast().stability()).isEqualTo(generated.card().getStability());
+        assertThat(history).allSatisfy(entry -> assertThat(entry.retrievability()).isBetween(0.0, 1.0));
+    }
+}
@@ -0,0 +1,49 @@
+package com.mrtob.srs.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedUuidTest {
+
+    @Test
+    void next_producesVersion7WithRfcVariant() {
+        UUID id = TimeOrderedUuid.next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void next_isStrictlyIncreasingInPostgresByteOrder() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(TimeOrderedUuid.next());
+        }
+
+        // Postgres compares uuid values as unsigned bytes; the 64 bit msb decides for v7 ids
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(Long.compareUnsigned(ids.get(i - 1).getMostSignificantBits(),
+                    ids.get(i).getMostSignificantBits())).isNegative();
+        }
+    }
+
+    @Test
+    void timestampOf_returnsCreationMillis() {
+        long before = System.currentTimeMillis();
+        UUID id = TimeOrderedUuid.next();
+
+        assertThat(TimeOrderedUuid.timestampOf(id)).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void timestampOf_rejectsRandomIds() {
+        assertThatThrownBy(() -> TimeOrderedUuid.timestampOf(UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,80 @@
+package com.mrtob.srs.observability;
+
+import com.mrtob.srs.config.FlightRecorderProperties;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecorderTest {
+
+    private final FlightRecorder flightRecorder = new FlightRecorder(
+            new FlightRecorderProperties(false, false, "default", Duration.ofMinutes(5), DataSize.ofMegabytes(16)));
+
+    @AfterEach
+    void stop() {
+        flightRecorder.stop();
+    }
+
+    @Test
+    void dump_containsReviewPipelineEvents() throws Exception {
+        assertThat(flightRecorder.start()).isTrue();
+        assertThat(flightRecorder.start()).isFalse();
+
+        UUID cardId = UUID.randomUUID();
+        Instant now = Instant.now();
+        ScheduleEvent event = new ScheduleEvent();
+        event.begin();
+        event.commit(cardId, "FSRSAlgorithm", 3, now, now.plus(Duration.ofDays(4)));
+
+        Path dump = flightRecorder.dump();
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(recorded -> recorded.getEventType().getName().equals("com.mrtob.srs.Schedule"))
+                    .toList();
+            assertThat(events).singleElement().satisfies(recorded -> {
+                assertThat(recorded.getString("cardId")).isEqualTo(cardId.toString());
+                assertThat(recorded.getString("algorithm")).isEqualTo("FSRSAlgorithm");
+                assertThat(recorded.getInt("quality")).isEqualTo(3);
+                assertThat(recorded.getDuration("interval")).isEqualTo(Duration.ofDays(4));
+            });
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    void start_enablesEveryPipelineEvent() throws Exception {
+        flightRecorder.start();
+
+        Recording recording = jdk.jfr.FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(running -> running.getName().equals(FlightRecorder.RECORDING_NAME))
+                .findFirst().orElseThrow();
+        assertThat(FlightRecorder.EVENTS).hasSize(5);
+        for (Class<? extends Event> event : FlightRecorder.EVENTS) {
+            // settings enabled by class are keyed by the event type id, not its name
+            assertThat(recording.getSettings()).as(event.getSimpleName())
+                    .containsEntry(EventType.getEventType(event).getId() + "#enabled", "true");
+        }
+    }
+
+    @Test
+    void dump_withoutRecording_fails() {
+        assertThat(flightRecorder.stop()).isFalse();
+        assertThatThrownBy(flightRecorder::dump).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,32 @@
+package com.mrtob.srs.observability;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test assertions for the number of SQL statements an action issues.
+ * Requires the data source to be wrapped by {@link StatementCountingDataSource}.
+ */
+public final class StatementAssertions {
+
+    private StatementAssertions() {
+    }
+
+    public static <T> T assertStatementsAtMost(int max, Supplier<T> action) {
+        try (StatementCounter.Scope scope = StatementCounter.open()) {
+            T result = action.get();
+            assertThat(scope.count())
+                    .as("SQL statements issued: %s", scope.statements())
+                    .isLessThanOrEqualTo(max);
+            return result;
+        }
+    }
+
+    public static void assertStatementsAtMost(int max, Runnable action) {
+        assertStatementsAtMost(max, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
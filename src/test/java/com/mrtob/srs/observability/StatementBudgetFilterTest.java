@@ -0,0 +1,51 @@
+package com.mrtob.srs.observability;
+
+import com.mrtob.srs.config.StatementBudgetProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class StatementBudgetFilterTest {
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/cards/1/review");
+
+    @Test
+    void overBudget_logsWarningWithStatements(CapturedOutput output) throws Exception {
+        new StatementBudgetFilter(new StatementBudgetProperties(2))
+                .doFilter(request, new MockHttpServletResponse(), (req, res) -> issue(3));
+
+        assertThat(output).contains("POST /cards/1/review issued 3 SQL statements (budget 2): [SELECT 0, SELECT 1, SELECT 2]");
+    }
+
+    @Test
+    void withinBudget_logsNothing(CapturedOutput output) throws Exception {
+        new StatementBudgetFilter(new StatementBudgetProperties(2))
+                .doFilter(request, new MockHttpServletResponse(), (req, res) -> issue(2));
+
+        assertThat(output).doesNotContain("SQL statements");
+    }
+
+    @Test
+    void nestedScopes_bothCount() {
+        try (StatementCounter.Scope outer = StatementCounter.open()) {
+            issue(1);
+            try (StatementCounter.Scope inner = StatementCounter.open()) {
+                issue(2);
+                assertThat(inner.count()).isEqualTo(2);
+            }
+            assertThat(outer.count()).isEqualTo(3);
+        }
+    }
+
+    private static void issue(int statements) {
+        for (int i = 0; i < statements; i++) {
+            StatementCounter.record("SELECT " + i);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.mrtob.srs.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private long now;
+
+    @Test
+    void rejectsAboveLimit_untilReleased() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(5 * MILLIS, 5 * MILLIS);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void shrinksWhenLatencyRises_downToMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 3, 10, 2.0);
+        cycle(limit, 5 * MILLIS);
+
+        for (int i = 0; i < 50; i++) {
+            cycle(limit, 100 * MILLIS);
+        }
+
+        assertThat(limit.limit()).isEqualTo(3);
+    }
+
+    @Test
+    void growsWhenSaturatedAndFast_upToMaximum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, 2.0);
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.tryAcquire();
+            now += 5 * MILLIS;
+            limit.release(5 * MILLIS, now);
+            limit.release(5 * MILLIS, now);
+        }
+
+        assertThat(limit.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void slowRequestsOfOneRoundTrip_shrinkLimitOnce() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 20, 2.0);
+        cycle(limit, 5 * MILLIS);
+
+        // one latency spike seen by every request in flight
+        for (int i = 0; i < 20; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        now += 100 * MILLIS;
+        for (int i = 0; i < 20; i++) {
+            limit.release(100 * MILLIS - i * MILLIS, now + i * MILLIS);
+        }
+        assertThat(limit.limit()).isEqualTo(18);
+
+        // a slow request that started after the decrease is a new signal
+        cycle(limit, 100 * MILLIS);
+        assertThat(limit.limit()).isEqualTo(16);
+    }
+
+    @Test
+    void staysPutWhenUnderused() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 40, 2.0);
+
+        for (int i = 0; i < 100; i++) {
+            cycle(limit, 5 * MILLIS);
+        }
+
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    /** One request that starts now and takes {@code latencyNanos}. */
+    private void cycle(AdaptiveConcurrencyLimit limit, long latencyNanos) {
+        assertThat(limit.tryAcquire()).isTrue();
+        now += latencyNanos;
+        limit.release(latencyNanos, now);
+    }
+}
@@ -0,0 +1,171 @@
+package com.mrtob.srs.ratelimit;
+
+import com.mrtob.srs.config.RateLimitProperties;
+import com.mrtob.srs.config.RateLimitProperties.Limit;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private static final Limit ONE_PER_MINUTE = new Limit(1.0 / 60, 1, 10, 1, 10, 2.0);
+    private static final String TRUSTED_PROXY = "10.0.0.1";
+    private static final Limit SINGLE_SLOT = new Limit(1000, 1000, 1, 1, 1, 2.0);
+
+    @Test
+    void review_overClientRate_returns429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(ONE_PER_MINUTE, ONE_PER_MINUTE, null);
+
+        assertThat(perform(filter, review("10.0.0.1")).getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = perform(filter, review("10.0.0.1"));
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("60");
+    }
+
+    @Test
+    void clientsAreLimitedIndependently() throws Exception {
+        RateLimitFilter filter = filter(ONE_PER_MINUTE, ONE_PER_MINUTE, null);
+
+        perform(filter, review("10.0.0.1"));
+
+        assertThat(perform(filter, review("10.0.0.2")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void clientHeader_identifiesClientBehindTrustedProxy() throws Exception {
+        RateLimitFilter filter = filter(ONE_PER_MINUTE, ONE_PER_MINUTE, "X-Client-Id");
+        MockHttpServletRequest first = review(TRUSTED_PROXY);
+        first.addHeader("X-Client-Id", "a");
+        MockHttpServletRequest second = review(TRUSTED_PROXY);
+        second.addHeader("X-Client-Id", "b");
+
+        perform(filter, first);
+
+        assertThat(perform(filter, second).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void clientHeader_fromUntrustedAddress_isIgnored() throws Exception {
+        RateLimitFilter filter = filter(ONE_PER_MINUTE, ONE_PER_MINUTE, "X-Client-Id");
+        MockHttpServletRequest first = review("198.51.100.7");
+        first.addHeader("X-Client-Id", "a");
+        MockHttpServletRequest spoofed = review("198.51.100.7");
+        spoofed.addHeader("X-Client-Id", "b");
+
+        perform(filter, first);
+
+        assertThat(perform(filter, spoofed).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void defaults_keyByRemoteAddressIgnoringRealIpHeader() throws Exception {
+        // as application.yaml binds them without environment overrides
+        RateLimitFilter filter = new RateLimitFilter(bind(Map.of(
+                "srs.rate-limit.client-header", "",
+                "srs.rate-limit.trusted-proxies", "")));
+        MockHttpServletRequest first = review("203.0.113.9");
+        first.addHeader("X-Real-IP", "203.0.113.1");
+        MockHttpServletRequest spoofed = review("203.0.113.9");
+        spoofed.addHeader("X-Real-IP", "203.0.113.2");
+
+        assertThat(perform(filter, first).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, spoofed).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void trustedProxyBlock_separatesClientsBehindOneProxy() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(bind(Map.of(
+                "srs.rate-limit.client-header", "X-Real-IP",
+                "srs.rate-limit.trusted-proxies", "10.0.0.1, 172.16.0.0/12")));
+        MockHttpServletRequest first = review("172.18.0.5");
+        first.addHeader("X-Real-IP", "203.0.113.1");
+        MockHttpServletRequest second = review("172.18.0.5");
+        second.addHeader("X-Real-IP", "203.0.113.2");
+        MockHttpServletRequest firstAgain = review("172.18.0.5");
+        firstAgain.addHeader("X-Real-IP", "203.0.113.1");
+
+        assertThat(perform(filter, first).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, second).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, firstAgain).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void search_overConcurrencyLimit_isShed() throws Exception {
+        RateLimitFilter filter = filter(SINGLE_SLOT, SINGLE_SLOT, null);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> filter.doFilter(search("10.0.0.2"), nested, new MockFilterChain());
+
+        filter.doFilter(search("10.0.0.1"), new MockHttpServletResponse(), chain);
+
+        assertThat(nested.getStatus()).isEqualTo(429);
+        assertThat(nested.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(perform(filter, search("10.0.0.2")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void unprotectedEndpoints_areNotLimited() throws Exception {
+        RateLimitFilter filter = filter(ONE_PER_MINUTE, ONE_PER_MINUTE, null);
+        MockHttpServletRequest list = new MockHttpServletRequest("GET", "/cards");
+
+        assertThat(filter.limiterFor(list)).isNull();
+        assertThat(filter.limiterFor(new MockHttpServletRequest("GET", "/cards/due"))).isNull();
+        assertThat(filter.limiterFor(search("10.0.0.1"))).isNotNull();
+        assertThat(filter.limiterFor(review("10.0.0.1"))).isNotNull();
+        assertThat(filter.limiterFor(new MockHttpServletRequest("POST",
+                "/sessions/4b1d0c3e-0000-7000-8000-000000000001/cards/4b1d0c3e-0000-7000-8000-000000000002/review")))
+                .isNotNull();
+    }
+
+    @Test
+    void disabled_letsEverythingThrough() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new RateLimitProperties(false, null, List.of(), 100,
+                ONE_PER_MINUTE, ONE_PER_MINUTE));
+
+        perform(filter, review("10.0.0.1"));
+
+        assertThat(perform(filter, review("10.0.0.1")).getStatus()).isEqualTo(200);
+    }
+
+    private static RateLimitFilter filter(Limit review, Limit search, String clientHeader) {
+        return new RateLimitFilter(new RateLimitProperties(true, clientHeader, List.of(TRUSTED_PROXY), 100,
+                review, search));
+    }
+
+    private static RateLimitProperties bind(Map<String, String> properties) {
+        Map<String, String> oncePerMinute = new HashMap<>(properties);
+        oncePerMinute.put("srs.rate-limit.review.permits-per-second", "0.0167");
+        oncePerMinute.put("srs.rate-limit.review.burst", "1");
+        return new Binder(new MapConfigurationPropertySource(oncePerMinute))
+                .bindOrCreate("srs.rate-limit", RateLimitProperties.class);
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest review(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/cards/4b1d0c3e-0000-7000-8000-000000000000/review");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static MockHttpServletRequest search(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cards");
+        request.setParameter("search", "capital");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mrtob.srs.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurst_thenReportsWaitForNextPermit() {
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 2);
+        assertThat(bucket.tryAcquire(SECOND / 2)).isZero();
+    }
+
+    @Test
+    void refillsToBurstOnly_andIsIdleWhenFull() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        bucket.tryAcquire(0);
+
+        assertThat(bucket.isIdle(0)).isFalse();
+        assertThat(bucket.isIdle(SECOND)).isTrue();
+
+        assertThat(bucket.tryAcquire(100 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(100 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(100 * SECOND)).isPositive();
+    }
+
+    @Test
+    void concurrentAcquires_neverExceedBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 50, 0);
+        AtomicInteger granted = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (Future<?> future : IntStream.range(0, 8)
+                    .mapToObj(i -> executor.submit(() -> {
+                        for (int j = 0; j < 100; j++) {
+                            if (bucket.tryAcquire(0) == 0) {
+                                granted.incrementAndGet();
+                            }
+                        }
+                    }))
+                    .toList()) {
+                future.get();
+            }
+        }
+
+        assertThat(granted).hasValue(50);
+    }
+}
@@ -0,0 +1,40 @@
+package com.mrtob.srs.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrustedProxiesTest {
+
+    @Test
+    void contains_matchesAddressesAndCidrBlocks() {
+        TrustedProxies proxies = new TrustedProxies(List.of("10.0.0.1", " 172.16.0.0/12 ", "fd00::/8"));
+
+        assertThat(proxies.contains("10.0.0.1")).isTrue();
+        assertThat(proxies.contains("10.0.0.2")).isFalse();
+        assertThat(proxies.contains("172.31.255.255")).isTrue();
+        assertThat(proxies.contains("172.32.0.0")).isFalse();
+        assertThat(proxies.contains("fd12:3456::1")).isTrue();
+        assertThat(proxies.contains("fe80::1")).isFalse();
+        assertThat(proxies.contains("localhost")).isFalse();
+    }
+
+    @Test
+    void empty_trustsNobody() {
+        TrustedProxies proxies = new TrustedProxies(List.of(""));
+
+        assertThat(proxies.isEmpty()).isTrue();
+        assertThat(proxies.contains("127.0.0.1")).isFalse();
+    }
+
+    @Test
+    void hostnamesAndBadPrefixes_areRejected() {
+        assertThatThrownBy(() -> new TrustedProxies(List.of("nginx")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TrustedProxies(List.of("10.0.0.0/33")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
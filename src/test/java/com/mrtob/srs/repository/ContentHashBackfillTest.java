@@ -0,0 +1,55 @@
+package com.mrtob.srs.repository;
+
+import com.mrtob.srs.entity.ContentHash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentHashBackfillTest {
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement select;
+
+    @Mock
+    private PreparedStatement update;
+
+    @Mock
+    private ResultSet rows;
+
+    @Test
+    void backfill_hashesNonAsciiCardsLikeNewCards() throws Exception {
+        UUID id = UUID.randomUUID();
+        // Capital umlaut, sharp s, no-break, em and ideographic spaces, a fullwidth letter
+        String front = "ÄRGER\u00A0 über\u2003Straße";
+        String back = "\u3000Ａntwort ";
+        when(connection.prepareStatement(startsWith("SELECT"))).thenReturn(select);
+        when(connection.prepareStatement(startsWith("UPDATE"))).thenReturn(update);
+        when(select.executeQuery()).thenReturn(rows);
+        when(rows.next()).thenReturn(true, false);
+        when(rows.getString("front")).thenReturn(front);
+        when(rows.getString("back")).thenReturn(back);
+        when(rows.getObject("id", UUID.class)).thenReturn(id);
+
+        assertThat(ContentHashBackfill.backfill(connection)).isEqualTo(1);
+
+        byte[] expected = ContentHash.of("ärger über straße", "antwort");
+        assertThat(ContentHash.of(front, back)).isEqualTo(expected);
+        verify(update).setBytes(1, expected);
+        verify(update).setObject(2, id);
+        verify(update).executeBatch();
+    }
+}
@@ -0,0 +1,205 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.config.BulkProperties;
+import com.mrtob.srs.config.WriteBehindProperties;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.repository.BulkCardRepository;
+import com.mrtob.srs.repository.BulkCardRepository.Change;
+import com.mrtob.srs.repository.CardFilter;
+import com.mrtob.srs.repository.SchedulingState;
+import com.mrtob.srs.repository.SchedulingStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkOperationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-01T12:00:00Z");
+    private static final CardFilter OVERDUE = new CardFilter(null, null, NOW, CardFilter.State.REVIEW);
+
+    // Postgres orders uuids as unsigned bytes: HIGH comes after LOW although UUID.compareTo says otherwise
+    private static final UUID LOW = UUID.fromString("00000000-0000-7000-8000-000000000001");
+    private static final UUID HIGH = UUID.fromString("f0000000-0000-7000-8000-000000000002");
+    private static final UUID LAST = UUID.fromString("f0000000-0000-7000-8000-000000000003");
+
+    @Mock
+    private BulkCardRepository repository;
+
+    @Mock
+    private SchedulingWriteBehind writeBehind;
+
+    @Mock
+    private DueCountIndex dueCounts;
+
+    @Spy
+    private BulkProperties properties = new BulkProperties(2, 1, Duration.ofHours(1));
+
+    @InjectMocks
+    private BulkOperationService bulkService;
+
+    @BeforeEach
+    void runChunksInline() {
+        lenient().when(writeBehind.exclusively(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
+    @Test
+    void run_walksChunksWithKeysetCursorAndMovesDueCounts() {
+        BulkJob job = job(BulkOperation.Type.POSTPONE, OVERDUE, 1, 0.1);
+        when(repository.postpone(eq(OVERDUE), isNull(), eq(2), any(), eq(1.0), eq(0.1)))
+                .thenReturn(List.of(moved(HIGH), moved(LOW)));
+        when(repository.postpone(eq(OVERDUE), eq(HIGH), eq(2), any(), eq(1.0), eq(0.1)))
+                .thenReturn(List.of(moved(LAST)));
+        when(repository.postpone(eq(OVERDUE), eq(LAST), eq(2), any(), eq(1.0), eq(0.1)))
+                .thenReturn(List.of());
+        when(repository.anyMatching(OVERDUE, LAST)).thenReturn(false);
+
+        bulkService.run(job);
+
+        assertThat(job.status()).isEqualTo(BulkJob.Status.COMPLETED);
+        assertThat(job.affected()).isEqualTo(3);
+        assertThat(job.finishedAt()).isNotNull();
+        verify(writeBehind).flush();
+        verify(dueCounts, times(3)).move(NOW.minusSeconds(3600), NOW.plusSeconds(86400));
+    }
+
+    @Test
+    void run_delete_removesBufferedStateFromDueCounts() {
+        CardFilter filter = new CardFilter("obsolete", null, null, null);
+        BulkJob job = job(BulkOperation.Type.DELETE, filter, 0, 0);
+        Instant buffered = NOW.plusSeconds(600);
+        when(repository.delete(filter, null, 2)).thenReturn(List.of(new Change(LOW, NOW, null)));
+        when(repository.delete(filter, LOW, 2)).thenReturn(List.of());
+        when(repository.anyMatching(filter, LOW)).thenReturn(false);
+        when(writeBehind.discard(LOW)).thenReturn(new SchedulingState(LOW, 2.5, 0, 0, 1, 5, 0, buffered, NOW));
+
+        bulkService.run(job);
+
+        assertThat(job.affected()).isEqualTo(1);
+        verify(dueCounts).remove(buffered);
+    }
+
+    @Test
+    void run_cancelled_stopsBeforeNextChunk() {
+        BulkJob job = job(BulkOperation.Type.RESET, OVERDUE, 0, 0);
+        when(repository.reset(eq(OVERDUE), isNull(), eq(2), any())).thenAnswer(invocation -> {
+            job.cancel();
+            return List.of(moved(LOW), moved(HIGH));
+        });
+
+        bulkService.run(job);
+
+        assertThat(job.status()).isEqualTo(BulkJob.Status.CANCELLED);
+        assertThat(job.affected()).isEqualTo(2);
+        verify(repository, times(1)).reset(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void run_databaseError_failsKeepingProgress() {
+        BulkJob job = job(BulkOperation.Type.RESET, OVERDUE, 0, 0);
+        when(repository.reset(eq(OVERDUE), isNull(), eq(2), any())).thenReturn(List.of(moved(LOW)));
+        when(repository.reset(eq(OVERDUE), eq(LOW), eq(2), any()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        bulkService.run(job);
+
+        assertThat(job.status()).isEqualTo(BulkJob.Status.FAILED);
+        assertThat(job.error()).isEqualTo("down");
+        assertThat(job.affected()).isEqualTo(1);
+    }
+
+    @Test
+    void run_emptyChunkWithCardsLeft_continuesFromSameCursor() {
+        BulkJob job = job(BulkOperation.Type.RESET, OVERDUE, 0, 0);
+        // the first chunk's locked cards were all reviewed concurrently and no longer match
+        when(repository.reset(eq(OVERDUE), isNull(), eq(2), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(moved(LOW)));
+        when(repository.anyMatching(OVERDUE, null)).thenReturn(true);
+        when(repository.reset(eq(OVERDUE), eq(LOW), eq(2), any())).thenReturn(List.of());
+        when(repository.anyMatching(OVERDUE, LOW)).thenReturn(false);
+
+        bulkService.run(job);
+
+        assertThat(job.status()).isEqualTo(BulkJob.Status.COMPLETED);
+        assertThat(job.affected()).isEqualTo(1);
+    }
+
+    @Test
+    void run_unexpectedException_failsJob() {
+        BulkJob job = job(BulkOperation.Type.RESET, OVERDUE, 0, 0);
+        when(repository.reset(eq(OVERDUE), isNull(), eq(2), any())).thenThrow(new IllegalStateException("bug"));
+
+        bulkService.run(job);
+
+        assertThat(job.status()).isEqualTo(BulkJob.Status.FAILED);
+        assertThat(job.error()).contains("bug");
+        assertThat(job.finishedAt()).isNotNull();
+    }
+
+    @Test
+    void run_concurrentFlushCannotWriteDiscardedStateOverChunk() throws Exception {
+        SchedulingStateRepository stateRepository = mock(SchedulingStateRepository.class);
+        SchedulingWriteBehind buffer = new SchedulingWriteBehind(stateRepository,
+                new WriteBehindProperties(true, Duration.ofSeconds(1), 500, 10_000));
+        BulkOperationService service = new BulkOperationService(repository, buffer, dueCounts, properties);
+        BulkJob job = job(BulkOperation.Type.RESET, OVERDUE, 0, 0);
+        Card reviewed = Card.builder().id(LOW).front("f").back("b").nextReview(NOW.plusSeconds(600)).build();
+        Thread flusher = Thread.ofPlatform().unstarted(buffer::flush);
+        when(repository.reset(eq(OVERDUE), isNull(), eq(2), any())).thenAnswer(invocation -> {
+            // a review buffered just before the chunk commits, then the flusher wakes up
+            buffer.stage(reviewed);
+            flusher.start();
+            flusher.join(200);
+            return List.of(moved(LOW));
+        });
+        when(repository.reset(eq(OVERDUE), eq(LOW), eq(2), any())).thenReturn(List.of());
+        when(repository.anyMatching(OVERDUE, LOW)).thenReturn(false);
+
+        service.run(job);
+        flusher.join();
+
+        assertThat(job.status()).isEqualTo(BulkJob.Status.COMPLETED);
+        verify(stateRepository, never()).updateAll(anyCollection());
+        verify(dueCounts).move(NOW.plusSeconds(600), NOW.plusSeconds(86400));
+    }
+
+    @Test
+    void submit_rejectsUnfilteredDeleteAndPostponeWithoutDelay() {
+        CardFilter all = new CardFilter(" ", null, null, null);
+
+        assertThatThrownBy(() -> bulkService.submit(new BulkOperation(BulkOperation.Type.DELETE, all, 0, 0)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("needs a filter");
+        assertThatThrownBy(() -> bulkService.submit(new BulkOperation(BulkOperation.Type.POSTPONE, all, 0, 0)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("positive days");
+        verifyNoInteractions(repository);
+    }
+
+    private static BulkJob job(BulkOperation.Type type, CardFilter filter, double days, double stabilityFraction) {
+        return new BulkJob(new BulkOperation(type, filter, days, stabilityFraction), NOW);
+    }
+
+    private static Change moved(UUID id) {
+        return new Change(id, NOW.minusSeconds(3600), NOW.plusSeconds(86400));
+    }
+}
@@ -0,0 +1,88 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.cluster.CardChange;
+import com.mrtob.srs.cluster.RemoteCardChanges;
+import com.mrtob.srs.config.ListingProperties;
+import com.mrtob.srs.repository.CardCountRepository;
+import com.mrtob.srs.repository.CardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardCountEstimatorTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardCountRepository cardCountRepository;
+
+    private CardCountEstimator estimator;
+
+    @BeforeEach
+    void setUp() {
+        estimator = new CardCountEstimator(cardRepository, cardCountRepository, new ListingProperties(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void none_issuesNoQuery() {
+        assertThat(estimator.total(CardCountEstimator.Mode.NONE, "term")).isNull();
+
+        verifyNoInteractions(cardRepository, cardCountRepository);
+    }
+
+    @Test
+    void exact_countsWithSearchPredicate() {
+        when(cardRepository.countSearch("term")).thenReturn(3L);
+        when(cardRepository.count()).thenReturn(10L);
+
+        assertThat(estimator.total(CardCountEstimator.Mode.EXACT, "term")).isEqualTo(3);
+        assertThat(estimator.total(CardCountEstimator.Mode.EXACT, null)).isEqualTo(10);
+    }
+
+    @Test
+    void approximate_usesPlannerStatistics() {
+        when(cardCountRepository.estimateAll()).thenReturn(OptionalLong.of(1_200_000));
+        when(cardCountRepository.estimateSearch("term")).thenReturn(6_000L);
+
+        assertThat(estimator.total(CardCountEstimator.Mode.APPROXIMATE, null)).isEqualTo(1_200_000);
+        assertThat(estimator.total(CardCountEstimator.Mode.APPROXIMATE, "term")).isEqualTo(6_000);
+        verify(cardRepository, never()).count();
+    }
+
+    @Test
+    void approximate_withoutStatistics_cachesExactCount() {
+        when(cardCountRepository.estimateAll()).thenReturn(OptionalLong.empty());
+        when(cardRepository.count()).thenReturn(42L);
+
+        assertThat(estimator.total(CardCountEstimator.Mode.APPROXIMATE, null)).isEqualTo(42);
+        assertThat(estimator.total(CardCountEstimator.Mode.APPROXIMATE, null)).isEqualTo(42);
+
+        verify(cardRepository, times(1)).count();
+    }
+
+    @Test
+    void remoteCreate_invalidatesCachedCount() {
+        when(cardCountRepository.estimateAll()).thenReturn(OptionalLong.empty());
+        when(cardRepository.count()).thenReturn(42L, 43L);
+        Instant due = Instant.parse("2025-01-15T10:00:00Z");
+
+        estimator.total(CardCountEstimator.Mode.APPROXIMATE, null);
+        estimator.onRemoteChanges(new RemoteCardChanges(List.of(new CardChange(due, due.plusSeconds(60)))));
+        assertThat(estimator.total(CardCountEstimator.Mode.APPROXIMATE, null)).isEqualTo(42);
+
+        estimator.onRemoteChanges(new RemoteCardChanges(List.of(new CardChange(null, due))));
+        assertThat(estimator.total(CardCountEstimator.Mode.APPROXIMATE, null)).isEqualTo(43);
+    }
+}
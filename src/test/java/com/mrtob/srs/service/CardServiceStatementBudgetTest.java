@@ -0,0 +1,137 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.config.PersistenceConfig;
+import com.mrtob.srs.dto.CardCreateRequest;
+import com.mrtob.srs.dto.CardUpdateRequest;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.entity.ContentHash;
+import com.mrtob.srs.repository.CardImportRepository;
+import com.mrtob.srs.repository.CardRepository;
+import com.mrtob.srs.repository.DueOrder;
+import com.mrtob.srs.repository.SchedulingStateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static com.mrtob.srs.observability.StatementAssertions.assertStatementsAtMost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the number of round trips per {@link CardService} operation against an in-memory database.
+ * Runs without a surrounding test transaction so every call commits like it does in production.
+ */
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+@Import({CardService.class, SchedulingStateRepository.class, CardImportRepository.class, PersistenceConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CardServiceStatementBudgetTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @MockitoBean
+    private SchedulingWriteBehind writeBehind;
+
+    @MockitoBean
+    private DueCountIndex dueCounts;
+
+    @AfterEach
+    void cleanUp() {
+        cardRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void create_issuesSingleInsert() {
+        Card card = assertStatementsAtMost(1, () -> cardService.create(new CardCreateRequest("Q", "A")));
+
+        assertThat(card.getId().version()).isEqualTo(7);
+    }
+
+    @Test
+    void update_issuesSelectAndUpdateOnly() {
+        Card card = cardService.create(new CardCreateRequest("Q", "A"));
+
+        assertStatementsAtMost(2, () -> cardService.update(card.getId(), new CardUpdateRequest("New Q", "New A")));
+
+        assertThat(cardRepository.findById(card.getId())).get()
+                .extracting(Card::getFront).isEqualTo("New Q");
+    }
+
+    @Test
+    void create_withMerge_probesContentHashIndexOnce() {
+        Card card = cardService.create(new CardCreateRequest("Q", "A"));
+
+        CardService.Created duplicate = assertStatementsAtMost(1,
+                () -> cardService.create(new CardCreateRequest(" q", "A "), DuplicatePolicy.MERGE));
+
+        assertThat(duplicate.duplicate()).isTrue();
+        assertThat(duplicate.card().getId()).isEqualTo(card.getId());
+        assertThat(cardRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void update_rehashesContent() {
+        Card card = cardService.create(new CardCreateRequest("Q", "A"));
+
+        cardService.update(card.getId(), new CardUpdateRequest("New Q", "New A"));
+
+        assertThat(cardRepository.findFirstByContentHash(ContentHash.of("new q", "new a"))).get()
+                .extracting(Card::getId).isEqualTo(card.getId());
+    }
+
+    @Test
+    void findAll_issuesPageQueryAndCount() {
+        cardService.create(new CardCreateRequest("Q", "A"));
+
+        assertStatementsAtMost(2, () -> cardService.findAll(PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findSlice_skipsCountQuery() {
+        cardService.create(new CardCreateRequest("Q", "A"));
+
+        assertStatementsAtMost(1, () -> cardService.findSlice(PageRequest.of(0, 10)));
+        assertStatementsAtMost(1, () -> cardService.searchSlice("q", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findDueCards_issuesSingleQuery() {
+        cardRepository.save(Card.builder().front("Q").back("A").nextReview(Instant.now().minusSeconds(60)).build());
+
+        assertThat(assertStatementsAtMost(1, cardService::findDueCards)).hasSize(1);
+    }
+
+    @Test
+    void findDueCards_byRetrievability_ranksInSingleQuery() {
+        Instant now = Instant.now();
+        // Reviewed 10 days ago, but stable for 100 days: still well remembered
+        Card stable = dueCard("stable", 100, now.minus(10, ChronoUnit.DAYS));
+        // Reviewed 5 days ago with a stability of 1 day: most likely forgotten
+        Card fragile = dueCard("fragile", 1, now.minus(5, ChronoUnit.DAYS));
+        Card fresh = dueCard("new", 0, null);
+
+        List<Card> due = assertStatementsAtMost(1, () -> cardService.findFirstDue(DueOrder.RETRIEVABILITY, 2));
+
+        assertThat(due).extracting(Card::getId).containsExactly(fragile.getId(), stable.getId());
+        assertThat(cardService.findFirstDue(DueOrder.RETRIEVABILITY, 10)).last()
+                .extracting(Card::getId).isEqualTo(fresh.getId());
+    }
+
+    private Card dueCard(String front, double stability, Instant lastReview) {
+        return cardRepository.save(Card.builder().front(front).back("A").stability(stability)
+                .learningStep(lastReview != null ? -1 : 0).lastReview(lastReview)
+                .nextReview(Instant.now().minusSeconds(60)).build());
+    }
+}
@@ -1,29 +1,40 @@
 package com.mrtob.srs.service;
 
+import com.mrtob.srs.config.CardProperties;
 import com.mrtob.srs.dto.CardCreateRequest;
 import com.mrtob.srs.dto.CardUpdateRequest;
 import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.entity.ContentHash;
+import com.mrtob.srs.repository.CardImportRepository;
 import com.mrtob.srs.repository.CardRepository;
+import com.mrtob.srs.repository.SchedulingStateRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +43,21 @@ class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private SchedulingStateRepository schedulingStateRepository;
+
+    @Mock
+    private SchedulingWriteBehind writeBehind;
+
+    @Mock
+    private DueCountIndex dueCounts;
+
+    @Mock
+    private CardImportRepository cardImportRepository;
+
+    @Spy
+    private CardProperties properties = new CardProperties(DuplicatePolicy.ALLOW, 3);
+
     @InjectMocks
     private CardService cardService;
 
@@ -75,6 +101,101 @@ class CardServiceTest {
         ArgumentCaptor<Card> captor = ArgumentCaptor.forClass(Card.class);
         verify(cardRepository).save(captor.capture());
         assertThat(captor.getValue().getEasinessFactor()).isEqualTo(2.5);
+        verify(dueCounts).add(result.getNextReview());
+    }
+
+    @Test
+    void create_merge_returnsExistingCardInsteadOfInserting() {
+        Card existing = buildCard();
+        when(cardRepository.findFirstByContentHash(ContentHash.of("what is  JAVA? ", "A programming language")))
+                .thenReturn(Optional.of(existing));
+
+        CardService.Created result = cardService.create(
+                new CardCreateRequest("what is  JAVA? ", "A programming language"), DuplicatePolicy.MERGE);
+
+        assertThat(result.card()).isSameAs(existing);
+        assertThat(result.duplicate()).isTrue();
+        verify(cardRepository, never()).save(any());
+        verifyNoInteractions(dueCounts);
+    }
+
+    @Test
+    void create_reject_throwsConflictForDuplicate() {
+        Card existing = buildCard();
+        when(cardRepository.findFirstByContentHash(any())).thenReturn(Optional.of(existing));
+
+        assertThatThrownBy(() -> cardService.create(new CardCreateRequest("Q", "A"), DuplicatePolicy.REJECT))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining(existing.getId().toString());
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    void create_allow_skipsDuplicateCheck() {
+        when(cardRepository.save(any(Card.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        assertThat(cardService.create(new CardCreateRequest("Q", "A"), null).duplicate()).isFalse();
+
+        verify(cardRepository, never()).findFirstByContentHash(any());
+    }
+
+    @Test
+    void importAll_merge_checksBatchOnceAndInsertsOnlyNewCards() {
+        UUID existingId = UUID.randomUUID();
+        when(cardImportRepository.findIdsByContentHash(anyList())).thenReturn(
+                new HashMap<>(Map.of(ContentHash.hex(ContentHash.of("Known", "A")), existingId)));
+
+        CardService.Imported result = cardService.importAll(List.of(
+                new CardCreateRequest("New", "A"),
+                new CardCreateRequest("known", "a"),
+                new CardCreateRequest(" new ", "A")), DuplicatePolicy.MERGE);
+
+        ArgumentCaptor<List<Card>> inserted = ArgumentCaptor.captor();
+        verify(cardImportRepository).insertAll(inserted.capture());
+        assertThat(inserted.getValue()).singleElement().satisfies(card -> {
+            assertThat(card.getFront()).isEqualTo("New");
+            assertThat(card.getContentHash()).isEqualTo(ContentHash.of("New", "A"));
+        });
+        UUID newId = inserted.getValue().getFirst().getId();
+        assertThat(result.ids()).containsExactly(newId, existingId, newId);
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.duplicates()).isEqualTo(2);
+        verify(dueCounts).add(any(Instant.class));
+    }
+
+    @Test
+    void importAll_inTransaction_countsCardsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cardService.importAll(List.of(new CardCreateRequest("Q", "A"), new CardCreateRequest("R", "A")), null);
+
+            verifyNoInteractions(dueCounts);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(dueCounts, times(2)).add(any(Instant.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void importAll_reject_failsWithoutInserting() {
+        when(cardImportRepository.findIdsByContentHash(anyList())).thenReturn(new HashMap<>());
+
+        assertThatThrownBy(() -> cardService.importAll(List.of(
+                new CardCreateRequest("Q", "A"), new CardCreateRequest("q", "A")), DuplicatePolicy.REJECT))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Card 1");
+        verify(cardImportRepository, never()).insertAll(any());
+    }
+
+    @Test
+    void importAll_rejectsBatchesAboveLimit() {
+        List<CardCreateRequest> requests = List.of(new CardCreateRequest("1", "A"), new CardCreateRequest("2", "A"),
+                new CardCreateRequest("3", "A"), new CardCreateRequest("4", "A"));
+
+        assertThatThrownBy(() -> cardService.importAll(requests, null))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(cardImportRepository);
     }
 
     @Test
@@ -106,23 +227,25 @@ class CardServiceTest {
     @Test
     void delete_deletesExistingCard() {
         UUID id = UUID.randomUUID();
-        when(cardRepository.existsById(id)).thenReturn(true);
+        Instant nextReview = Instant.now();
+        when(schedulingStateRepository.deleteReturningNextReview(id)).thenReturn(Optional.of(nextReview));
 
         cardService.delete(id);
 
-        verify(cardRepository).deleteById(id);
+        verify(writeBehind).discard(id);
+        verify(dueCounts).remove(nextReview);
     }
 
     @Test
     void delete_throwsWhenCardNotFound() {
         UUID id = UUID.randomUUID();
-        when(cardRepository.existsById(id)).thenReturn(false);
+        when(schedulingStateRepository.deleteReturningNextReview(id)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardService.delete(id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining(id.toString());
 
-        verify(cardRepository, never()).deleteById(any());
+        verifyNoInteractions(dueCounts);
     }
 
     @Test
@@ -136,6 +259,23 @@ class CardServiceTest {
         verify(cardRepository).findByNextReviewBefore(any(Instant.class));
     }
 
+    @Test
+    void findDueCards_seesUnflushedWriteBehindState() {
+        Card reviewedAway = buildCard();
+        Card reviewedInto = buildCard();
+        when(cardRepository.findByNextReviewBefore(any(Instant.class))).thenReturn(List.of(reviewedAway));
+        when(writeBehind.overlay(reviewedAway)).thenAnswer(inv -> {
+            reviewedAway.setNextReview(Instant.now().plusSeconds(600));
+            return true;
+        });
+        when(writeBehind.pendingDueIds(any(Instant.class))).thenReturn(List.of(reviewedInto.getId()));
+        when(cardRepository.findAllById(List.of(reviewedInto.getId()))).thenReturn(List.of(reviewedInto));
+
+        List<Card> result = cardService.findDueCards();
+
+        assertThat(result).containsExactly(reviewedInto);
+    }
+
     private Card buildCard() {
         return Card.builder()
                 .id(UUID.randomUUID())
@@ -0,0 +1,175 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.cluster.CardChange;
+import com.mrtob.srs.cluster.ClusterChangeBus;
+import com.mrtob.srs.cluster.RemoteCardChanges;
+import com.mrtob.srs.repository.SchedulingStateRepository;
+import com.mrtob.srs.snapshot.ReconciledSnapshot;
+import com.mrtob.srs.snapshot.SchedulingSnapshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DueCountIndexTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-15T10:20:00Z");
+    private static final long NOW_HOUR = NOW.getEpochSecond() / 3600;
+
+    @Mock
+    private SchedulingStateRepository repository;
+
+    @Mock
+    private ClusterChangeBus changes;
+
+    @Mock
+    private SchedulingSnapshotStore snapshots;
+
+    private DueCountIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DueCountIndex(repository, changes, snapshots);
+    }
+
+    @Test
+    void rebuild_loadsHourlyCounts() {
+        when(repository.countByNextReviewHour()).thenReturn(Map.of(
+                NOW_HOUR - 48, 5L,
+                NOW_HOUR, 2L,
+                NOW_HOUR + 1, 7L));
+
+        index.rebuild();
+        DueCountIndex.Snapshot snapshot = index.snapshot(NOW, DueCountIndex.Granularity.HOUR, 2);
+
+        assertThat(snapshot.dueNow()).isEqualTo(7);
+        assertThat(snapshot.buckets()).extracting(DueCountIndex.Bucket::count).containsExactly(7L, 0L);
+        assertThat(snapshot.buckets().getFirst().from()).isEqualTo(Instant.parse("2025-01-15T11:00:00Z"));
+    }
+
+    @Test
+    void rebuild_neverExposesPartiallyLoadedCounts() throws Exception {
+        Map<Long, Long> counts = new HashMap<>();
+        for (long hour = 0; hour < 1000; hour++) {
+            counts.put(NOW_HOUR - hour, 1L);
+        }
+        when(repository.countByNextReviewHour()).thenReturn(counts);
+        index.rebuild();
+        Thread rebuilder = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 200; i++) {
+                index.rebuild();
+            }
+        });
+
+        while (rebuilder.isAlive()) {
+            assertThat(index.snapshot(NOW, DueCountIndex.Granularity.HOUR, 1).dueNow()).isEqualTo(1000);
+        }
+        rebuilder.join();
+    }
+
+    @Test
+    void start_warmStartsFromSnapshotWithoutScanningCards() {
+        ReconciledSnapshot snapshot = mock(ReconciledSnapshot.class);
+        when(snapshot.countByNextReviewHour()).thenReturn(Map.of(NOW_HOUR - 1, 4L, NOW_HOUR + 1, 2L));
+        when(snapshots.load()).thenReturn(Optional.of(snapshot));
+
+        index.start();
+
+        DueCountIndex.Snapshot counts = index.snapshot(NOW, DueCountIndex.Granularity.HOUR, 1);
+        assertThat(counts.dueNow()).isEqualTo(4);
+        assertThat(counts.buckets().getFirst().count()).isEqualTo(2);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void start_withoutSnapshot_rebuildsFromCards() {
+        when(snapshots.load()).thenReturn(Optional.empty());
+        when(repository.countByNextReviewHour()).thenReturn(Map.of(NOW_HOUR, 3L));
+
+        index.start();
+
+        assertThat(index.snapshot(NOW, DueCountIndex.Granularity.HOUR, 1).dueNow()).isEqualTo(3);
+    }
+
+    @Test
+    void dayBuckets_firstBucketCoversRestOfToday() {
+        index.add(NOW.plus(3, ChronoUnit.HOURS));
+        index.add(NOW.plus(20, ChronoUnit.HOURS));
+        index.add(NOW.plus(30, ChronoUnit.HOURS));
+
+        DueCountIndex.Snapshot snapshot = index.snapshot(NOW, DueCountIndex.Granularity.DAY, 2);
+
+        assertThat(snapshot.buckets()).extracting(DueCountIndex.Bucket::count).containsExactly(1L, 2L);
+        assertThat(snapshot.buckets().getFirst().to()).isEqualTo(Instant.parse("2025-01-16T00:00:00Z"));
+        assertThat(snapshot.buckets().get(1).to()).isEqualTo(Instant.parse("2025-01-17T00:00:00Z"));
+    }
+
+    @Test
+    void move_shiftsCardBetweenBuckets() {
+        Instant overdue = NOW.minus(2, ChronoUnit.DAYS);
+        index.add(overdue);
+
+        index.move(overdue, NOW.plus(5, ChronoUnit.HOURS));
+
+        DueCountIndex.Snapshot snapshot = index.snapshot(NOW, DueCountIndex.Granularity.DAY, 1);
+        assertThat(snapshot.dueNow()).isZero();
+        assertThat(snapshot.buckets().getFirst().count()).isEqualTo(1);
+    }
+
+    @Test
+    void compaction_keepsCountsOfFoldedHoursCorrect() {
+        Instant overdue = NOW.minus(3, ChronoUnit.DAYS);
+        index.add(overdue);
+        index.add(overdue);
+        index.snapshot(NOW, DueCountIndex.Granularity.HOUR, 1); // folds past hours
+
+        index.remove(overdue);
+
+        assertThat(index.snapshot(NOW, DueCountIndex.Granularity.HOUR, 1).dueNow()).isEqualTo(1);
+    }
+
+    @Test
+    void localChanges_arePublished() {
+        Instant due = NOW.plus(1, ChronoUnit.HOURS);
+        Instant later = NOW.plus(3, ChronoUnit.DAYS);
+
+        index.add(due);
+        index.move(due, due.plusSeconds(60)); // same hour, nothing to tell
+        index.move(due, later);
+        index.remove(later);
+
+        verify(changes).publish(null, due);
+        verify(changes).publish(due, later);
+        verify(changes).publish(later, null);
+        verifyNoMoreInteractions(changes);
+    }
+
+    @Test
+    void remoteChanges_areAppliedWithoutRepublishing() {
+        Instant overdue = NOW.minus(1, ChronoUnit.DAYS);
+        index.add(overdue);
+        clearInvocations(changes);
+
+        index.onRemoteChanges(new RemoteCardChanges(List.of(
+                new CardChange(null, overdue),
+                new CardChange(overdue, NOW.plus(2, ChronoUnit.HOURS)),
+                new CardChange(overdue, null))));
+
+        DueCountIndex.Snapshot snapshot = index.snapshot(NOW, DueCountIndex.Granularity.DAY, 1);
+        assertThat(snapshot.dueNow()).isZero();
+        assertThat(snapshot.buckets().getFirst().count()).isEqualTo(1);
+        verifyNoInteractions(changes);
+    }
+}
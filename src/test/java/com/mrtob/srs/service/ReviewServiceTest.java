@@ -1,8 +1,13 @@
 package com.mrtob.srs.service;
 
+import com.mrtob.srs.algorithm.MemoryState;
+import com.mrtob.srs.algorithm.Rating;
 import com.mrtob.srs.algorithm.SpacedRepetitionAlgorithm;
 import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.repository.CardLeaseRepository;
 import com.mrtob.srs.repository.CardRepository;
+import com.mrtob.srs.repository.SchedulingState;
+import com.mrtob.srs.repository.SchedulingStateRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -11,12 +16,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,14 +32,134 @@ class ReviewServiceTest {
     @Mock
     private CardRepository repo;
 
+    @Mock
+    private SchedulingStateRepository schedulingStates;
+
+    @Mock
+    private CardLeaseRepository leases;
+
     @Mock
     private SpacedRepetitionAlgorithm algorithm;
 
+    @Mock
+    private SchedulingWriteBehind writeBehind;
+
+    @Mock
+    private DueCountIndex dueCounts;
+
+    @Mock
+    private ReviewStatsRecorder stats;
+
     @InjectMocks
     private ReviewService reviewService;
 
     @Test
-    void review_delegatesToAlgorithmAndSaves() {
+    void review_readsSchedulingStateAndUpdatesInOneStatement() {
+        UUID id = UUID.randomUUID();
+        Instant now = Instant.now();
+        SchedulingState current = SchedulingState.of(id, MemoryState.initial(now));
+        MemoryState next = MemoryState.initial(now.plusSeconds(86400));
+        Card reviewed = Card.builder()
+                .id(id)
+                .front("Q")
+                .back("A")
+                .nextReview(next.nextReview())
+                .build();
+
+        when(schedulingStates.findById(id)).thenReturn(Optional.of(current));
+        when(algorithm.schedule(eq(current.toMemoryState()), eq(4), any())).thenReturn(next);
+        when(schedulingStates.compareAndSet(current, SchedulingState.of(id, next))).thenReturn(Optional.of(reviewed));
+
+        Card result = reviewService.review(id, 4);
+
+        assertThat(result).isSameAs(reviewed);
+        verify(dueCounts).move(now, next.nextReview());
+        verify(stats).record(eq(id), eq(current.toMemoryState()), eq(next), eq(4), any());
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void review_concurrentUpdate_retriesOnFreshState() {
+        UUID id = UUID.randomUUID();
+        Instant now = Instant.now();
+        SchedulingState stale = SchedulingState.of(id, MemoryState.initial(now));
+        SchedulingState fresh = SchedulingState.of(id, MemoryState.initial(now.plusSeconds(60)));
+        MemoryState next = MemoryState.initial(now.plusSeconds(86400));
+        Card reviewed = Card.builder().id(id).front("Q").back("A").nextReview(next.nextReview()).build();
+
+        when(schedulingStates.findById(id)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(algorithm.schedule(any(), eq(4), any())).thenReturn(next);
+        when(schedulingStates.compareAndSet(eq(stale), any())).thenReturn(Optional.empty());
+        when(schedulingStates.compareAndSet(eq(fresh), any())).thenReturn(Optional.of(reviewed));
+
+        assertThat(reviewService.review(id, 4)).isSameAs(reviewed);
+        verify(dueCounts).move(fresh.nextReview(), next.nextReview());
+        verify(stats, times(1)).record(eq(id), eq(fresh.toMemoryState()), eq(next), eq(4), any());
+    }
+
+    @Test
+    void review_keepsLosingRace_throwsConflict() {
+        UUID id = UUID.randomUUID();
+        SchedulingState current = SchedulingState.of(id, MemoryState.initial(Instant.now()));
+
+        when(schedulingStates.findById(id)).thenReturn(Optional.of(current));
+        when(algorithm.schedule(any(), eq(4), any())).thenReturn(current.toMemoryState());
+        when(schedulingStates.compareAndSet(eq(current), any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> reviewService.review(id, 4))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("concurrently");
+        verifyNoInteractions(dueCounts);
+    }
+
+    @Test
+    void reviewLeased_updatesOnlyWhileLeasedAndReleasesLease() {
+        UUID id = UUID.randomUUID();
+        UUID sessionId = UUID.randomUUID();
+        Instant now = Instant.now();
+        SchedulingState current = SchedulingState.of(id, MemoryState.initial(now));
+        MemoryState next = MemoryState.initial(now.plusSeconds(86400));
+        Card reviewed = Card.builder().id(id).front("Q").back("A").nextReview(next.nextReview()).build();
+
+        when(schedulingStates.findLeased(id, sessionId)).thenReturn(Optional.of(current));
+        when(algorithm.schedule(any(), eq(3), any())).thenReturn(next);
+        when(schedulingStates.compareAndSetReleasingLease(current, SchedulingState.of(id, next), sessionId))
+                .thenReturn(Optional.of(reviewed));
+
+        assertThat(reviewService.reviewLeased(id, 3, sessionId)).isSameAs(reviewed);
+        verify(schedulingStates, never()).compareAndSet(any(), any());
+    }
+
+    @Test
+    void reviewLeased_cardNotLeasedToSession_throwsConflict() {
+        UUID id = UUID.randomUUID();
+        UUID sessionId = UUID.randomUUID();
+        when(schedulingStates.findLeased(id, sessionId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> reviewService.reviewLeased(id, 3, sessionId))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("not leased");
+        verifyNoInteractions(algorithm, dueCounts);
+    }
+
+    @Test
+    void reviewLeased_withWriteBehind_releasesLeaseBeforeStaging() {
+        UUID id = UUID.randomUUID();
+        UUID sessionId = UUID.randomUUID();
+        Card card = Card.builder().id(id).front("Q").back("A").nextReview(Instant.now()).build();
+
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(leases.release(id, sessionId)).thenReturn(true);
+        when(repo.findById(id)).thenReturn(Optional.of(card));
+        when(algorithm.review(card, 3)).thenReturn(card);
+        when(writeBehind.stage(card)).thenReturn(true);
+
+        assertThat(reviewService.reviewLeased(id, 3, sessionId)).isSameAs(card);
+        verify(leases).release(id, sessionId);
+    }
+
+    @Test
+    void review_withWriteBehind_stagesInsteadOfSaving() {
         UUID id = UUID.randomUUID();
         Card card = Card.builder()
                 .id(id)
@@ -40,34 +167,64 @@ class ReviewServiceTest {
                 .back("A")
                 .nextReview(Instant.now())
                 .build();
-        Card reviewed = Card.builder()
+
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(repo.findById(id)).thenReturn(Optional.of(card));
+        when(algorithm.review(card, 4)).thenReturn(card);
+        when(writeBehind.stage(card)).thenReturn(true);
+
+        Card result = reviewService.review(id, 4);
+
+        assertThat(result).isSameAs(card);
+        verify(writeBehind).overlay(card);
+        verify(repo, never()).save(any());
+    }
+
+    @Test
+    void review_withWriteBehindShuttingDown_savesEntity() {
+        UUID id = UUID.randomUUID();
+        Card card = Card.builder()
                 .id(id)
                 .front("Q")
                 .back("A")
-                .nextReview(Instant.now().plusSeconds(86400))
+                .nextReview(Instant.now())
                 .build();
 
+        when(writeBehind.isEnabled()).thenReturn(true);
         when(repo.findById(id)).thenReturn(Optional.of(card));
-        when(algorithm.review(card, 4)).thenReturn(reviewed);
-        when(repo.save(reviewed)).thenReturn(reviewed);
+        when(algorithm.review(card, 4)).thenReturn(card);
+        when(repo.save(card)).thenReturn(card);
 
-        Card result = reviewService.review(id, 4);
+        assertThat(reviewService.review(id, 4)).isSameAs(card);
+        verify(repo).save(card);
+    }
 
-        assertThat(result).isEqualTo(reviewed);
-        verify(algorithm).review(card, 4);
-        verify(repo).save(reviewed);
+    @Test
+    void preview_delegatesToAlgorithmWithoutSaving() {
+        Instant now = Instant.now();
+        Card card = Card.builder()
+                .id(UUID.randomUUID())
+                .front("Q")
+                .back("A")
+                .nextReview(now)
+                .build();
+        Map<Rating, MemoryState> previews = Map.of(Rating.GOOD, MemoryState.initial(now));
+        when(algorithm.previewAll(MemoryState.of(card), now)).thenReturn(previews);
+
+        assertThat(reviewService.preview(card, now)).isEqualTo(previews);
+        verifyNoInteractions(repo);
     }
 
     @Test
     void review_throwsWhenCardNotFound() {
         UUID id = UUID.randomUUID();
-        when(repo.findById(id)).thenReturn(Optional.empty());
+        when(schedulingStates.findById(id)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> reviewService.review(id, 4))
                 .isInstanceOf(ResponseStatusException.class)
                 .hasMessageContaining("Card not found");
 
-        verify(algorithm, never()).review(any(), anyInt());
-        verify(repo, never()).save(any());
+        verify(algorithm, never()).schedule(any(), anyInt(), any());
+        verify(schedulingStates, never()).compareAndSet(any(), any());
     }
 }
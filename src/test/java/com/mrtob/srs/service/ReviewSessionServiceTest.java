@@ -0,0 +1,108 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.config.ReviewSessionProperties;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.repository.CardLeaseRepository;
+import com.mrtob.srs.repository.DueOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewSessionServiceTest {
+
+    @Mock
+    private CardLeaseRepository leases;
+
+    @Mock
+    private ReviewService reviewService;
+
+    @Mock
+    private SchedulingWriteBehind writeBehind;
+
+    private ReviewSessionService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        sessionService = new ReviewSessionService(leases, reviewService, writeBehind,
+                new ReviewSessionProperties(Duration.ofMinutes(15), 50, DueOrder.NEXT_REVIEW));
+    }
+
+    @Test
+    void start_leasesUpToMaxSizeForNewSession() {
+        Card card = card(Instant.now().minusSeconds(60));
+        when(leases.renewAndLease(any(), any(), any(), eq(50), any())).thenReturn(List.of(card));
+
+        ReviewSession session = sessionService.start(500);
+
+        assertThat(session.id().version()).isEqualTo(7);
+        assertThat(session.cards()).containsExactly(card);
+        assertThat(session.leasedUntil()).isAfter(Instant.now().plus(Duration.ofMinutes(14)));
+        verify(leases).renewAndLease(eq(session.id()), any(), eq(session.leasedUntil()), eq(50), eq(DueOrder.NEXT_REVIEW));
+    }
+
+    @Test
+    void review_acksLeaseAndPrefetchesNextCard() {
+        UUID sessionId = UUID.randomUUID();
+        Card reviewed = card(Instant.now().plusSeconds(86400));
+        Card next = card(Instant.now().minusSeconds(60));
+        when(reviewService.reviewLeased(reviewed.getId(), 3, sessionId)).thenReturn(reviewed);
+        when(leases.renewAndLease(eq(sessionId), any(), any(), eq(1), any())).thenReturn(List.of(next));
+
+        SessionReview review = sessionService.review(sessionId, reviewed.getId(), 3);
+
+        assertThat(review.reviewed()).isSameAs(reviewed);
+        assertThat(review.next()).isSameAs(next);
+    }
+
+    @Test
+    void review_nothingLeftToLease_returnsNoNextCard() {
+        UUID sessionId = UUID.randomUUID();
+        Card reviewed = card(Instant.now().plusSeconds(86400));
+        when(reviewService.reviewLeased(reviewed.getId(), 3, sessionId)).thenReturn(reviewed);
+        when(leases.renewAndLease(eq(sessionId), any(), any(), eq(1), any())).thenReturn(List.of());
+
+        assertThat(sessionService.review(sessionId, reviewed.getId(), 3).next()).isNull();
+    }
+
+    @Test
+    void start_withWriteBehind_releasesCardsReviewedSinceLastFlush() {
+        Card stale = card(Instant.now().minusSeconds(60));
+        Card due = card(Instant.now().minusSeconds(60));
+        when(leases.renewAndLease(any(), any(), any(), anyInt(), any())).thenReturn(List.of(stale, due));
+        when(writeBehind.overlay(stale)).thenAnswer(inv -> {
+            stale.setNextReview(Instant.now().plusSeconds(86400));
+            return true;
+        });
+
+        ReviewSession session = sessionService.start(10);
+
+        assertThat(session.cards()).containsExactly(due);
+        verify(leases).release(stale.getId(), session.id());
+    }
+
+    @Test
+    void end_releasesAllLeases() {
+        UUID sessionId = UUID.randomUUID();
+
+        sessionService.end(sessionId);
+
+        verify(leases).releaseAll(sessionId);
+    }
+
+    private static Card card(Instant nextReview) {
+        return Card.builder().id(UUID.randomUUID()).front("Q").back("A").nextReview(nextReview).build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.algorithm.FSRSAlgorithm;
+import com.mrtob.srs.algorithm.MemoryState;
+import com.mrtob.srs.algorithm.SM2Algorithm;
+import com.mrtob.srs.algorithm.SpacedRepetitionAlgorithm;
+import com.mrtob.srs.config.StatsProperties;
+import com.mrtob.srs.repository.DailyRollup;
+import com.mrtob.srs.repository.ReviewLogEntry;
+import com.mrtob.srs.repository.ReviewStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewStatsRecorderTest {
+
+    private static final Instant DAY_ONE = Instant.parse("2025-01-15T23:00:00Z");
+    private static final Instant DAY_TWO = Instant.parse("2025-01-16T01:00:00Z");
+
+    @Mock
+    private ReviewStatsRepository repository;
+
+    @Mock
+    private SpacedRepetitionAlgorithm algorithm;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_writesLogAndOneRollupPerUtcDay() {
+        ReviewStatsRecorder recorder = create(true, 100);
+        when(algorithm.retrievability(any(), any())).thenReturn(0.8);
+        when(algorithm.passed(anyInt())).thenAnswer(invocation -> invocation.<Integer>getArgument(0) > 1);
+
+        recorder.record(UUID.randomUUID(), graduated(), scheduled(DAY_ONE, 10), 3, DAY_ONE);
+        recorder.record(UUID.randomUUID(), MemoryState.initial(DAY_ONE), scheduled(DAY_ONE, 0), 0, DAY_ONE);
+        recorder.record(UUID.randomUUID(), graduated(), scheduled(DAY_TWO, 400), 5, DAY_TWO);
+        recorder.flush();
+
+        ArgumentCaptor<List<ReviewLogEntry>> entries = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Collection<DailyRollup>> rollups = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).append(entries.capture(), rollups.capture());
+
+        assertThat(entries.getValue()).extracting(ReviewLogEntry::intervalDays).containsExactly(10, 0, 400);
+        assertThat(rollups.getValue()).hasSize(2);
+        DailyRollup first = rollups.getValue().iterator().next();
+        assertThat(first.day()).isEqualTo(LocalDate.parse("2025-01-15"));
+        assertThat(first.reviews()).isEqualTo(2);
+        assertThat(first.passed()).isEqualTo(1);
+        assertThat(first.matureReviews()).isEqualTo(1);
+        assertThat(first.maturePassed()).isEqualTo(1);
+        assertThat(first.retrievabilitySum()).isEqualTo(1.6);
+        assertThat(first.intervalHistogram()[0]).isEqualTo(1); // under a day
+        assertThat(first.intervalHistogram()[DailyRollup.bucketOf(10)]).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_countsPassesByTheAlgorithmsLapseThreshold() {
+        ReviewStatsRecorder sm2 = new ReviewStatsRecorder(repository, new SM2Algorithm(),
+                new StatsProperties(true, Duration.ofSeconds(1), 100, Duration.ofDays(730)));
+        ReviewStatsRecorder fsrs = new ReviewStatsRecorder(repository, new FSRSAlgorithm(),
+                new StatsProperties(true, Duration.ofSeconds(1), 100, Duration.ofDays(730)));
+
+        for (ReviewStatsRecorder recorder : List.of(sm2, fsrs)) {
+            // Again, Hard, Good
+            for (int quality : new int[]{1, 2, 3}) {
+                recorder.record(UUID.randomUUID(), graduated(), scheduled(DAY_ONE, 1), quality, DAY_ONE);
+            }
+            recorder.flush();
+        }
+
+        ArgumentCaptor<Collection<DailyRollup>> rollups = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, times(2)).append(anyList(), rollups.capture());
+        // SM-2 fails quality 2 and resets the card, FSRS treats it as Hard
+        assertThat(rollups.getAllValues()).extracting(days -> days.iterator().next().passed()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void flush_failure_keepsReviewsForNextRound() {
+        ReviewStatsRecorder recorder = create(true, 100);
+        doThrow(new DataAccessResourceFailureException("down")).doNothing()
+                .when(repository).append(anyList(), anyCollection());
+
+        recorder.record(UUID.randomUUID(), graduated(), scheduled(DAY_ONE, 1), 3, DAY_ONE);
+        assertThatThrownBy(recorder::flush).isInstanceOf(DataAccessResourceFailureException.class);
+        recorder.flush();
+
+        verify(repository, times(2)).append(argThat(entries -> entries.size() == 1), anyCollection());
+    }
+
+    @Test
+    void flush_conversionFailure_keepsReviewsForNextRound() {
+        ReviewStatsRecorder recorder = create(true, 1);
+        when(algorithm.retrievability(any(), any())).thenThrow(new IllegalStateException("bug")).thenReturn(0.9);
+
+        recorder.record(UUID.randomUUID(), graduated(), scheduled(DAY_ONE, 1), 3, DAY_ONE);
+        assertThatThrownBy(recorder::flush).isInstanceOf(IllegalStateException.class);
+        // still counted as pending, so the bound holds
+        recorder.record(UUID.randomUUID(), graduated(), scheduled(DAY_ONE, 1), 3, DAY_ONE);
+        recorder.flush();
+
+        verify(repository).append(argThat(entries -> entries.size() == 1), anyCollection());
+    }
+
+    @Test
+    void record_beyondMaxPending_isDropped() {
+        ReviewStatsRecorder recorder = create(true, 1);
+
+        recorder.record(UUID.randomUUID(), graduated(), scheduled(DAY_ONE, 1), 3, DAY_ONE);
+        recorder.record(UUID.randomUUID(), graduated(), scheduled(DAY_ONE, 1), 3, DAY_ONE);
+        recorder.flush();
+
+        verify(repository).append(argThat(entries -> entries.size() == 1), anyCollection());
+    }
+
+    @Test
+    void record_whenDisabled_isNoOp() {
+        ReviewStatsRecorder recorder = create(false, 100);
+
+        recorder.record(UUID.randomUUID(), graduated(), scheduled(DAY_ONE, 1), 3, DAY_ONE);
+        recorder.flush();
+
+        verifyNoInteractions(repository, algorithm);
+    }
+
+    @Test
+    void bucketOf_matchesLowerInclusiveBounds() {
+        assertThat(DailyRollup.bucketOf(0)).isZero();
+        assertThat(DailyRollup.bucketOf(1)).isEqualTo(1);
+        assertThat(DailyRollup.bucketOf(3)).isEqualTo(2);
+        assertThat(DailyRollup.bucketOf(4)).isEqualTo(3);
+        assertThat(DailyRollup.bucketOf(10_000)).isEqualTo(DailyRollup.INTERVAL_BUCKETS.length);
+    }
+
+    private ReviewStatsRecorder create(boolean enabled, int maxPending) {
+        return new ReviewStatsRecorder(repository, algorithm,
+                new StatsProperties(enabled, Duration.ofSeconds(1), maxPending, Duration.ofDays(730)));
+    }
+
+    private static MemoryState graduated() {
+        return new MemoryState(2.5, 0, 0, 5, 5, -1, DAY_ONE, null);
+    }
+
+    private static MemoryState scheduled(Instant reviewedAt, int days) {
+        return new MemoryState(2.5, 0, 0, 6, 5, -1, reviewedAt.plus(days, ChronoUnit.DAYS).plusSeconds(1), reviewedAt);
+    }
+}
@@ -0,0 +1,60 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.cluster.ClusterJobs;
+import com.mrtob.srs.config.StatsProperties;
+import com.mrtob.srs.repository.ReviewStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewStatsServiceTest {
+
+    @Mock
+    private ReviewStatsRepository repository;
+
+    @Mock
+    private ClusterJobs clusterJobs;
+
+    private ReviewStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        statsService = new ReviewStatsService(repository, clusterJobs,
+                new StatsProperties(true, Duration.ofSeconds(1), 100, Duration.ofDays(30)));
+    }
+
+    @Test
+    void rebuild_fromBeforeRetentionCutoff_isRejected() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        assertThatThrownBy(() -> statsService.rebuild(today.minusDays(30), today))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("pruned");
+        verifyNoInteractions(clusterJobs);
+    }
+
+    @Test
+    void rebuild_afterRetentionCutoff_runsExclusively() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        when(clusterJobs.runExclusive(eq("rebuild-review-stats"), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+        when(repository.rebuild(today.minusDays(29), today)).thenReturn(12);
+
+        assertThat(statsService.rebuild(today.minusDays(29), today)).isEqualTo(12);
+    }
+}
@@ -0,0 +1,159 @@
+package com.mrtob.srs.service;
+
+import com.mrtob.srs.config.WriteBehindProperties;
+import com.mrtob.srs.entity.Card;
+import com.mrtob.srs.repository.SchedulingState;
+import com.mrtob.srs.repository.SchedulingStateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulingWriteBehindTest {
+
+    @Mock
+    private SchedulingStateRepository repository;
+
+    @Test
+    void stage_returnsFalseWhenDisabled() {
+        SchedulingWriteBehind writeBehind = create(false);
+
+        assertThat(writeBehind.stage(buildCard(Instant.now()))).isFalse();
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_coalescesRepeatedUpdatesToOneRow() {
+        SchedulingWriteBehind writeBehind = create(true);
+        Card card = buildCard(Instant.now());
+
+        card.setRepetitions(1);
+        writeBehind.stage(card);
+        card.setRepetitions(2);
+        writeBehind.stage(card);
+
+        writeBehind.flush();
+
+        ArgumentCaptor<Collection<SchedulingState>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).updateAll(captor.capture());
+        assertThat(captor.getValue()).singleElement()
+                .extracting(SchedulingState::repetitions).isEqualTo(2);
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    void overlay_appliesUnflushedState() {
+        SchedulingWriteBehind writeBehind = create(true);
+        Card reviewed = buildCard(Instant.now().plusSeconds(3600));
+        writeBehind.stage(reviewed);
+
+        Card loaded = buildCard(Instant.now());
+        loaded.setId(reviewed.getId());
+
+        assertThat(writeBehind.overlay(loaded)).isTrue();
+        assertThat(loaded.getNextReview()).isEqualTo(reviewed.getNextReview());
+    }
+
+    @Test
+    void pendingDueIds_onlyReturnsDueStates() {
+        SchedulingWriteBehind writeBehind = create(true);
+        Card due = buildCard(Instant.now().minusSeconds(60));
+        Card notDue = buildCard(Instant.now().plusSeconds(60));
+        writeBehind.stage(due);
+        writeBehind.stage(notDue);
+
+        assertThat(writeBehind.pendingDueIds(Instant.now())).containsExactly(due.getId());
+    }
+
+    @Test
+    void drain_retriesAndStopsAccepting() {
+        SchedulingWriteBehind writeBehind = create(true);
+        writeBehind.start();
+        writeBehind.stage(buildCard(Instant.now()));
+        when(repository.updateAll(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(1);
+
+        writeBehind.drain();
+
+        assertThat(writeBehind.pendingCount()).isZero();
+        assertThat(writeBehind.stage(buildCard(Instant.now()))).isFalse();
+    }
+
+    @Test
+    void stage_whenFull_refusesNewCardsButReplacesBufferedOnes() {
+        SchedulingWriteBehind writeBehind = create(true, Duration.ofHours(1), 2);
+        Card first = buildCard(Instant.now());
+        writeBehind.stage(first);
+        writeBehind.stage(buildCard(Instant.now()));
+
+        assertThat(writeBehind.stage(buildCard(Instant.now()))).isFalse();
+        assertThat(writeBehind.stage(first)).isTrue();
+        assertThat(writeBehind.pendingCount()).isEqualTo(2);
+
+        writeBehind.flush();
+
+        assertThat(writeBehind.stage(buildCard(Instant.now()))).isTrue();
+    }
+
+    @Test
+    void scheduledFlush_survivesUnexpectedException() {
+        SchedulingWriteBehind writeBehind = create(true, Duration.ofMillis(10), 500);
+        when(repository.updateAll(anyCollection()))
+                .thenThrow(new IllegalStateException("bug"))
+                .thenReturn(1);
+        writeBehind.stage(buildCard(Instant.now()));
+        writeBehind.start();
+        try {
+            verify(repository, timeout(2000).times(2)).updateAll(anyCollection());
+        } finally {
+            writeBehind.drain();
+        }
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    void discard_dropsPendingState() {
+        SchedulingWriteBehind writeBehind = create(true);
+        Card card = buildCard(Instant.now());
+        writeBehind.stage(card);
+
+        writeBehind.discard(card.getId());
+        writeBehind.flush();
+
+        verify(repository, never()).updateAll(anyCollection());
+        assertThat(writeBehind.pendingDueIds(Instant.now().plusSeconds(1))).isEqualTo(List.of());
+    }
+
+    private SchedulingWriteBehind create(boolean enabled) {
+        return create(enabled, Duration.ofHours(1), 500);
+    }
+
+    private SchedulingWriteBehind create(boolean enabled, Duration flushInterval, int maxPending) {
+        return new SchedulingWriteBehind(repository,
+                new WriteBehindProperties(enabled, flushInterval, 500, maxPending));
+    }
+
+    private Card buildCard(Instant nextReview) {
+        return Card.builder()
+                .id(UUID.randomUUID())
+                .front("Q")
+                .back("A")
+                .nextReview(nextReview)
+                .build();
+    }
+}
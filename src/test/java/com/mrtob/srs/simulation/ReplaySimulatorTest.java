@@ -0,0 +1,99 @@
+package com.mrtob.srs.simulation;
+
+import com.mrtob.srs.algorithm.FSRSAlgorithm;
+import com.mrtob.srs.algorithm.SM2Algorithm;
+import com.mrtob.srs.algorithm.SpacedRepetitionAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplaySimulatorTest {
+
+    private final Instant start = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void run_reportsWorkloadAndRetentionPerAlgorithm() throws Exception {
+        SimulationReport report = simulator(2).run(synthetic(), start);
+
+        assertThat(report.cards()).isEqualTo(500);
+        assertThat(report.events()).isEqualTo(5000);
+        assertThat(report.results()).extracting(SimulationReport.AlgorithmResult::algorithm)
+                .containsExactly("sm2", "fsrs");
+        for (SimulationReport.AlgorithmResult result : report.results()) {
+            assertThat(result.reviews()).isEqualTo(Arrays.stream(result.dailyLoad()).sum());
+            assertThat(result.meanRetention()).isBetween(0.5, 1.0);
+        }
+    }
+
+    @Test
+    void run_isIndependentOfThreadCount() throws Exception {
+        SimulationReport single = simulator(1).run(synthetic(), start);
+        SimulationReport parallel = simulator(4).run(synthetic(), start);
+
+        for (int i = 0; i < single.results().size(); i++) {
+            assertThat(parallel.results().get(i).reviews()).isEqualTo(single.results().get(i).reviews());
+            assertThat(parallel.results().get(i).dailyLoad()).isEqualTo(single.results().get(i).dailyLoad());
+        }
+    }
+
+    @Test
+    void run_lateReviewsLetFsrsStabilityGrow() throws Exception {
+        Map<String, SpacedRepetitionAlgorithm> algorithms = Map.of("fsrs", new FSRSAlgorithm());
+        ReviewEventSource oneCard = consumer -> consumer.accept(new ReviewEvent(1, start.toEpochMilli(), 3));
+
+        long onTime = new ReplaySimulator(algorithms, 1, 365, 3, 0).run(oneCard, start)
+                .results().getFirst().reviews();
+        long late = new ReplaySimulator(algorithms, 1, 365, 3, 0.1).run(oneCard, start)
+                .results().getFirst().reviews();
+
+        // on time, R = 1 at every review and the interval stays at two days
+        assertThat(onTime).isGreaterThan(150);
+        assertThat(late).isLessThan(30);
+        assertThatThrownBy(() -> new ReplaySimulator(algorithms, 1, 365, 3, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void run_readsCsvAndStartsAtFirstEventDay(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("reviews.csv");
+        Files.writeString(csv, """
+                card_id,reviewed_at,quality
+                a,2025-03-04T09:00:00Z,3
+                a,2025-03-05T09:00:00Z,5
+                b,1741078800000,0
+                """);
+
+        SimulationReport report = simulator(2).run(new CsvReviewEventSource(csv), null);
+
+        assertThat(report.start()).isEqualTo(Instant.parse("2025-03-04T00:00:00Z"));
+        assertThat(report.cards()).isEqualTo(2);
+        assertThat(report.events()).isEqualTo(3);
+    }
+
+    @Test
+    void parse_rejectsMalformedLine() {
+        assertThatThrownBy(() -> CsvReviewEventSource.parse("a;b;c", 7))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Line 7");
+    }
+
+    private ReviewEventSource synthetic() {
+        return new SyntheticReviewEventSource(500, 10, start.toEpochMilli(), 30, 42);
+    }
+
+    private ReplaySimulator simulator(int threads) {
+        Map<String, SpacedRepetitionAlgorithm> algorithms = new LinkedHashMap<>();
+        algorithms.put("sm2", new SM2Algorithm());
+        algorithms.put("fsrs", new FSRSAlgorithm());
+        return new ReplaySimulator(algorithms, threads, 120, 3, 0.1);
+    }
+}
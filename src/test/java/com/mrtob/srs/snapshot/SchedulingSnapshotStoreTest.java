@@ -0,0 +1,98 @@
+package com.mrtob.srs.snapshot;
+
+import com.mrtob.srs.config.SnapshotProperties;
+import com.mrtob.srs.repository.SchedulingSnapshotRepository;
+import com.mrtob.srs.repository.SchedulingState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulingSnapshotStoreTest {
+
+    private static final UUID KEPT = UUID.fromString("00000000-0000-7000-8000-000000000001");
+    private static final UUID MOVED = UUID.fromString("00000000-0000-7000-8000-000000000002");
+    private static final UUID DELETED = UUID.fromString("00000000-0000-7000-8000-000000000003");
+    private static final UUID CREATED = UUID.fromString("00000000-0000-7000-8000-000000000004");
+
+    @Mock
+    private SchedulingSnapshotRepository repository;
+
+    @TempDir
+    private Path directory;
+
+    private final Instant asOf = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    private final long hour = Math.floorDiv(asOf.getEpochSecond(), 3600);
+
+    private SchedulingSnapshotStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SchedulingSnapshotStore(repository, properties(Duration.ofDays(7)));
+    }
+
+    @Test
+    void load_reconcilesSnapshotWithChangesSinceItWasTaken() throws IOException {
+        exportOnWrite(state(KEPT, 0), state(MOVED, 0), state(DELETED, 0));
+        store.write();
+        when(repository.findChangesSince(asOf.minus(Duration.ofMinutes(1)))).thenReturn(
+                new SchedulingSnapshotRepository.Changes(List.of(state(MOVED, 48), state(CREATED, 2)), List.of(DELETED)));
+
+        ReconciledSnapshot snapshot = store.load().orElseThrow();
+
+        assertThat(snapshot.asOf()).isEqualTo(asOf);
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.countByNextReviewHour()).isEqualTo(Map.of(hour, 1L, hour + 2, 1L, hour + 48, 1L));
+    }
+
+    @Test
+    void load_ignoresSnapshotOlderThanMaxAge() throws IOException {
+        exportOnWrite(state(KEPT, 0));
+        store.write();
+        store = new SchedulingSnapshotStore(repository, properties(Duration.ZERO));
+
+        assertThat(store.load()).isEmpty();
+        verify(repository, never()).findChangesSince(any());
+    }
+
+    @Test
+    void load_withoutSnapshotFile_isEmpty() {
+        assertThat(store.load()).isEmpty();
+    }
+
+    private void exportOnWrite(SchedulingState... states) {
+        doAnswer(invocation -> {
+            SchedulingSnapshotRepository.Export export = invocation.getArgument(0);
+            export.begin(asOf, states.length);
+            for (SchedulingState state : states) {
+                export.row(state);
+            }
+            return null;
+        }).when(repository).export(any());
+    }
+
+    private SchedulingState state(UUID id, int hoursFromNow) {
+        return SchedulingSnapshotTest.state(id, asOf.plus(hoursFromNow, ChronoUnit.HOURS));
+    }
+
+    private SnapshotProperties properties(Duration maxAge) {
+        return new SnapshotProperties(true, directory.resolve("scheduling.snapshot"), Duration.ofMinutes(15),
+                maxAge, Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,89 @@
+package com.mrtob.srs.snapshot;
+
+import com.mrtob.srs.repository.SchedulingState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SchedulingSnapshotTest {
+
+    private static final Instant AS_OF = Instant.parse("2025-01-15T10:20:30.123456Z");
+
+    // Sorted as Postgres sorts UUIDs; the last one is negative as a signed long
+    private static final UUID FIRST = UUID.fromString("00000000-0000-7000-8000-000000000001");
+    private static final UUID SECOND = UUID.fromString("01940000-0000-7000-8000-000000000002");
+    private static final UUID THIRD = UUID.fromString("f0000000-0000-7000-8000-000000000003");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void roundTrip_readsColumnsAndFindsRowsById() throws IOException {
+        Path file = directory.resolve("scheduling.snapshot");
+        write(file, state(FIRST, AS_OF.plusSeconds(60)), state(SECOND, AS_OF.minusSeconds(7200)),
+                state(THIRD, AS_OF.plusSeconds(86_400)));
+
+        SchedulingSnapshot snapshot = SchedulingSnapshot.open(file);
+
+        assertThat(snapshot.asOf()).isEqualTo(AS_OF);
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.indexOf(THIRD)).isEqualTo(2);
+        assertThat(snapshot.indexOf(UUID.randomUUID())).isEqualTo(-1);
+        assertThat(snapshot.id(1)).isEqualTo(SECOND);
+        assertThat(snapshot.nextReview(1)).isEqualTo(AS_OF.minusSeconds(7200));
+        assertThat(snapshot.stability(2)).isEqualTo(4.5);
+        assertThat(snapshot.difficulty(2)).isEqualTo(6.25);
+        assertThat(snapshot.intervalDays(2)).isEqualTo(5);
+        assertThat(snapshot.repetitions(2)).isEqualTo(3);
+        assertThat(snapshot.learningStep(2)).isEqualTo(-1);
+    }
+
+    @Test
+    void writer_rejectsRowsOutOfPostgresOrder() throws IOException {
+        try (SchedulingSnapshotWriter writer = new SchedulingSnapshotWriter(directory.resolve("out-of-order.tmp"))) {
+            writer.begin(AS_OF, 2);
+            writer.row(state(THIRD, AS_OF));
+
+            assertThatThrownBy(() -> writer.row(state(SECOND, AS_OF)))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(directory.resolve("out-of-order.tmp")).doesNotExist();
+    }
+
+    @Test
+    void open_rejectsTruncatedFile() throws IOException {
+        Path file = directory.resolve("scheduling.snapshot");
+        write(file, state(FIRST, AS_OF), state(SECOND, AS_OF));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 4);
+        }
+
+        assertThatThrownBy(() -> SchedulingSnapshot.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Truncated");
+    }
+
+    static void write(Path file, SchedulingState... states) throws IOException {
+        try (SchedulingSnapshotWriter writer = new SchedulingSnapshotWriter(file.resolveSibling("snapshot.tmp"))) {
+            writer.begin(AS_OF, states.length);
+            for (SchedulingState state : states) {
+                writer.row(state);
+            }
+            writer.commit(file);
+        }
+    }
+
+    static SchedulingState state(UUID id, Instant nextReview) {
+        return new SchedulingState(id, 2.5, 5, 3, 4.5, 6.25, -1, nextReview, null);
+    }
+}